@@ -1,9 +1,12 @@
 
 package com.ia_assistant.os_core;
 
+import com.ia_assistant.os_core.memory.MemoryManager;
+import com.ia_assistant.os_core.memory.MemoryObject;
 import com.ia_assistant.os_core.user.User;
 import com.ia_assistant.os_core.user.UserManager;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Optional;
 import java.util.TreeMap;
@@ -16,6 +19,7 @@ public class FileSystemManager {
 
     private final Node root;
     private final UserManager userManager; // Direct reference to UserManager
+    private final MemoryManager memoryManager; // Backs memory-mapped files
 
     // --- Node Classes (unchanged) ---
 
@@ -34,6 +38,10 @@ public class FileSystemManager {
 
     private static class FileNode extends Node {
         StringBuilder content;
+        // Once a file is memory-mapped its data moves into a MemoryObject, which acts as the file's page
+        // cache: reads, writes and every mapping share its frames. content is null from then on.
+        MemoryObject pages;
+        int length; // Bytes of file data at the start of pages
         FileNode(String name, User owner) {
             super(name, owner, 6); // Default: read/write for owner
             this.content = new StringBuilder();
@@ -52,8 +60,9 @@ public class FileSystemManager {
 
     // --- Constructor: Receives dependencies instead of fetching them --- 
 
-    public FileSystemManager(UserManager userManager) {
+    public FileSystemManager(UserManager userManager, MemoryManager memoryManager) {
         this.userManager = userManager;
+        this.memoryManager = memoryManager;
         // The owner of the root directory is the 'root' superuser
         User rootUser = this.userManager.findUserByName("root")
             .orElseThrow(() -> new IllegalStateException("Root user not found during FS initialization."));
@@ -161,7 +170,14 @@ public class FileSystemManager {
             System.out.println("Error: Permission denied to write to '" + path + "'.");
             return;
         }
-        ((FileNode) node).content = new StringBuilder(content);
+        FileNode file = (FileNode) node;
+        if (file.pages != null && !writeMappedFile(file, content)) {
+            System.out.println("Error: '" + path + "' is memory-mapped and the new content does not fit in its mapping.");
+            return;
+        }
+        if (file.pages == null) {
+            file.content = new StringBuilder(content);
+        }
         System.out.println("Content written to " + path);
     }
 
@@ -179,7 +195,7 @@ public class FileSystemManager {
             return;
         }
         System.out.println("--- Contents of " + path + " ---");
-        System.out.println(((FileNode) node).content.toString());
+        System.out.println(fileContent((FileNode) node));
         System.out.println("-------------------------");
     }
     
@@ -200,6 +216,82 @@ public class FileSystemManager {
         System.out.println("Permissions for '" + path + "' changed to " + newPerms);
     }
 
+    /**
+     * Maps a whole file into a process's address space, sharing its pages with every other process that
+     * maps it and with readFile()/writeFile(). Page faults in the mapping are served from the file data.
+     * Mapped writes never change the file length.
+     * @return The virtual address of the mapping, or MemoryManager.MAP_FAILED.
+     */
+    public int mapFile(String path, Process process, boolean writable) {
+        User currentUser = userManager.getCurrentUser().orElse(null);
+        if (currentUser == null) {
+            System.out.println("Error: No user is currently logged in.");
+            return MemoryManager.MAP_FAILED;
+        }
+
+        Node node = findNode(path);
+        if (node == null || node.isDirectory()) {
+            System.out.println("Error: File does not exist or is a directory.");
+            return MemoryManager.MAP_FAILED;
+        }
+        int required = writable ? 6 : 4;
+        if (!hasPermission(node, currentUser, required)) {
+            System.out.println("Error: Permission denied to map '" + path + "'.");
+            return MemoryManager.MAP_FAILED;
+        }
+
+        FileNode file = (FileNode) node;
+        if (file.pages == null) {
+            byte[] data = file.content.toString().getBytes(StandardCharsets.UTF_8);
+            file.pages = memoryManager.createMemoryObject(path, data.length, data);
+            file.length = data.length;
+            file.content = null;
+        }
+        int address = memoryManager.map(process, file.pages, 0, file.pages.getSize(), writable);
+        if (address == MemoryManager.MAP_FAILED) {
+            System.out.println("Error: No room to map '" + path + "' into PID " + process.getPid() + ".");
+        } else {
+            System.out.printf("File %s mapped into PID %d at 0x%08x (%d bytes, %s).%n",
+                path, process.getPid(), address, file.length, writable ? "read/write" : "read-only");
+        }
+        return address;
+    }
+
+    private String fileContent(FileNode file) {
+        if (file.pages == null) {
+            return file.content.toString();
+        }
+        byte[] data = new byte[file.length];
+        memoryManager.readObject(file.pages, 0, data, 0, data.length);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Replaces the data of a mapped file in place, so every mapping sees it.
+     * If it does not fit and nobody maps the file any more, the file goes back to plain heap storage.
+     * @return false if the new data does not fit in the mapped pages.
+     */
+    private boolean writeMappedFile(FileNode file, String content) {
+        byte[] data = content.getBytes(StandardCharsets.UTF_8);
+        if (data.length > file.pages.getSize()) {
+            if (file.pages.getMappingCount() > 0) {
+                return false;
+            }
+            memoryManager.releaseMemoryObject(file.pages);
+            file.pages = null;
+            file.length = 0;
+            return true;
+        }
+        memoryManager.writeObject(file.pages, 0, data, 0, data.length);
+        if (data.length < file.length) {
+            // Clear the old tail so a later mapping does not see stale bytes past the end of the file.
+            byte[] zeros = new byte[file.length - data.length];
+            memoryManager.writeObject(file.pages, data.length, zeros, 0, zeros.length);
+        }
+        file.length = data.length;
+        return true;
+    }
+
     private Node findNode(String path) {
         if (path.equals("/")) return root;
         String[] parts = path.startsWith("/") ? path.substring(1).split("/") : path.split("/");
@@ -6,8 +6,10 @@ import com.ia_assistant.os_core.concurrency.Mutex;
 import com.ia_assistant.os_core.concurrency.MutexManager;
 import com.ia_assistant.os_core.health.SystemHealthMonitor;
 import com.ia_assistant.os_core.memory.MemoryManager;
+import com.ia_assistant.os_core.memory.swap.SwapDevice;
 import com.ia_assistant.os_core.scheduler.Scheduler;
 import com.ia_assistant.os_core.user.UserManager;
+import java.io.IOException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -17,6 +19,10 @@ public final class Kernel {
 
     private static Kernel instance;
 
+    private static final int SWAP_SIZE_MB = 256;
+    private static final int HUGE_PAGES = 8; // 16 MB of the 128 MB of RAM reserved for 2 MB pages
+    private static final long COMPACTION_PERIOD_MS = 1000;
+
     private final ProcessManager processManager;
     private final MemoryManager memoryManager;
     private final FileSystemManager fileSystemManager;
@@ -34,7 +40,10 @@ public final class Kernel {
         
         this.userManager = new UserManager();
         this.memoryManager = new MemoryManager(128);
-        this.fileSystemManager = new FileSystemManager(this.userManager);
+        this.memoryManager.reserveHugePages(HUGE_PAGES);
+        this.memoryManager.startCompactionDaemon(COMPACTION_PERIOD_MS);
+        attachSwap();
+        this.fileSystemManager = new FileSystemManager(this.userManager, this.memoryManager);
         this.processManager = new ProcessManager(this.memoryManager);
         this.mutexManager = new MutexManager();
         this.scheduler = this.processManager.getScheduler();
@@ -43,6 +52,14 @@ public final class Kernel {
         System.out.println("Kernel: All subsystems are ready.");
     }
 
+    private void attachSwap() {
+        try {
+            this.memoryManager.attachSwapDevice(SwapDevice.createTemporary(SWAP_SIZE_MB * 1024 / Process.PAGE_SIZE_KB));
+        } catch (IOException e) {
+            System.err.println("Kernel: Could not create swap device, running without swap: " + e.getMessage());
+        }
+    }
+
     public static synchronized Kernel getInstance() {
         if (instance == null) {
             instance = new Kernel();
@@ -62,6 +79,15 @@ public final class Kernel {
         if (aria != null) {
             aria.shutdown();
         }
+        memoryManager.stopCompactionDaemon();
+        SwapDevice swap = memoryManager.getSwapDevice();
+        if (swap != null) {
+            try {
+                swap.close();
+            } catch (IOException e) {
+                System.err.println("Kernel: Error closing swap device: " + e.getMessage());
+            }
+        }
         isRunning.set(false);
         System.out.println("Kernel: System shut down. Aria is at rest. Goodbye!");
     }
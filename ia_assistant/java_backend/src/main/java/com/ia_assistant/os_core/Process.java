@@ -2,10 +2,11 @@
 package com.ia_assistant.os_core;
 
 import com.ia_assistant.os_core.concurrency.Thread;
+import com.ia_assistant.os_core.concurrency.Workload;
 import com.ia_assistant.os_core.memory.PageTable;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Process {
 
@@ -17,22 +18,72 @@ public class Process {
     private final List<Thread> threads;
     private final PageTable pageTable;
     private final int burstTime;
+    private final int virtualSizeInPages;
+    private final int pageSizeKB;
+    private final int pageShift; // log2 of the page size in bytes, to turn addresses into page numbers
 
     public static final int PAGE_SIZE_KB = 4;
+    public static final int HUGE_PAGE_SIZE_KB = 2048;
 
     public enum State {
         NEW, RUNNING, WAITING, TERMINATED
     }
 
     public Process(int processId, String processName, int priority, int memoryRequirement) {
+        this(processId, processName, priority, memoryRequirement, PAGE_SIZE_KB);
+    }
+
+    /**
+     * Creates a process whose whole address space uses the given page size.
+     * @param pageSizeKB Either PAGE_SIZE_KB or HUGE_PAGE_SIZE_KB. Huge pages are backed by contiguous
+     *                   frame runs from the MemoryManager's huge page pool and are never swapped out.
+     */
+    public Process(int processId, String processName, int priority, int memoryRequirement, int pageSizeKB) {
+        this(processId, processName, priority, 0, memoryRequirement, pageSizeKB);
+    }
+
+    /**
+     * Creates a process with an expected CPU burst, which seeds the burst prediction of its threads.
+     * @param priority  Nice value, from -20 (highest) to 19.
+     * @param burstTime Expected CPU burst of each thread in cycles, or 0 if unknown.
+     */
+    public Process(int processId, String processName, int priority, int burstTime, int memoryRequirement, int pageSizeKB) {
+        if (pageSizeKB != PAGE_SIZE_KB && pageSizeKB != HUGE_PAGE_SIZE_KB) {
+            throw new IllegalArgumentException("Unsupported page size: " + pageSizeKB + " KB");
+        }
         this.processId = processId;
         this.processName = processName;
         this.priority = priority;
         this.memoryRequirement = memoryRequirement;
         this.state = State.NEW;
-        this.threads = new ArrayList<>();
-        this.pageTable = new PageTable();
-        this.burstTime = 0; // Default burst time
+        this.threads = new CopyOnWriteArrayList<>(); // Workloads may spawn threads from carrier threads
+        this.pageSizeKB = pageSizeKB;
+        this.pageShift = Integer.numberOfTrailingZeros(pageSizeKB * 1024);
+        this.virtualSizeInPages = (int) Math.ceil((double) memoryRequirement / pageSizeKB);
+        this.pageTable = new PageTable(virtualSizeInPages, pageSizeKB / PAGE_SIZE_KB);
+        this.burstTime = Math.max(0, burstTime);
+    }
+
+    /**
+     * Creates the child of a fork(): same name, priority, burst time and address space layout as the parent, with an
+     * empty page table in the parent's fork family. MemoryManager.forkAddressSpace() then fills it with
+     * copy-on-write mappings. As with POSIX fork(), only one thread runs in the child.
+     */
+    public Process(int processId, Process parent) {
+        this.processId = processId;
+        this.processName = parent.processName;
+        this.priority = parent.priority;
+        this.memoryRequirement = parent.memoryRequirement;
+        this.state = State.NEW;
+        this.threads = new CopyOnWriteArrayList<>();
+        this.pageSizeKB = parent.pageSizeKB;
+        this.pageShift = parent.pageShift;
+        this.virtualSizeInPages = parent.virtualSizeInPages;
+        this.pageTable = new PageTable(parent.pageTable);
+        this.burstTime = parent.burstTime;
+        if (parent.hasActiveThreads()) {
+            threads.add(new Thread(this));
+        }
     }
 
     public int getProcessId() {
@@ -71,8 +122,25 @@ public class Process {
         return threads;
     }
 
+    /**
+     * Adds a thread that runs the given workload. The caller still has to admit it into the Scheduler.
+     */
+    public Thread createThread(Workload workload) {
+        Thread thread = new Thread(this, workload);
+        threads.add(thread);
+        return thread;
+    }
+
+    /**
+     * @return Whether any thread has not terminated yet.
+     */
     public boolean hasActiveThreads() {
-        return !threads.isEmpty();
+        for (Thread thread : threads) {
+            if (thread.getState() != Thread.ThreadState.TERMINATED) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public void terminate() {
@@ -88,8 +156,23 @@ public class Process {
         return pageTable;
     }
 
+    /**
+     * @return The size of the address space, in pages of this process's page size.
+     */
     public int getVirtualSizeInPages() {
-        return (int) Math.ceil((double) memoryRequirement / PAGE_SIZE_KB);
+        return virtualSizeInPages;
+    }
+
+    public int getPageSizeKB() {
+        return pageSizeKB;
+    }
+
+    public int getPageShift() {
+        return pageShift;
+    }
+
+    public boolean usesHugePages() {
+        return pageSizeKB != PAGE_SIZE_KB;
     }
 
     @Override
@@ -99,6 +182,7 @@ public class Process {
                 ", processName='" + processName + '\'' +
                 ", priority=" + priority +
                 ", memoryRequirement=" + memoryRequirement +
+                ", pageSizeKB=" + pageSizeKB +
                 ", state=" + state +
                 '}';
     }
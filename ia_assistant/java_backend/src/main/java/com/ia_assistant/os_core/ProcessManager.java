@@ -1,15 +1,18 @@
 package com.ia_assistant.os_core;
 
 import com.ia_assistant.os_core.concurrency.Thread;
+import com.ia_assistant.os_core.concurrency.Workload;
 import com.ia_assistant.os_core.memory.MemoryManager;
 import com.ia_assistant.os_core.scheduler.RoundRobinStrategy;
 import com.ia_assistant.os_core.scheduler.Scheduler;
-import com.ia_assistant.os_core.scheduler.ShortestJobFirstStrategy;
 import com.ia_assistant.os_core.scheduler.SchedulingAlgorithm;
+import com.ia_assistant.os_core.scheduler.SchedulingPolicies;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -17,6 +20,8 @@ import java.util.stream.Collectors;
  */
 public class ProcessManager {
 
+    public static final int DEFAULT_SCHEDULER_CPUS = 4; // CPUs simuladas del Scheduler
+
     private final List<Process> processList; // Lista maestra de todos los procesos
     private final Scheduler scheduler;
     private final MemoryManager memoryManager;
@@ -25,7 +30,7 @@ public class ProcessManager {
     public ProcessManager(MemoryManager memoryManager) {
         this.processList = new ArrayList<>();
         this.memoryManager = memoryManager;
-        this.scheduler = new Scheduler(new RoundRobinStrategy(), 4);
+        this.scheduler = new Scheduler(RoundRobinStrategy::new, 4, DEFAULT_SCHEDULER_CPUS);
         System.out.println("ProcessManager: Listo. Scheduler inicializado.");
     }
 
@@ -34,15 +39,52 @@ public class ProcessManager {
         return this.scheduler;
     }
 
+    /**
+     * Crea un proceso con prioridad (nice) 0 y admite sus hilos en el Scheduler.
+     * @param burstTime Ráfaga de CPU esperada de cada hilo, en ciclos (0 si no se sabe): es la primera
+     *                  predicción de ráfaga de sus hilos, que usan SJF y SRTF.
+     */
     public Process createProcess(String name, int burstTime, int virtualSizeInMB) {
+        return createProcess(name, burstTime, virtualSizeInMB, Process.PAGE_SIZE_KB);
+    }
+
+    /**
+     * Igual que createProcess(String, int, int), eligiendo el tamaño de página del proceso
+     * (Process.PAGE_SIZE_KB o Process.HUGE_PAGE_SIZE_KB).
+     */
+    public Process createProcess(String name, int burstTime, int virtualSizeInMB, int pageSizeKB) {
         int newPid = nextProcessId++;
-        Process newProcess = new Process(newPid, name, burstTime, virtualSizeInMB);
+        Process newProcess = new Process(newPid, name, 0, burstTime, virtualSizeInMB, pageSizeKB);
         processList.add(newProcess);
         scheduler.admitProcessThreads(newProcess);
         System.out.printf("ProcessManager: Proceso '%s' (PID %d) creado y sus hilos admitidos en el scheduler.\n", name, newProcess.getPid());
         return newProcess;
     }
 
+    /**
+     * Duplica un proceso al estilo de fork(): el hijo comparte en copia-en-escritura toda la memoria del
+     * padre, así que crearlo no copia ninguna página. Los procesos con páginas enormes no se pueden duplicar.
+     * @return El proceso hijo, o vacío si el PID no existe o usa páginas enormes.
+     */
+    public Optional<Process> fork(int pid) {
+        Optional<Process> parentOpt = findProcessById(pid);
+        if (parentOpt.isEmpty()) {
+            System.out.println("ProcessManager: No se encontró ningún proceso con PID " + pid + ".");
+            return Optional.empty();
+        }
+        Process parent = parentOpt.get();
+        if (parent.usesHugePages()) {
+            System.out.printf("ProcessManager: El proceso '%s' (PID %d) usa páginas enormes y no se puede duplicar.\n", parent.getName(), pid);
+            return Optional.empty();
+        }
+        Process child = new Process(nextProcessId++, parent);
+        memoryManager.forkAddressSpace(parent, child);
+        processList.add(child);
+        scheduler.admitProcessThreads(child);
+        System.out.printf("ProcessManager: Proceso '%s' (PID %d) duplicado como PID %d en copia-en-escritura.\n", parent.getName(), pid, child.getPid());
+        return Optional.of(child);
+    }
+
     public void runSchedulerCycles(int cycles) {
         System.out.println("--- Iniciando " + cycles + " ciclo(s) de planificador ---");
         for (int i = 0; i < cycles; i++) {
@@ -54,6 +96,31 @@ public class ProcessManager {
         listAllProcesses();
     }
 
+    /**
+     * Crea un hilo que ejecuta una carga de trabajo real en el proceso y lo admite en el scheduler.
+     */
+    public Optional<Thread> createThread(int pid, Workload workload) {
+        Optional<Process> pOpt = findProcessById(pid);
+        if (pOpt.isEmpty()) {
+            System.out.println("ProcessManager: No se encontró ningún proceso con PID " + pid + ".");
+            return Optional.empty();
+        }
+        Thread thread = pOpt.get().createThread(workload);
+        scheduler.admitThread(thread);
+        return Optional.of(thread);
+    }
+
+    /**
+     * Ejecuta las cargas de trabajo de los hilos en el pool común de ForkJoin, un quantum cada vez, hasta
+     * que no queda nada listo o hasta maxCyclesPerCpu ciclos por CPU, y libera los procesos terminados.
+     */
+    public long runWorkloads(long maxCyclesPerCpu) {
+        long executed = scheduler.runWorkloads(ForkJoinPool.commonPool(), maxCyclesPerCpu);
+        System.out.printf("ProcessManager: %d ciclo(s) de trabajo ejecutados en hilos portadores.\n", executed);
+        cleanupTerminatedProcesses();
+        return executed;
+    }
+
     private void cleanupTerminatedProcesses() {
         for (Process p : new ArrayList<>(processList)) {
             if (!p.hasActiveThreads()) {
@@ -85,15 +152,11 @@ public class ProcessManager {
     }
 
     public boolean setSchedulingStrategy(String strategyName) {
-        SchedulingAlgorithm newStrategy;
-        if ("rr".equalsIgnoreCase(strategyName)) {
-            newStrategy = new RoundRobinStrategy();
-        } else if ("sjf".equalsIgnoreCase(strategyName)) {
-            newStrategy = new ShortestJobFirstStrategy();
-        } else {
+        Optional<Supplier<SchedulingAlgorithm>> newStrategy = SchedulingPolicies.factory(strategyName);
+        if (newStrategy.isEmpty()) {
             return false;
         }
-        scheduler.setStrategy(newStrategy);
+        scheduler.setStrategy(newStrategy.get());
         return true;
     }
 
@@ -125,6 +188,7 @@ public class ProcessManager {
                                         .collect(Collectors.toList());
         System.out.println("Estrategia actual: " + scheduler.getStrategyName());
         System.out.println(queueInfo.isEmpty() ? "(vacía)" : queueInfo);
+        System.out.print(scheduler.getCpuStatus());
         System.out.println("------------------------------------");
     }
 }
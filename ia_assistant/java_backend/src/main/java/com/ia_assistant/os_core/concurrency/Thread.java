@@ -10,18 +10,51 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class Thread {
 
     private static final AtomicInteger threadIdCounter = new AtomicInteger(0);
+    private static volatile boolean tracing = true; // Traza por consola de la creación y los cambios de estado
 
     public enum ThreadState { READY, RUNNING, BLOCKED, TERMINATED }
 
+    public static final int INITIAL_BURST_PREDICTION = 4; // Ráfaga supuesta, en ciclos, mientras no se ha medido ninguna
+
     private final int threadId;
     private final Process parentProcess; // El proceso al que pertenece este hilo
-    private ThreadState state;
+    private final Workload workload;     // Trabajo real que ejecuta, o null si sólo se simula el tiempo de CPU
+    private volatile ThreadState state;
+    private volatile int cpu = -1; // CPU simulada en cuya cola está o en la que se ejecutó por última vez
+    private int schedulingLevel;    // Nivel de prioridad dinámico de las estrategias con varias colas (0 = el más alto)
+    private int levelCycles;        // Ciclos consumidos en el nivel o la prioridad dinámica actual
+    private int dynamicPriority = -1; // Prioridad dinámica de las estrategias por prioridades (0 = la más alta), o -1
+    private long virtualRuntime;    // Tiempo de CPU ponderado de las estrategias de reparto justo
+    private int strategyGeneration; // Generación de la estrategia del Scheduler a la que pertenece el estado anterior
+    private int queueSlot = -1;     // Posición en la cola de listos que lo contiene, o -1
+    private long cpuCycles;         // Ciclos de CPU consumidos en total
+    private int burstCycles;        // Ciclos consumidos en la ráfaga de CPU actual (desde que despertó)
+    private double predictedBurst;  // Predicción de la duración de la ráfaga actual, en ciclos
 
     public Thread(Process parentProcess) {
+        this(parentProcess, null);
+    }
+
+    /**
+     * Crea un hilo que ejecuta una carga de trabajo real, un paso por ciclo de CPU.
+     */
+    public Thread(Process parentProcess, Workload workload) {
         this.threadId = threadIdCounter.incrementAndGet();
         this.parentProcess = parentProcess;
+        this.workload = workload;
         this.state = ThreadState.READY;
-        System.out.printf("Thread %d (PID %d): Creado y en estado READY.\n", this.threadId, this.parentProcess.getPid());
+        this.predictedBurst = parentProcess.getBurstTime() > 0 ? parentProcess.getBurstTime() : INITIAL_BURST_PREDICTION;
+        if (tracing) {
+            System.out.printf("Thread %d (PID %d): Creado y en estado READY.\n", this.threadId, this.parentProcess.getPid());
+        }
+    }
+
+    /**
+     * Activa o desactiva la traza por consola de todos los hilos. Conviene desactivarla al simular
+     * muchos hilos o muchos ciclos, porque cada cambio de estado imprime una línea.
+     */
+    public static void setTracing(boolean enabled) {
+        tracing = enabled;
     }
 
     // Getters
@@ -33,14 +66,170 @@ public class Thread {
         return parentProcess;
     }
 
+    /**
+     * @return La carga de trabajo del hilo, o null si sólo simula tiempo de CPU.
+     */
+    public Workload getWorkload() {
+        return workload;
+    }
+
     public ThreadState getState() {
         return state;
     }
 
+    /**
+     * @return La CPU simulada a la que está asignado el hilo, o -1 si nunca se ha admitido en el Scheduler.
+     */
+    public int getCpu() {
+        return cpu;
+    }
+
+    /**
+     * Lo llama el Scheduler, con el cerrojo de la CPU de destino, al admitir o migrar el hilo.
+     */
+    public void setCpu(int cpu) {
+        this.cpu = cpu;
+    }
+
+    /**
+     * Nivel de prioridad dinámico que mantienen las estrategias con varias colas, como MLFQ. Se guarda en
+     * el hilo, y no en la estrategia, para que lo conserve al cambiar de CPU.
+     */
+    public int getSchedulingLevel() {
+        return schedulingLevel;
+    }
+
+    /**
+     * Cambia de nivel y reinicia los ciclos consumidos en él.
+     */
+    public void setSchedulingLevel(int level) {
+        this.schedulingLevel = level;
+        this.levelCycles = 0;
+    }
+
+    /**
+     * Prioridad dinámica que mantienen las estrategias por prioridades, como PriorityArrayStrategy, o -1 si
+     * el hilo aún no tiene. Va aparte del nivel de MLFQ porque no significa lo mismo.
+     */
+    public int getDynamicPriority() {
+        return dynamicPriority;
+    }
+
+    /**
+     * Cambia la prioridad dinámica y reinicia los ciclos consumidos con ella.
+     */
+    public void setDynamicPriority(int priority) {
+        this.dynamicPriority = priority;
+        this.levelCycles = 0;
+    }
+
+    /**
+     * Olvida el estado que las estrategias guardan en el hilo (nivel, prioridad dinámica, vruntime), para que
+     * al cambiar de estrategia la nueva no interprete el de la anterior. La predicción de ráfagas se
+     * conserva: la mide el Scheduler y no depende de la estrategia.
+     */
+    public void resetSchedulingState() {
+        this.schedulingLevel = 0;
+        this.levelCycles = 0;
+        this.dynamicPriority = -1;
+        this.virtualRuntime = 0;
+    }
+
+    /**
+     * Generación de la estrategia del Scheduler que escribió el estado de planificación del hilo. El
+     * Scheduler la compara con la de la cola en la que lo admite para saber si debe olvidar ese estado.
+     */
+    public int getStrategyGeneration() {
+        return strategyGeneration;
+    }
+
+    public void setStrategyGeneration(int strategyGeneration) {
+        this.strategyGeneration = strategyGeneration;
+    }
+
+    public int getLevelCycles() {
+        return levelCycles;
+    }
+
+    public void addLevelCycles(int cycles) {
+        // Satura en vez de desbordarse si un hilo pasa mucho tiempo en la CPU sin cambiar de nivel.
+        levelCycles = (int) Math.min(Integer.MAX_VALUE, (long) levelCycles + cycles);
+    }
+
+    /**
+     * Tiempo virtual de ejecución que mantienen las estrategias de reparto justo, como CFS. Su unidad y su
+     * referencia las decide la estrategia.
+     */
+    public long getVirtualRuntime() {
+        return virtualRuntime;
+    }
+
+    public void setVirtualRuntime(long virtualRuntime) {
+        this.virtualRuntime = virtualRuntime;
+    }
+
+    /**
+     * Posición del hilo dentro de la cola de listos que lo contiene, para que la estrategia pueda
+     * quitarlo sin buscarlo. Un hilo está como mucho en una cola a la vez, así que basta un campo; la
+     * cola comprueba que la posición apunta de verdad al hilo antes de fiarse de ella.
+     */
+    public int getQueueSlot() {
+        return queueSlot;
+    }
+
+    public void setQueueSlot(int queueSlot) {
+        this.queueSlot = queueSlot;
+    }
+
+    /**
+     * Lo llama el Scheduler, con el cerrojo de la CPU del hilo, por los ciclos de CPU que acaba de ejecutar.
+     */
+    public void addCpuCycles(int cycles) {
+        cpuCycles += cycles;
+        burstCycles = (int) Math.min(Integer.MAX_VALUE, (long) burstCycles + cycles);
+    }
+
+    /**
+     * @return Ciclos de CPU que ha consumido el hilo desde que se creó.
+     */
+    public long getCpuCycles() {
+        return cpuCycles;
+    }
+
+    /**
+     * @return Ciclos consumidos en la ráfaga de CPU actual, la que empezó al despertar por última vez.
+     */
+    public int getBurstCycles() {
+        return burstCycles;
+    }
+
+    /**
+     * @return La duración prevista de la ráfaga de CPU actual: la media exponencial de las anteriores, o la
+     *         ráfaga del proceso (INITIAL_BURST_PREDICTION si no tiene) mientras no se haya medido ninguna.
+     */
+    public double getPredictedBurst() {
+        return predictedBurst;
+    }
+
+    /**
+     * Cierra la ráfaga de CPU actual porque el hilo se bloquea, y predice la siguiente con una media
+     * exponencial: prediccion = alpha * ráfaga + (1 - alpha) * prediccion. Una ráfaga vacía (se bloqueó sin
+     * llegar a ejecutarse) no cambia la predicción. Lo llama el Scheduler con el hilo fuera de las colas.
+     * @param alpha Peso de la última ráfaga, entre 0 y 1.
+     */
+    public void completeBurst(double alpha) {
+        if (burstCycles > 0) {
+            predictedBurst = alpha * burstCycles + (1 - alpha) * predictedBurst;
+            burstCycles = 0;
+        }
+    }
+
     // Setters para cambiar el estado
     public void setState(ThreadState state) {
         if (this.state != state) {
-            System.out.printf("Thread %d (PID %d): Cambiando estado de %s a %s.\n", this.threadId, this.parentProcess.getPid(), this.state, state);
+            if (tracing) {
+                System.out.printf("Thread %d (PID %d): Cambiando estado de %s a %s.\n", this.threadId, this.parentProcess.getPid(), this.state, state);
+            }
             this.state = state;
         }
     }
@@ -0,0 +1,45 @@
+package com.ia_assistant.os_core.concurrency;
+
+/**
+ * Trabajo real que ejecuta un Hilo simulado, partido en pasos: cada llamada a step() es un ciclo de CPU
+ * del hilo. El Scheduler ejecuta los pasos de un quantum seguidos en un hilo portador real y puede
+ * desalojar el hilo entre dos pasos, así que todo lo que tenga que sobrevivir de un paso al siguiente
+ * debe guardarse en la propia carga: es una continuación explícita. Un paso nunca se interrumpe a medias.
+ *
+ * Un paso no debe esperar a otro hilo simulado con primitivas de Java (wait, join, cerrojos...), porque
+ * ese otro puede no estar ejecutándose: para esperar se devuelve BLOCK y alguien llama después a
+ * Scheduler.unblockThread().
+ */
+@FunctionalInterface
+public interface Workload {
+
+    enum Step {
+        CONTINUE, // El hilo sigue listo para ejecutar más pasos
+        BLOCK,    // El hilo se bloquea hasta que se llame a Scheduler.unblockThread()
+        EXIT      // El hilo termina
+    }
+
+    /**
+     * Ejecuta un ciclo de trabajo del hilo.
+     * @return Qué hacer con el hilo después de este paso.
+     */
+    Step step();
+
+    /**
+     * @return Una carga que ejecuta body una vez por ciclo, durante el número de ciclos dado, y termina.
+     */
+    static Workload repeat(int cycles, Runnable body) {
+        int[] remaining = {cycles};
+        return () -> {
+            body.run();
+            return --remaining[0] > 0 ? Step.CONTINUE : Step.EXIT;
+        };
+    }
+
+    /**
+     * @return Una carga de un solo ciclo que ejecuta body y termina.
+     */
+    static Workload once(Runnable body) {
+        return repeat(1, body);
+    }
+}
@@ -0,0 +1,55 @@
+package com.ia_assistant.os_core.memory;
+
+import com.ia_assistant.os_core.memory.replacement.PageReplacementAlgorithm;
+
+/**
+ * Buffer de accesos de una CPU simulada a páginas residentes.
+ *
+ * En lugar de tomar el cerrojo del algoritmo de reemplazo en cada acierto, la CPU apunta aquí el marco
+ * y el lote se entrega de golpe cuando el cerrojo está libre (o en la siguiente falta). Si el buffer se
+ * llena sin que nadie lo vacíe, los accesos nuevos se descartan: para un algoritmo de recencia perder
+ * alguno es inocuo, y así un acierto nunca espera por el cerrojo global.
+ */
+final class AccessBuffer {
+
+    static final int CAPACITY = 128;
+    static final int DRAIN_THRESHOLD = CAPACITY / 2;
+
+    private final int[] frames = new int[CAPACITY];
+    private int count;
+    private long dropped;
+
+    /**
+     * Anota un acceso.
+     * @return true si el buffer ha llegado al umbral y conviene vaciarlo.
+     */
+    synchronized boolean record(int frameNumber) {
+        if (count == CAPACITY) {
+            dropped++;
+            return true;
+        }
+        frames[count++] = frameNumber;
+        return count >= DRAIN_THRESHOLD;
+    }
+
+    /**
+     * Entrega los accesos pendientes al algoritmo. Debe llamarse con el cerrojo de reemplazo tomado.
+     */
+    synchronized void drainTo(PageReplacementAlgorithm algorithm) {
+        for (int i = 0; i < count; i++) {
+            algorithm.onPageAccess(frames[i]);
+        }
+        count = 0;
+    }
+
+    /**
+     * Descarta los accesos pendientes (p. ej. al cambiar a un algoritmo que no los usa).
+     */
+    synchronized void clear() {
+        count = 0;
+    }
+
+    synchronized long getDroppedCount() {
+        return dropped;
+    }
+}
@@ -0,0 +1,248 @@
+package com.ia_assistant.os_core.memory;
+
+import java.util.Arrays;
+
+/**
+ * Asignador buddy sobre los números de marco de la memoria física.
+ *
+ * La memoria libre se guarda en bloques de 2^orden marcos contiguos y alineados a su tamaño, con una
+ * lista libre por orden (de 0 a MAX_ORDER). Pedir un bloque toma el de menor orden suficiente y parte
+ * el sobrante en mitades; devolverlo lo fusiona con su buddy (el bloque vecino del mismo orden, que se
+ * obtiene con un XOR) mientras esté libre. Ambas operaciones cuestan O(MAX_ORDER), sin importar cuánto
+ * tiempo lleve el sistema en marcha ni lo fragmentada que esté la memoria.
+ *
+ * Como el resto de la tabla de marcos, no hay un objeto por bloque: las listas son intrusivas, con los
+ * enlaces en arrays indexados por el primer marco de cada bloque libre. Todas las operaciones están
+ * sincronizadas; freeOrderAt() es una lectura sin cerrojo pensada para heurísticas (compactación).
+ */
+final class BuddyAllocator {
+
+    static final int MAX_ORDER = 10; // Bloques de hasta 1024 marcos (4 MB)
+    static final int NO_BLOCK = -1;
+    static final int NOT_FREE = -1;
+
+    private final int size;
+    private final int[] freeOrder; // Orden del bloque libre que empieza en cada marco, o NOT_FREE
+    private final int[] next;
+    private final int[] prev;
+    private final int[] heads = new int[MAX_ORDER + 1];
+    private final int[] counts = new int[MAX_ORDER + 1];
+    private int freeFrames;
+
+    private long splits;
+    private long merges;
+
+    BuddyAllocator(int size) {
+        this.size = size;
+        this.freeOrder = new int[size];
+        this.next = new int[size];
+        this.prev = new int[size];
+        Arrays.fill(freeOrder, NOT_FREE);
+        Arrays.fill(heads, NO_BLOCK);
+        // Se trocea la memoria en los bloques más grandes posibles. Se insertan de arriba abajo para
+        // que las primeras asignaciones salgan de las direcciones bajas.
+        int frame = size;
+        while (frame > 0) {
+            int order = Math.min(MAX_ORDER, Integer.numberOfTrailingZeros(frame));
+            while ((1 << order) > frame) {
+                order--;
+            }
+            frame -= 1 << order;
+            push(frame, order);
+        }
+    }
+
+    /**
+     * Reserva un bloque de 2^order marcos contiguos.
+     * @return El primer marco del bloque, o NO_BLOCK si no hay ningún bloque libre suficiente.
+     */
+    synchronized int allocate(int order) {
+        int current = order;
+        while (current <= MAX_ORDER && heads[current] == NO_BLOCK) {
+            current++;
+        }
+        if (current > MAX_ORDER) {
+            return NO_BLOCK;
+        }
+        int block = heads[current];
+        unlink(block, current);
+        // Se parte hasta el orden pedido; la mitad alta de cada corte vuelve a su lista.
+        while (current > order) {
+            current--;
+            push(block + (1 << current), current);
+            splits++;
+        }
+        return block;
+    }
+
+    /**
+     * Reserva hasta count marcos sueltos de una vez, con una sola adquisición del monitor.
+     * @return Número de marcos dejados en out[0..n).
+     */
+    synchronized int allocateBatch(int[] out, int count) {
+        int n = 0;
+        while (n < count) {
+            int frame = allocate(0);
+            if (frame == NO_BLOCK) {
+                break;
+            }
+            out[n++] = frame;
+        }
+        return n;
+    }
+
+    /**
+     * Devuelve los marcos sueltos frames[from..from + count) con una sola adquisición del monitor.
+     */
+    synchronized void freeBatch(int[] frames, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            free(frames[i], 0);
+        }
+    }
+
+    /**
+     * Devuelve un bloque reservado con allocate() (o un marco aislado, con order 0) y lo fusiona con
+     * sus buddies libres.
+     */
+    synchronized void free(int block, int order) {
+        while (order < MAX_ORDER) {
+            int buddy = block ^ (1 << order);
+            if (buddy + (1 << order) > size || freeOrder[buddy] != order) {
+                break;
+            }
+            unlink(buddy, order);
+            block = Math.min(block, buddy);
+            order++;
+            merges++;
+        }
+        push(block, order);
+    }
+
+    /**
+     * Saca de las listas libres todos los bloques libres contenidos en [start, start + 2^order), para que
+     * nadie pueda reservarlos mientras se compacta esa zona. Los marcos retirados se marcan en isolated.
+     * La zona debe estar alineada a su tamaño y no ser ya parte de un bloque libre mayor o igual.
+     * @return Número de marcos retirados.
+     */
+    synchronized int isolateFreeBlocks(int start, int order, boolean[] isolated) {
+        int end = start + (1 << order);
+        int taken = 0;
+        int frame = start;
+        while (frame < end) {
+            int blockOrder = freeOrder[frame];
+            if (blockOrder == NOT_FREE) {
+                frame++;
+                continue;
+            }
+            unlink(frame, blockOrder);
+            int blockEnd = frame + (1 << blockOrder);
+            for (int f = frame; f < blockEnd; f++) {
+                isolated[f - start] = true;
+            }
+            taken += blockEnd - frame;
+            frame = blockEnd;
+        }
+        return taken;
+    }
+
+    /**
+     * @return true si [start, start + 2^order) ya está entero dentro de un bloque libre.
+     */
+    synchronized boolean isFreeRange(int start, int order) {
+        for (int o = order; o <= MAX_ORDER; o++) {
+            int head = start & ~((1 << o) - 1);
+            if (freeOrder[head] == o) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lectura sin cerrojo: el orden del bloque libre que empieza en el marco, o NOT_FREE.
+     */
+    int freeOrderAt(int frame) {
+        return freeOrder[frame];
+    }
+
+    private void push(int block, int order) {
+        int head = heads[order];
+        next[block] = head;
+        prev[block] = NO_BLOCK;
+        if (head != NO_BLOCK) {
+            prev[head] = block;
+        }
+        heads[order] = block;
+        freeOrder[block] = order;
+        counts[order]++;
+        freeFrames += 1 << order;
+    }
+
+    private void unlink(int block, int order) {
+        int p = prev[block];
+        int n = next[block];
+        if (p == NO_BLOCK) {
+            heads[order] = n;
+        } else {
+            next[p] = n;
+        }
+        if (n != NO_BLOCK) {
+            prev[n] = p;
+        }
+        freeOrder[block] = NOT_FREE;
+        counts[order]--;
+        freeFrames -= 1 << order;
+    }
+
+    synchronized int getFreeFrameCount() {
+        return freeFrames;
+    }
+
+    synchronized int getFreeBlockCount(int order) {
+        return counts[order];
+    }
+
+    /**
+     * @return El mayor orden con algún bloque libre, o -1 si no queda memoria libre.
+     */
+    synchronized int getLargestFreeOrder() {
+        for (int order = MAX_ORDER; order >= 0; order--) {
+            if (counts[order] > 0) {
+                return order;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Índice de fragmentación para un orden: fracción de la memoria libre que está en bloques demasiado
+     * pequeños para servir una petición de ese orden (0 = toda sirve, 1 = nada sirve).
+     */
+    synchronized double getFragmentationIndex(int order) {
+        if (freeFrames == 0) {
+            return 0.0;
+        }
+        long usable = 0;
+        for (int o = order; o <= MAX_ORDER; o++) {
+            usable += (long) counts[o] << o;
+        }
+        return (double) (freeFrames - usable) / freeFrames;
+    }
+
+    synchronized long getSplitCount() {
+        return splits;
+    }
+
+    synchronized long getMergeCount() {
+        return merges;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder("Buddy: ").append(freeFrames).append(" marcos libres, bloques por orden [");
+        for (int order = 0; order <= MAX_ORDER; order++) {
+            sb.append(order == 0 ? "" : " ").append(counts[order]);
+        }
+        return sb.append("], divisiones=").append(splits).append(", fusiones=").append(merges).toString();
+    }
+}
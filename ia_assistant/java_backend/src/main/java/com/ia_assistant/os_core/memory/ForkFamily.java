@@ -0,0 +1,83 @@
+package com.ia_assistant.os_core.memory;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tablas de páginas emparentadas por fork(), como el anon_vma de Linux.
+ *
+ * Un marco compartido en copia-en-escritura aparece en la misma página de varias tablas de la familia.
+ * Para poder desalojarlo, trasladarlo o dejar de compartirlo de una vez, todas las tablas de la familia
+ * usan los mismos cerrojos de franja: con la franja de la página tomada nadie puede tocar ninguna de las
+ * entradas que apuntan al marco. Una tabla que nunca ha participado en un fork() tiene su propia familia
+ * vacía, así que no paga nada por ello.
+ *
+ * La lista de miembros sólo cambia con todas las franjas tomadas (PageTable.lockAll), así que basta con
+ * tener una cualquiera para recorrerla.
+ */
+final class ForkFamily {
+
+    final ReentrantLock[] stripes;
+    private PageTable[] members = new PageTable[0];
+    private int[] pids = new int[0];
+
+    ForkFamily(int stripeCount) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Añade una tabla a la familia si aún no estaba. Requiere todas las franjas.
+     */
+    void add(PageTable table, int pid) {
+        if (indexOf(table) >= 0) {
+            return;
+        }
+        members = Arrays.copyOf(members, members.length + 1);
+        pids = Arrays.copyOf(pids, pids.length + 1);
+        members[members.length - 1] = table;
+        pids[pids.length - 1] = pid;
+    }
+
+    /**
+     * Saca una tabla de la familia. Requiere todas las franjas.
+     */
+    void remove(PageTable table) {
+        int index = indexOf(table);
+        if (index < 0) {
+            return;
+        }
+        int last = members.length - 1;
+        PageTable[] newMembers = Arrays.copyOf(members, last);
+        int[] newPids = Arrays.copyOf(pids, last);
+        if (index < last) {
+            newMembers[index] = members[last];
+            newPids[index] = pids[last];
+        }
+        members = newMembers;
+        pids = newPids;
+    }
+
+    int size() {
+        return members.length;
+    }
+
+    PageTable member(int index) {
+        return members[index];
+    }
+
+    int pid(int index) {
+        return pids[index];
+    }
+
+    private int indexOf(PageTable table) {
+        for (int i = 0; i < members.length; i++) {
+            if (members[i] == table) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
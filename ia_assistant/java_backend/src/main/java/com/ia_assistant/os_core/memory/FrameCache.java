@@ -0,0 +1,83 @@
+package com.ia_assistant.os_core.memory;
+
+/**
+ * Caché de marcos libres de una CPU simulada (un "magazine", como las listas per-cpu de Linux).
+ *
+ * Las faltas de una CPU toman y devuelven marcos sueltos de aquí sin tocar el asignador buddy, que es
+ * compartido. Cuando la caché se vacía se rellena con un lote de BATCH marcos en una sola visita al buddy;
+ * cuando se llena, devuelve los BATCH marcos más antiguos. El monitor de la caché sólo lo disputan la
+ * propia CPU y, de tarde en tarde, quien vacía todas las cachés (compactación o memoria agotada).
+ */
+final class FrameCache {
+
+    static final int CAPACITY = 64;
+    static final int BATCH = CAPACITY / 4;
+
+    private final int[] frames = new int[CAPACITY];
+    private int count;
+
+    private long hits;
+    private long refills;
+    private long drains;
+
+    /**
+     * @return Un marco libre, o FrameTable.NO_FRAME si ni la caché ni el buddy tienen ninguno.
+     */
+    synchronized int allocate(BuddyAllocator buddy) {
+        if (count > 0) {
+            hits++;
+            return frames[--count];
+        }
+        count = buddy.allocateBatch(frames, BATCH);
+        if (count == 0) {
+            return FrameTable.NO_FRAME;
+        }
+        refills++;
+        return frames[--count];
+    }
+
+    synchronized void free(int frameNumber, BuddyAllocator buddy) {
+        if (count == CAPACITY) {
+            // Se devuelven los más antiguos (el fondo de la pila); los recientes siguen calientes en caché.
+            buddy.freeBatch(frames, 0, BATCH);
+            System.arraycopy(frames, BATCH, frames, 0, count - BATCH);
+            count -= BATCH;
+            drains++;
+        }
+        frames[count++] = frameNumber;
+    }
+
+    /**
+     * Devuelve todos los marcos de la caché al buddy.
+     */
+    synchronized void drainAll(BuddyAllocator buddy) {
+        if (count > 0) {
+            buddy.freeBatch(frames, 0, count);
+            count = 0;
+            drains++;
+        }
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Lectura sin cerrojo de si la caché guarda algún marco; sólo sirve como pista.
+     */
+    boolean mayHoldFrames() {
+        return count > 0;
+    }
+
+    synchronized long getHitCount() {
+        return hits;
+    }
+
+    synchronized long getRefillCount() {
+        return refills;
+    }
+
+    synchronized long getDrainCount() {
+        return drains;
+    }
+}
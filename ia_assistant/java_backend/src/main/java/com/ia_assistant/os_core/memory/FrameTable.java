@@ -0,0 +1,687 @@
+package com.ia_assistant.os_core.memory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Tabla de marcos físicos en formato "struct-of-arrays".
+ * En lugar de un objeto Frame por cada marco de 4 KB, el estado de todos los marcos vive en
+ * arrays paralelos de enteros indexados por número de marco: PID propietario, número de página y flags.
+ * Los marcos libres los gestiona un asignador buddy (BuddyAllocator), que además de marcos sueltos
+ * entrega tramos contiguos y alineados de 2^orden marcos; arrancar con varios GB de RAM simulada sólo
+ * exige trocearla en bloques de 2^MAX_ORDER marcos.
+ *
+ * También mantiene el mapa inverso: para cada marco, la PageTable que lo referencia, y para cada
+ * PageTable una lista intrusiva de sus marcos residentes (enlazada por número de marco).
+ *
+ * Concurrencia: el asignador buddy tiene su propio monitor y los flags se modifican con operaciones
+ * atómicas, porque la MMU simulada los toca desde cualquier CPU. PID, página, tabla y hueco de swap
+ * sólo los escribe quien posee el marco (el hilo que lo ha reservado, lo está desalojando o lo está
+ * trasladando) y se publican junto con los flags.
+ * La lista de residentes de cada PageTable se protege con el monitor de la propia tabla.
+ *
+ * Copia-en-escritura: tras un fork() un marco puede estar mapeado en la misma página de varias tablas de
+ * una ForkFamily. El propietario (el del mapa inverso y la lista de residentes) es una de ellas; mapCount
+ * cuenta todas, y FLAG_SHARED avisa a la MMU de que una escritura debe copiar el marco antes.
+ *
+ * Cachés por CPU: allocateFrame(cpu) y release(frame, cpu) pasan por una FrameCache de la CPU, que sólo
+ * visita el buddy para rellenarse o vaciarse por lotes. Los marcos que esperan en una caché cuentan como
+ * libres pero el buddy los ve reservados, así que drainCpuCaches() los devuelve antes de compactar o
+ * cuando el buddy se queda sin marcos.
+ *
+ * Páginas enormes: ocupan un bloque de orden HUGE_PAGE_ORDER. reserveHugePages() aparta bloques del
+ * buddy en una reserva, como el pool de hugetlbfs; si se agota, allocateHugeRun() intenta sacar un bloque
+ * más del buddy. El primer marco del tramo (la cabeza) es el que apunta la PageTable y el único que entra
+ * en el conjunto residente; el resto sólo lleva el propietario.
+ */
+public final class FrameTable {
+
+    public static final int NO_FRAME = -1;
+    public static final int NO_OWNER = -1;
+
+    public static final int HUGE_PAGE_ORDER = 9;
+    public static final int HUGE_PAGE_FRAMES = 1 << HUGE_PAGE_ORDER; // 512 marcos de 4 KB = 2 MB
+
+    // Bits del array de flags
+    public static final int FLAG_ALLOCATED = 1;
+    public static final int FLAG_REFERENCED = 1 << 1; // Bit de referencia (lo consulta y limpia el algoritmo de reemplazo)
+    public static final int FLAG_DIRTY = 1 << 2;      // La página se ha modificado desde que se cargó
+    public static final int FLAG_EVICTING = 1 << 3;   // Elegido como víctima (o trasladándose): ya no lo rastrea el algoritmo de reemplazo
+    public static final int FLAG_HUGE = 1 << 4;       // Forma parte de una página enorme (fija: no se desaloja ni va a swap)
+    public static final int FLAG_SHARED = 1 << 5;     // Mapeado por varias tablas de una familia de fork(): copia-en-escritura
+
+    private static final VarHandle FLAGS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final int numFrames;
+    private final int[] ownerPid;   // PID del proceso que ocupa cada marco
+    private final int[] pageNumber; // Página virtual cargada en cada marco
+    private final int[] flags;      // Bits de estado de cada marco
+    private final PageTable[] ownerTable; // Mapa inverso: tabla de páginas que apunta a cada marco
+    private final int[] residentPrev;     // Enlaces de la lista de marcos residentes de cada PageTable
+    private final int[] residentNext;
+    private final int[] swapSlot;         // Hueco de swap con una copia válida de la página, o NO_SWAP_SLOT
+    private final int[] mapCount;         // Tablas que apuntan al marco (más de una tras un fork())
+
+    private final BuddyAllocator buddy;
+    private volatile FrameCache[] cpuCaches = new FrameCache[0];
+
+    // Reserva de páginas enormes: pila de cabezas de tramos libres (protegida por hugeLock).
+    private final Object hugeLock = new Object();
+    private int[] hugePool = new int[0];
+    private int hugePoolTop;
+    private int reservedHugePages;
+    private int surplusHugePages; // Páginas enormes en uso sacadas del buddy fuera de la reserva
+
+    public FrameTable(int numFrames) {
+        this.numFrames = numFrames;
+        this.ownerPid = new int[numFrames];
+        this.pageNumber = new int[numFrames];
+        this.flags = new int[numFrames];
+        this.ownerTable = new PageTable[numFrames];
+        this.residentPrev = new int[numFrames];
+        this.residentNext = new int[numFrames];
+        this.swapSlot = new int[numFrames];
+        this.mapCount = new int[numFrames];
+        this.buddy = new BuddyAllocator(numFrames);
+    }
+
+    /**
+     * Extrae un marco de la memoria libre. El marco queda reservado pero aún no ocupado.
+     * @return El número de marco, o NO_FRAME si no quedan marcos libres.
+     */
+    public int allocateFrame() {
+        return buddy.allocate(0);
+    }
+
+    /**
+     * Igual que allocateFrame(), pero sirviéndose de la caché de la CPU. Si el buddy está agotado se
+     * vacían las cachés de las demás CPUs antes de dar la memoria por llena.
+     */
+    public int allocateFrame(int cpu) {
+        FrameCache[] caches = cpuCaches;
+        if (cpu >= caches.length) {
+            return allocateFrame();
+        }
+        int frame = caches[cpu].allocate(buddy);
+        if (frame == NO_FRAME && anyCpuCacheHoldsFrames(caches)) {
+            drainCpuCaches();
+            frame = caches[cpu].allocate(buddy);
+        }
+        return frame;
+    }
+
+    // Con la memoria llena cada falta pasa por aquí: se evita tomar los monitores de todas las cachés.
+    private static boolean anyCpuCacheHoldsFrames(FrameCache[] caches) {
+        for (FrameCache cache : caches) {
+            if (cache.mayHoldFrames()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Crea una caché de marcos libres por CPU, devolviendo antes al buddy los marcos de las anteriores.
+     * Debe llamarse sin faltas en curso.
+     */
+    public void configureCpuCaches(int cpus) {
+        drainCpuCaches();
+        FrameCache[] caches = new FrameCache[cpus];
+        for (int i = 0; i < cpus; i++) {
+            caches[i] = new FrameCache();
+        }
+        cpuCaches = caches;
+    }
+
+    /**
+     * Devuelve al buddy todos los marcos libres retenidos en las cachés por CPU.
+     */
+    public void drainCpuCaches() {
+        for (FrameCache cache : cpuCaches) {
+            cache.drainAll(buddy);
+        }
+    }
+
+    /**
+     * Aparta bloques de páginas enormes del buddy en la reserva. Se puede llamar en cualquier momento;
+     * si la memoria está fragmentada puede conseguir menos de los pedidos (ver MemoryManager.compact()).
+     * @return Número de páginas enormes que se han añadido a la reserva.
+     */
+    public int reserveHugePages(int count) {
+        synchronized (hugeLock) {
+            int added = 0;
+            while (added < count) {
+                int block = buddy.allocate(HUGE_PAGE_ORDER);
+                if (block == BuddyAllocator.NO_BLOCK) {
+                    break;
+                }
+                if (hugePoolTop == hugePool.length) {
+                    hugePool = Arrays.copyOf(hugePool, Math.max(8, hugePool.length * 2));
+                }
+                hugePool[hugePoolTop++] = block;
+                added++;
+            }
+            reservedHugePages += added;
+            return added;
+        }
+    }
+
+    /**
+     * Extrae un tramo libre para una página enorme: de la reserva o, si está agotada, directamente del buddy.
+     * @return El primer marco del tramo, o NO_FRAME si no hay ningún bloque libre de ese tamaño.
+     */
+    public int allocateHugeRun() {
+        synchronized (hugeLock) {
+            if (hugePoolTop > 0) {
+                return hugePool[--hugePoolTop];
+            }
+            int block = buddy.allocate(HUGE_PAGE_ORDER);
+            if (block == BuddyAllocator.NO_BLOCK) {
+                return NO_FRAME;
+            }
+            surplusHugePages++;
+            return block;
+        }
+    }
+
+    /**
+     * Ocupa todos los marcos de un tramo con una página enorme. Sólo la cabeza entra en el conjunto
+     * residente de la tabla; se publica la última, para que quien la vea ocupada vea el tramo completo.
+     */
+    public void occupyHugeRun(int headFrame, int processId, int page, PageTable table, boolean dirty) {
+        for (int f = headFrame + 1; f < headFrame + HUGE_PAGE_FRAMES; f++) {
+            ownerPid[f] = processId;
+            pageNumber[f] = page;
+            FLAGS.setRelease(flags, f, FLAG_ALLOCATED | FLAG_HUGE);
+        }
+        occupy(headFrame, processId, page, table, dirty ? (FLAG_ALLOCATED | FLAG_HUGE | FLAG_DIRTY) : (FLAG_ALLOCATED | FLAG_HUGE));
+    }
+
+    /**
+     * Vacía un tramo ocupado por occupyHugeRun() (o devuelve uno sin ocupar) y lo devuelve a la reserva,
+     * o al buddy si era una página enorme sobrante.
+     */
+    public void releaseHugeRun(int headFrame) {
+        vacate(headFrame);
+        for (int f = headFrame + 1; f < headFrame + HUGE_PAGE_FRAMES; f++) {
+            ownerPid[f] = NO_OWNER;
+            FLAGS.setRelease(flags, f, 0);
+        }
+        synchronized (hugeLock) {
+            if (surplusHugePages > 0) {
+                surplusHugePages--;
+                buddy.free(headFrame, HUGE_PAGE_ORDER);
+            } else {
+                hugePool[hugePoolTop++] = headFrame;
+            }
+        }
+    }
+
+    public boolean isHuge(int frameNumber) {
+        return (getFlags(frameNumber) & FLAG_HUGE) != 0;
+    }
+
+    /**
+     * @return Páginas enormes de la reserva (libres o en uso), sin contar las sobrantes.
+     */
+    public int getHugePageCount() {
+        synchronized (hugeLock) {
+            return reservedHugePages;
+        }
+    }
+
+    public int getFreeHugePageCount() {
+        synchronized (hugeLock) {
+            return hugePoolTop;
+        }
+    }
+
+    public int getSurplusHugePageCount() {
+        synchronized (hugeLock) {
+            return surplusHugePages;
+        }
+    }
+
+    /**
+     * Ocupa el marco con una página de un proceso específico y lo añade al conjunto residente de su tabla.
+     * @param frameNumber El número del marco.
+     * @param processId El ID del proceso.
+     * @param page El número de la página.
+     * @param table La tabla de páginas que apuntará a este marco.
+     */
+    public void occupy(int frameNumber, int processId, int page, PageTable table) {
+        occupy(frameNumber, processId, page, table, false);
+    }
+
+    /**
+     * Igual que occupy(int, int, int, PageTable), indicando si la página nace modificada
+     * (se carga por una escritura). Evita una segunda operación atómica sobre los flags.
+     */
+    public void occupy(int frameNumber, int processId, int page, PageTable table, boolean dirty) {
+        occupy(frameNumber, processId, page, table, dirty ? (FLAG_ALLOCATED | FLAG_DIRTY) : FLAG_ALLOCATED);
+    }
+
+    private void occupy(int frameNumber, int processId, int page, PageTable table, int initialFlags) {
+        ownerPid[frameNumber] = processId;
+        pageNumber[frameNumber] = page;
+        ownerTable[frameNumber] = table;
+        swapSlot[frameNumber] = PageTable.NO_SWAP_SLOT;
+        mapCount[frameNumber] = 1;
+
+        linkResident(frameNumber, table);
+        // Publica los campos anteriores: quien lea el flag de ocupado los ve ya escritos.
+        FLAGS.setRelease(flags, frameNumber, initialFlags);
+    }
+
+    /**
+     * Vacía el marco sin devolverlo a la lista de libres (se va a reutilizar de inmediato)
+     * y lo saca del conjunto residente de la tabla que lo ocupaba.
+     */
+    public void vacate(int frameNumber) {
+        PageTable table = ownerTable[frameNumber];
+        if (table != null) {
+            unlinkResident(frameNumber, table);
+            ownerTable[frameNumber] = null;
+        }
+        ownerPid[frameNumber] = NO_OWNER;
+        mapCount[frameNumber] = 0;
+        FLAGS.setRelease(flags, frameNumber, 0);
+    }
+
+    private void unlinkResident(int frameNumber, PageTable table) {
+        synchronized (table) {
+            int prev = residentPrev[frameNumber];
+            int next = residentNext[frameNumber];
+            if (prev == NO_FRAME) {
+                table.residentHead = next;
+            } else {
+                residentNext[prev] = next;
+            }
+            if (next != NO_FRAME) {
+                residentPrev[next] = prev;
+            }
+        }
+    }
+
+    private void linkResident(int frameNumber, PageTable table) {
+        synchronized (table) {
+            int head = table.residentHead;
+            residentPrev[frameNumber] = NO_FRAME;
+            residentNext[frameNumber] = head;
+            if (head != NO_FRAME) {
+                residentPrev[head] = frameNumber;
+            }
+            table.residentHead = frameNumber;
+        }
+    }
+
+    // --- Marcos compartidos en copia-en-escritura ---
+    // Todas las tablas que apuntan a un marco son de la misma familia y lo tienen en la misma página, así
+    // que estos métodos se llaman con la franja de esa página tomada (que es la misma para todas).
+
+    /**
+     * Anota que una tabla más apunta al marco, que pasa a ser de copia-en-escritura.
+     */
+    public void share(int frameNumber) {
+        mapCount[frameNumber]++;
+        FLAGS.getAndBitwiseOr(flags, frameNumber, FLAG_SHARED);
+    }
+
+    /**
+     * Anota que una de las tablas ha dejado de apuntar al marco. Si sólo queda una, puede volver a
+     * escribir en él directamente.
+     * @return Las tablas que siguen apuntando al marco.
+     */
+    public int unshare(int frameNumber) {
+        int remaining = --mapCount[frameNumber];
+        if (remaining <= 1) {
+            FLAGS.getAndBitwiseAnd(flags, frameNumber, ~FLAG_SHARED);
+        }
+        return remaining;
+    }
+
+    public boolean isShared(int frameNumber) {
+        return (getFlags(frameNumber) & FLAG_SHARED) != 0;
+    }
+
+    public int getMapCount(int frameNumber) {
+        return mapCount[frameNumber];
+    }
+
+    /**
+     * Pasa el marco compartido a otra tabla que también lo mapea (cuando su propietario lo deja de usar):
+     * cambia el mapa inverso y lo mueve a la lista de residentes del nuevo propietario.
+     */
+    public void changeOwner(int frameNumber, int processId, PageTable table) {
+        PageTable old = ownerTable[frameNumber];
+        if (old != null) {
+            unlinkResident(frameNumber, old);
+        }
+        linkResident(frameNumber, table);
+        ownerPid[frameNumber] = processId;
+        ownerTable[frameNumber] = table;
+    }
+
+    /**
+     * @return Marcos mapeados ahora mismo por más de una tabla (recorre toda la memoria).
+     */
+    public int getSharedFrameCount() {
+        int shared = 0;
+        for (int frame = 0; frame < numFrames; frame++) {
+            if ((getFlags(frame) & FLAG_SHARED) != 0) {
+                shared++;
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Vacía el marco y lo devuelve a la lista de libres.
+     */
+    public void release(int frameNumber) {
+        vacate(frameNumber);
+        buddy.free(frameNumber, 0);
+    }
+
+    /**
+     * Igual que release(int), pero dejando el marco en la caché de la CPU.
+     */
+    public void release(int frameNumber, int cpu) {
+        FrameCache[] caches = cpuCaches;
+        vacate(frameNumber);
+        if (cpu < caches.length) {
+            caches[cpu].free(frameNumber, buddy);
+        } else {
+            buddy.free(frameNumber, 0);
+        }
+    }
+
+    public boolean isFree(int frameNumber) {
+        return (getFlags(frameNumber) & FLAG_ALLOCATED) == 0;
+    }
+
+    public int getOwnerPid(int frameNumber) {
+        return isFree(frameNumber) ? NO_OWNER : ownerPid[frameNumber];
+    }
+
+    public int getPageNumber(int frameNumber) {
+        return pageNumber[frameNumber];
+    }
+
+    /**
+     * @return La tabla de páginas que apunta al marco, o null si está libre.
+     */
+    public PageTable getOwnerTable(int frameNumber) {
+        return ownerTable[frameNumber];
+    }
+
+    /**
+     * @return El primer marco residente de la tabla, o NO_FRAME si no tiene ninguno.
+     */
+    public int firstResidentFrame(PageTable table) {
+        synchronized (table) {
+            return table.residentHead;
+        }
+    }
+
+    /**
+     * @return El siguiente marco residente de la misma tabla, o NO_FRAME al final de la lista.
+     *         Para recorrer la lista con otros hilos activos hay que tener bloqueada la tabla (PageTable.lockAll).
+     */
+    public int nextResidentFrame(int frameNumber) {
+        return residentNext[frameNumber];
+    }
+
+    /**
+     * Registra un acceso al marco, como haría la MMU: activa el bit de referencia
+     * y, si el acceso es de escritura, también el bit de modificado.
+     * Si los bits ya estaban activos no escribe nada, para no invalidar la línea de caché en otras CPUs.
+     * @return false si el marco estaba libre o siendo desalojado cuando se registró el acceso;
+     *         el llamante debe entonces volver a traducir la dirección.
+     */
+    public boolean markAccessed(int frameNumber, boolean write) {
+        int bits = write ? (FLAG_REFERENCED | FLAG_DIRTY) : FLAG_REFERENCED;
+        int old = (int) FLAGS.getAcquire(flags, frameNumber);
+        if ((old & bits) != bits) {
+            old = (int) FLAGS.getAndBitwiseOr(flags, frameNumber, bits);
+        }
+        return (old & (FLAG_ALLOCATED | FLAG_EVICTING)) == FLAG_ALLOCATED;
+    }
+
+    public boolean isReferenced(int frameNumber) {
+        return (getFlags(frameNumber) & FLAG_REFERENCED) != 0;
+    }
+
+    /**
+     * Limpia el bit de referencia y devuelve su valor anterior.
+     */
+    public boolean testAndClearReferenced(int frameNumber) {
+        if ((getFlags(frameNumber) & FLAG_REFERENCED) == 0) {
+            return false;
+        }
+        int old = (int) FLAGS.getAndBitwiseAnd(flags, frameNumber, ~FLAG_REFERENCED);
+        return (old & FLAG_REFERENCED) != 0;
+    }
+
+    public boolean isDirty(int frameNumber) {
+        return (getFlags(frameNumber) & FLAG_DIRTY) != 0;
+    }
+
+    /**
+     * Marca el marco como víctima en curso de desalojo. Un acceso que llegue después
+     * (markAccessed devuelve false) no puede darse por bueno: la página está saliendo de memoria.
+     */
+    public void beginEviction(int frameNumber) {
+        FLAGS.getAndBitwiseOr(flags, frameNumber, FLAG_EVICTING);
+    }
+
+    public boolean isEvicting(int frameNumber) {
+        return (getFlags(frameNumber) & FLAG_EVICTING) != 0;
+    }
+
+    /**
+     * @return true si el marco está ocupado por la página indicada de la tabla indicada (o, si está
+     *         compartido, de otra tabla de la familia de fork() de su propietario).
+     */
+    public boolean isOwnedBy(int frameNumber, PageTable table, int page) {
+        if (pageNumber[frameNumber] != page) {
+            return false;
+        }
+        PageTable owner = ownerTable[frameNumber];
+        // Un marco compartido lo mapean también otras tablas de la familia de su propietario.
+        return owner == table || (owner != null && isShared(frameNumber) && owner.getFamily() == table.getFamily());
+    }
+
+    /**
+     * @return El hueco de swap que conserva una copia de la página del marco, o NO_SWAP_SLOT.
+     *         Si el marco no está modificado, esa copia sigue siendo válida y desalojarlo no exige escribir.
+     */
+    public int getSwapSlot(int frameNumber) {
+        return swapSlot[frameNumber];
+    }
+
+    public void setSwapSlot(int frameNumber, int slot) {
+        swapSlot[frameNumber] = slot;
+    }
+
+    public void markDirty(int frameNumber) {
+        FLAGS.getAndBitwiseOr(flags, frameNumber, FLAG_DIRTY);
+    }
+
+    public void clearDirty(int frameNumber) {
+        FLAGS.getAndBitwiseAnd(flags, frameNumber, ~FLAG_DIRTY);
+    }
+
+    public int getFlags(int frameNumber) {
+        return (int) FLAGS.getAcquire(flags, frameNumber);
+    }
+
+    public int size() {
+        return numFrames;
+    }
+
+    /**
+     * @return Marcos libres, contando también los retenidos en las cachés por CPU y los de las páginas
+     *         enormes libres de la reserva.
+     */
+    public int getFreeFrameCount() {
+        return buddy.getFreeFrameCount() + getCpuCachedFrameCount() + getFreeHugePageCount() * HUGE_PAGE_FRAMES;
+    }
+
+    // --- Cachés por CPU ---
+
+    public int getCpuCachedFrameCount() {
+        int total = 0;
+        for (FrameCache cache : cpuCaches) {
+            total += cache.size();
+        }
+        return total;
+    }
+
+    /**
+     * @return Reservas servidas por las cachés por CPU sin visitar el buddy.
+     */
+    public long getCpuCacheHitCount() {
+        long total = 0;
+        for (FrameCache cache : cpuCaches) {
+            total += cache.getHitCount();
+        }
+        return total;
+    }
+
+    /**
+     * @return Veces que una caché por CPU se ha rellenado con un lote del buddy.
+     */
+    public long getCpuCacheRefillCount() {
+        long total = 0;
+        for (FrameCache cache : cpuCaches) {
+            total += cache.getRefillCount();
+        }
+        return total;
+    }
+
+    /**
+     * @return Veces que una caché por CPU ha devuelto marcos al buddy (por estar llena o al vaciarlas todas).
+     */
+    public long getCpuCacheDrainCount() {
+        long total = 0;
+        for (FrameCache cache : cpuCaches) {
+            total += cache.getDrainCount();
+        }
+        return total;
+    }
+
+    /**
+     * @return Fracción de reservas por CPU servidas sin visitar el buddy.
+     */
+    public double getCpuCacheHitRatio() {
+        long hits = getCpuCacheHitCount();
+        long total = hits + getCpuCacheRefillCount();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    // --- Fragmentación y compactación ---
+
+    /**
+     * @return Índice de fragmentación de la memoria libre para peticiones del orden dado
+     *         (0 = toda la memoria libre sirve, 1 = ningún bloque libre es lo bastante grande).
+     */
+    public double getFragmentationIndex(int order) {
+        return buddy.getFragmentationIndex(order);
+    }
+
+    /**
+     * @return El mayor orden con algún bloque libre, o -1 si no queda memoria libre.
+     */
+    public int getLargestFreeOrder() {
+        return buddy.getLargestFreeOrder();
+    }
+
+    public int getFreeBlockCount(int order) {
+        return buddy.getFreeBlockCount(order);
+    }
+
+    public String getAllocatorStatus() {
+        return buddy.toString();
+    }
+
+    /**
+     * @return true si la página del marco se puede trasladar a otro marco: está ocupado por una página
+     *         normal, no compartida, de algún proceso y nadie la está desalojando.
+     */
+    public boolean isMovable(int frameNumber) {
+        return (getFlags(frameNumber) & (FLAG_ALLOCATED | FLAG_HUGE | FLAG_EVICTING | FLAG_SHARED)) == FLAG_ALLOCATED
+                && ownerTable[frameNumber] != null;
+    }
+
+    /**
+     * Busca la zona alineada de 2^order marcos que menos traslados necesita para quedar libre entera.
+     * Es un recorrido sin cerrojos: el resultado es sólo una sugerencia y compactar lo vuelve a validar.
+     * @param maxMoves Máximo de páginas a trasladar que se aceptan.
+     * @return El primer marco de la zona, o NO_FRAME si ninguna se puede vaciar trasladando páginas.
+     */
+    public int findCompactionCandidate(int order, int maxMoves) {
+        int blockSize = 1 << order;
+        int best = NO_FRAME;
+        int bestMoves = maxMoves + 1;
+        for (int start = 0; start + blockSize <= numFrames; start += blockSize) {
+            int end = start + blockSize;
+            int moves = 0;
+            int frame = start;
+            while (frame < end && moves < bestMoves) {
+                int freeOrder = buddy.freeOrderAt(frame);
+                if (freeOrder != BuddyAllocator.NOT_FREE) {
+                    frame += 1 << freeOrder;
+                } else if (isMovable(frame)) {
+                    moves++;
+                    frame++;
+                } else {
+                    moves = bestMoves; // Página fija o en tránsito: la zona no sirve
+                }
+            }
+            if (moves > 0 && moves < bestMoves && frame >= end) {
+                best = start;
+                bestMoves = moves;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Retira del buddy los bloques libres de la zona [start, start + 2^order), marcándolos en isolated.
+     * @return Marcos retirados.
+     */
+    int isolateFreeBlocks(int start, int order, boolean[] isolated) {
+        return buddy.isolateFreeBlocks(start, order, isolated);
+    }
+
+    /**
+     * @return true si la zona ya forma parte de un bloque libre del buddy.
+     */
+    boolean isFreeRange(int start, int order) {
+        return buddy.isFreeRange(start, order);
+    }
+
+    /**
+     * Devuelve al buddy un bloque entero o un marco suelto retirado por isolateFreeBlocks()
+     * o vaciado por migrate().
+     */
+    void freeBlock(int start, int order) {
+        buddy.free(start, order);
+    }
+
+    /**
+     * Traslada la página de un marco a otro ya reservado: propietario, tabla, hueco de swap y bits de
+     * referencia y modificado. El marco de origen queda vacío, fuera del conjunto residente y sin volver
+     * al buddy. Se llama con la franja de la página tomada y el origen marcado con beginEviction().
+     */
+    public void migrate(int fromFrame, int toFrame) {
+        int carried = getFlags(fromFrame) & (FLAG_REFERENCED | FLAG_DIRTY);
+        PageTable table = ownerTable[fromFrame];
+        int slot = swapSlot[fromFrame];
+        occupy(toFrame, ownerPid[fromFrame], pageNumber[fromFrame], table, FLAG_ALLOCATED | carried);
+        swapSlot[toFrame] = slot;
+        vacate(fromFrame);
+    }
+}
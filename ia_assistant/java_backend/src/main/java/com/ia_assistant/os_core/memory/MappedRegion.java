@@ -0,0 +1,68 @@
+package com.ia_assistant.os_core.memory;
+
+/**
+ * Tramo del espacio de direcciones de un proceso que muestra un MemoryObject, como una VMA de Linux
+ * creada con mmap(MAP_SHARED). Es inmutable: un fork() comparte la misma región entre padre e hijo.
+ */
+public final class MappedRegion {
+
+    private final int start;
+    private final int length;
+    private final MemoryObject object;
+    private final int objectOffset;
+    private final boolean writable;
+
+    MappedRegion(int start, int length, MemoryObject object, int objectOffset, boolean writable) {
+        this.start = start;
+        this.length = length;
+        this.object = object;
+        this.objectOffset = objectOffset;
+        this.writable = writable;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return Primera dirección posterior a la región.
+     */
+    public int getEnd() {
+        return start + length;
+    }
+
+    public MemoryObject getObject() {
+        return object;
+    }
+
+    /**
+     * @return Desplazamiento dentro del objeto que corresponde a la primera dirección de la región.
+     */
+    public int getObjectOffset() {
+        return objectOffset;
+    }
+
+    public boolean isWritable() {
+        return writable;
+    }
+
+    public boolean contains(int address) {
+        return address >= start && address - start < length;
+    }
+
+    /**
+     * Traduce una dirección de la región a la dirección correspondiente del espacio interno del objeto.
+     */
+    int toObjectAddress(int address) {
+        return address - start + objectOffset;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[0x%08x, 0x%08x) %s -> %s+%d", start, getEnd(), writable ? "rw" : "r-", object.getName(), objectOffset);
+    }
+}
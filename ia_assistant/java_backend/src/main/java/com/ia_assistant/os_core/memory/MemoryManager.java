@@ -1,31 +1,265 @@
 package com.ia_assistant.os_core.memory;
 
 import com.ia_assistant.os_core.Process;
-import java.util.LinkedList;
+import com.ia_assistant.os_core.memory.replacement.FIFOStrategy;
+import com.ia_assistant.os_core.memory.replacement.PageReplacementAlgorithm;
+import com.ia_assistant.os_core.memory.replacement.ReplacementPolicies;
+import com.ia_assistant.os_core.memory.swap.SwapDevice;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Gestiona la memoria virtual utilizando paginación bajo demanda.
+ *
+ * Es seguro usarlo desde varios hilos, uno por CPU simulada. Los aciertos no toman cerrojos: traducen
+ * con la PageTable y validan el marco con sus flags atómicos. Cada falta reserva primero un marco (de
+ * la pila de libres sin cerrojos o desalojando una víctima) y sólo después toma el cerrojo de la franja
+ * de su página, así que ningún hilo tiene nunca dos franjas a la vez. El algoritmo de reemplazo se
+ * protege con un único cerrojo que sólo se toma en faltas; los accesos que le interesan se acumulan en
+ * buffers por CPU y se le entregan por lotes. Orden de cerrojos: franja, después cerrojo de reemplazo.
+ * El cerrojo de mapeos (regiones de objetos compartidos) se toma siempre antes que cualquier franja.
  */
 public class MemoryManager {
 
-    private final Frame[] physicalMemory; // Simula la RAM física como un array de marcos
-    private final Queue<Integer> freeFrames; // Cola para encontrar marcos libres rápidamente
-    private final Queue<Integer> pageReplacementQueue; // Cola para el algoritmo de reemplazo FIFO
+    private final FrameTable physicalMemory; // Simula la RAM física como una tabla de marcos en arrays paralelos
+    private volatile PageReplacementAlgorithm replacementAlgorithm; // Estrategia de reemplazo intercambiable
+    private final ReentrantLock replacementLock = new ReentrantLock(); // Serializa todas las llamadas a la estrategia
+    private volatile boolean trackAccesses; // La estrategia quiere onPageAccess() en los aciertos
+    private volatile TranslationLookasideBuffer[] tlbs; // Un TLB por CPU simulada, etiquetado por PID
+    private volatile AccessBuffer[] accessBuffers; // Aciertos pendientes de entregar a la estrategia, por CPU
+    private volatile SwapDevice swapDevice; // Almacén de respaldo para páginas modificadas; null = sin swap
+
+    // Contenido de los marcos, fuera del heap. Se lee y escribe siempre con la franja de la página tomada,
+    // así que una copia nunca se cruza con la carga, el desalojo o el traslado de esa página.
+    private final PhysicalMemory ram;
+
+    // Contadores para comparar algoritmos de reemplazo entre sí. Son por CPU, como las estadísticas
+    // per-cpu de un núcleo real: cada CPU incrementa sólo su fila, sin atómicos, y los getters suman.
+    // Si dos hilos comparten índice de CPU puede perderse algún incremento; sólo afecta a las estadísticas.
+    private static final int STAT_ACCESSES = 0;
+    private static final int STAT_FAULTS = 1;
+    private static final int STAT_EVICTIONS = 2;
+    private static final int STAT_DIRTY_EVICTIONS = 3;
+    private static final int STAT_LOST_PAGES = 4; // Páginas modificadas descartadas por falta de swap
+    private static final int STAT_PREFETCHED = 5; // Páginas cargadas por lectura anticipada
+    private static final int STAT_TRIMMED = 6;    // Páginas quitadas al recortar conjuntos residentes
+    private static final int STAT_HUGE_FAILURES = 7; // Faltas de páginas enormes sin tramos libres en la reserva
+    private static final int STAT_COW_BREAKS = 8; // Escrituras que copiaron una página compartida tras un fork()
+    private static final int STAT_COUNT = 9;
+    private static final int STAT_STRIDE = 16;    // 128 bytes por fila: cada CPU en su propia línea de caché
+    private volatile long[] cpuStats = new long[STAT_STRIDE];
+
+    private volatile boolean verbose = true; // Traza por consola de cada acceso; desactivar para cargas masivas
+    private volatile boolean readahead = true; // Cargar por adelantado las páginas siguientes en accesos secuenciales
+    private volatile boolean workingSetTrimming = true; // Recortar el conjunto residente según la frecuencia de faltas
+
+    // Resultado de handlePageFault()
+    private static final int FAULT_FAILED = 0;
+    private static final int FAULT_LOADED = 1;
+    private static final int FAULT_RETRY = 2;
+
+    // Compactación: pasadas sobre una zona antes de rendirse si otras CPUs siguen moviendo sus páginas.
+    private static final int COMPACTION_PASSES = 3;
+    private final Object compactionLock = new Object(); // Una sola compactación a la vez
+    private ScheduledExecutorService compactionDaemon;
+    private volatile long compactionRuns;
+    private volatile long compactionSuccesses;
+    private volatile long migratedPages;
+
+    // Objetos de memoria compartidos: segmentos con nombre y ficheros mapeados. El cerrojo de mapeos
+    // protege el espacio de nombres, los contadores de regiones de cada objeto y las regiones de todas las tablas.
+    public static final int MAP_FAILED = -1;
+    private final Object mappingLock = new Object();
+    private final Map<String, MemoryObject> sharedSegments = new HashMap<>();
+    private final Map<Integer, MemoryObject> memoryObjects = new ConcurrentHashMap<>(); // Por PID interno
+    private int nextObjectId = MemoryObject.FIRST_ID;
+
+    public static final int DEFAULT_TLB_ENTRIES = 64;
+    public static final int DEFAULT_TLB_ASSOCIATIVITY = 4;
 
     public MemoryManager(int totalMemoryMB) {
-        int numFrames = (int) Math.floor((double) totalMemoryMB * 1024 / Process.PAGE_SIZE_KB);
-        this.physicalMemory = new Frame[numFrames];
-        this.freeFrames = new LinkedList<>();
-        this.pageReplacementQueue = new LinkedList<>();
+        this(totalMemoryMB, new FIFOStrategy());
+    }
+
+    public MemoryManager(int totalMemoryMB, PageReplacementAlgorithm replacementAlgorithm) {
+        this(replacementAlgorithm, (int) Math.floor((double) totalMemoryMB * 1024 / Process.PAGE_SIZE_KB));
+    }
+
+    /**
+     * Crea un gestor con un número exacto de marcos, para experimentos que barren el tamaño de la memoria
+     * con más resolución que un MB (256 marcos).
+     */
+    public static MemoryManager withFrames(int numFrames, PageReplacementAlgorithm replacementAlgorithm) {
+        return new MemoryManager(replacementAlgorithm, numFrames);
+    }
+
+    private MemoryManager(PageReplacementAlgorithm replacementAlgorithm, int numFrames) {
+        this.physicalMemory = new FrameTable(numFrames);
+        this.ram = new PhysicalMemory(numFrames);
+        this.replacementAlgorithm = replacementAlgorithm;
+        this.replacementAlgorithm.initialize(physicalMemory);
+        this.trackAccesses = replacementAlgorithm.tracksAccesses();
+        configureTlbs(1, DEFAULT_TLB_ENTRIES, DEFAULT_TLB_ASSOCIATIVITY);
+
+        System.out.println("MemoryManager (Paginación): Listo. Memoria física: " + numFrames + " marcos de " + Process.PAGE_SIZE_KB + " KB c/u. Reemplazo: " + replacementAlgorithm.getName());
+    }
+
+    /**
+     * Cambia el algoritmo de reemplazo en caliente.
+     * Los marcos ocupados se traspasan a la nueva estrategia en el orden de desalojo de la anterior.
+     * @param newAlgorithm La nueva estrategia de reemplazo.
+     */
+    public void setReplacementAlgorithm(PageReplacementAlgorithm newAlgorithm) {
+        replacementLock.lock();
+        try {
+            System.out.println("MemoryManager: Cambiando algoritmo de reemplazo de " + replacementAlgorithm.getName() + " a " + newAlgorithm.getName());
+            newAlgorithm.initialize(physicalMemory);
+            drainAccessBuffers();
+            for (int frame = replacementAlgorithm.findVictimFrame();
+                 frame != PageReplacementAlgorithm.NO_FRAME;
+                 frame = replacementAlgorithm.findVictimFrame()) {
+                newAlgorithm.onPageLoad(frame);
+            }
+            this.replacementAlgorithm = newAlgorithm;
+            this.trackAccesses = newAlgorithm.tracksAccesses();
+        } finally {
+            replacementLock.unlock();
+        }
+    }
+
+    /**
+     * Cambia el algoritmo de reemplazo a partir de su nombre corto, registrado en ReplacementPolicies
+     * ("fifo", "lru", "clock", "arc", "clockpro"...).
+     * @return true si el nombre corresponde a una estrategia conocida.
+     */
+    public boolean setReplacementAlgorithm(String algorithmName) {
+        Optional<PageReplacementAlgorithm> newAlgorithm = ReplacementPolicies.create(algorithmName);
+        if (newAlgorithm.isEmpty()) {
+            return false;
+        }
+        setReplacementAlgorithm(newAlgorithm.get());
+        return true;
+    }
+
+    public PageReplacementAlgorithm getReplacementAlgorithm() {
+        return replacementAlgorithm;
+    }
+
+    /**
+     * Conecta un dispositivo de swap. A partir de ese momento las páginas modificadas que se desalojan
+     * se escriben en él y se vuelven a leer en la siguiente falta. Sólo debe hacerse con la memoria vacía
+     * o sin swap previo, porque las páginas ya desalojadas no se migran entre dispositivos.
+     */
+    public void attachSwapDevice(SwapDevice swapDevice) {
+        this.swapDevice = swapDevice;
+        System.out.println("MemoryManager: Swap conectado (" + swapDevice.getSlotCount() + " huecos).");
+    }
+
+    public SwapDevice getSwapDevice() {
+        return swapDevice;
+    }
+
+    /**
+     * Reserva memoria física para páginas enormes (Process.HUGE_PAGE_SIZE_KB), en bloques de marcos contiguos
+     * sacados del asignador buddy. Como en hugetlbfs, esas páginas no se desalojan ni van a swap, y los marcos
+     * de la reserva dejan de estar disponibles para páginas normales. Si la memoria libre está fragmentada
+     * se compacta para conseguir los bloques.
+     * @param count Número de páginas enormes a añadir a la reserva.
+     * @return false si no se han podido reservar todas (las conseguidas se quedan en la reserva).
+     */
+    public boolean reserveHugePages(int count) {
+        int reserved = physicalMemory.reserveHugePages(count);
+        while (reserved < count && compact(FrameTable.HUGE_PAGE_ORDER)) {
+            reserved += physicalMemory.reserveHugePages(count - reserved);
+        }
+        System.out.println("MemoryManager: Reservadas " + reserved + " de " + count + " páginas enormes de " + Process.HUGE_PAGE_SIZE_KB + " KB.");
+        return reserved == count;
+    }
+
+    /**
+     * Activa o desactiva la traza por consola de accesos, faltas y desalojos.
+     * Con la traza desactivada el camino de acceso no formatea cadenas ni reserva memoria.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    /**
+     * Activa o desactiva la lectura anticipada: cuando un proceso falla en páginas consecutivas, cada falta
+     * carga también una ventana de páginas siguientes (ver WorkingSetTracker).
+     */
+    public void setReadahead(boolean readahead) {
+        this.readahead = readahead;
+    }
+
+    public boolean isReadahead() {
+        return readahead;
+    }
+
+    /**
+     * Activa o desactiva el control del conjunto residente por frecuencia de faltas (PFF): cuando un proceso
+     * lleva mucho tiempo sin fallar, se le quitan las páginas que no ha referenciado desde su falta anterior.
+     */
+    public void setWorkingSetTrimming(boolean workingSetTrimming) {
+        this.workingSetTrimming = workingSetTrimming;
+    }
+
+    public boolean isWorkingSetTrimming() {
+        return workingSetTrimming;
+    }
 
-        for (int i = 0; i < numFrames; i++) {
-            physicalMemory[i] = new Frame();
-            freeFrames.add(i);
+    /**
+     * Reconfigura los TLBs: uno por CPU simulada, con el tamaño y la asociatividad indicados.
+     * Los TLBs anteriores se descartan (equivale a un vaciado completo). También se rehacen los buffers de
+     * accesos y las cachés de marcos libres por CPU. Debe llamarse sin accesos en curso.
+     * @param cpus Número de CPUs simuladas.
+     * @param entries Entradas por TLB.
+     * @param associativity Vías por conjunto.
+     */
+    public void configureTlbs(int cpus, int entries, int associativity) {
+        TranslationLookasideBuffer[] newTlbs = new TranslationLookasideBuffer[cpus];
+        AccessBuffer[] newBuffers = new AccessBuffer[cpus];
+        long[] newStats = new long[cpus * STAT_STRIDE];
+        for (int cpu = 0; cpu < cpus; cpu++) {
+            newTlbs[cpu] = new TranslationLookasideBuffer(entries, associativity);
+            newBuffers[cpu] = new AccessBuffer();
         }
+        replacementLock.lock();
+        try {
+            if (accessBuffers != null) {
+                drainAccessBuffers();
+            }
+            // Los totales acumulados se conservan en la fila de la CPU 0.
+            for (int stat = 0; stat < STAT_COUNT; stat++) {
+                newStats[stat] = sumStat(stat);
+            }
+            this.cpuStats = newStats;
+            this.accessBuffers = newBuffers;
+            this.tlbs = newTlbs;
+        } finally {
+            replacementLock.unlock();
+        }
+        physicalMemory.configureCpuCaches(cpus);
+    }
 
-        System.out.println("MemoryManager (Paginación): Listo. Memoria física: " + numFrames + " marcos de " + Process.PAGE_SIZE_KB + " KB c/u.");
+    public TranslationLookasideBuffer getTlb(int cpu) {
+        return tlbs[cpu];
+    }
+
+    public int getCpuCount() {
+        return tlbs.length;
     }
 
     /**
@@ -38,126 +272,1336 @@ public class MemoryManager {
      *         false si el acceso es inválido (fuera de los límites del proceso).
      */
     public boolean accessMemory(Process process, int virtualAddress) {
-        int pageNumber = virtualAddress / (Process.PAGE_SIZE_KB * 1024);
+        return accessMemory(0, process, virtualAddress, false);
+    }
+
+    /**
+     * Igual que accessMemory(Process, int), indicando si el acceso es de escritura
+     * (lo que activa el bit de modificado del marco).
+     */
+    public boolean accessMemory(Process process, int virtualAddress, boolean write) {
+        return accessMemory(0, process, virtualAddress, write);
+    }
+
+    /**
+     * Igual que accessMemory(Process, int, boolean), pero desde una CPU simulada concreta,
+     * cuyo TLB se consulta antes de recorrer la tabla de páginas.
+     * @param cpu El índice de la CPU simulada que realiza el acceso.
+     */
+    public boolean accessMemory(int cpu, Process process, int virtualAddress, boolean write) {
+        int pageNumber = virtualAddress >> process.getPageShift();
 
         // Verificación de seguridad: ¿El acceso está dentro del espacio de direcciones del proceso?
         if (pageNumber < 0 || pageNumber >= process.getVirtualSizeInPages()) {
-            System.out.printf("ERROR de Memoria (PID %d): Acceso a dirección virtual %d inválida. Segmento fuera de límites.\n", process.getPid(), virtualAddress);
+            // Por encima del espacio propio puede haber una región que mapea un objeto compartido: el acceso
+            // se resuelve en el espacio de direcciones del objeto, con sus marcos, su TLB y sus faltas.
+            MappedRegion region = virtualAddress >= 0 ? process.getPageTable().findRegion(virtualAddress) : null;
+            if (region != null && (!write || region.isWritable())) {
+                return accessMemory(cpu, region.getObject().getPages(), region.toObjectAddress(virtualAddress), write);
+            }
+            if (region != null) {
+                if (verbose) {
+                    System.out.printf("ERROR de Memoria (PID %d): Escritura en la dirección %d de una región de sólo lectura.\n", process.getPid(), virtualAddress);
+                }
+                return false;
+            }
+            if (verbose) {
+                System.out.printf("ERROR de Memoria (PID %d): Acceso a dirección virtual %d inválida. Segmento fuera de límites.\n", process.getPid(), virtualAddress);
+            }
             return false;
         }
 
-        System.out.printf("MEM-ACCESS (PID %d): Accediendo a dirección virtual %d (página %d)...\n", process.getPid(), virtualAddress, pageNumber);
+        if (verbose) {
+            System.out.printf("MEM-ACCESS (PID %d): Accediendo a dirección virtual %d (página %d)...\n", process.getPid(), virtualAddress, pageNumber);
+        }
+        cpuStats[cpu * STAT_STRIDE + STAT_ACCESSES]++;
 
-        // Traducción de Dirección: ¿Está la página en memoria?
-        Optional<Integer> frameNumberOpt = process.getPageTable().getFrameNumber(pageNumber);
+        int pid = process.getPid();
+        PageTable pageTable = process.getPageTable();
+        pageTable.getWorkingSet().accessCount++;
 
-        if (frameNumberOpt.isPresent() && frameNumberOpt.get() != null) {
-            // ¡Cache Hit! La página ya está en un marco físico.
-            System.out.printf("  -> ¡ÉXITO! Página %d ya está en el marco físico %d.\n", pageNumber, frameNumberOpt.get());
+        // Traducción de Dirección: primero el TLB de la CPU, después la tabla de páginas.
+        TranslationLookasideBuffer tlb = tlbs[cpu];
+        int frameNumber = tlb.lookup(pid, pageNumber);
+        if (frameNumber != TranslationLookasideBuffer.MISS && !(write && physicalMemory.isShared(frameNumber))
+                && recordHit(cpu, pageTable, pageNumber, frameNumber, write)) {
+            if (verbose) {
+                System.out.printf("  -> ¡ACIERTO DE TLB! Página %d en el marco físico %d.\n", pageNumber, frameNumber);
+            }
             return true;
-        } else {
-            // ¡Page Fault! La página no está en memoria. Hay que manejarla.
-            System.out.printf("  -> ¡FALTA DE PÁGINA (Page Fault)! La página %d no está en memoria física.\n", pageNumber);
-            return handlePageFault(process, pageNumber);
+        }
+
+        while (true) {
+            frameNumber = pageTable.translate(pageNumber);
+
+            if (frameNumber == PageTable.NOT_PRESENT) {
+                // ¡Page Fault! La página no está en memoria. Hay que manejarla.
+                if (verbose) {
+                    System.out.printf("  -> ¡FALTA DE PÁGINA (Page Fault)! La página %d no está en memoria física.\n", pageNumber);
+                }
+                int result;
+                if (process.usesHugePages()) {
+                    result = handleHugePageFault(cpu, process, pageNumber, write);
+                } else {
+                    result = handlePageFault(cpu, process, pageNumber, write, false);
+                    if (result == FAULT_LOADED) {
+                        adjustResidency(cpu, process, pageNumber);
+                    }
+                }
+                if (result != FAULT_RETRY) {
+                    return result == FAULT_LOADED;
+                }
+            } else if (write && physicalMemory.isShared(frameNumber)) {
+                // Escritura sobre una página compartida con otro proceso tras un fork(): se copia antes.
+                int result = handleCopyOnWrite(cpu, process, pageNumber, frameNumber);
+                if (result != FAULT_RETRY) {
+                    return result == FAULT_LOADED;
+                }
+            } else if (recordHit(cpu, pageTable, pageNumber, frameNumber, write)) {
+                // ¡Cache Hit! La página ya está en un marco físico.
+                if (verbose) {
+                    System.out.printf("  -> ¡ÉXITO! Página %d ya está en el marco físico %d.\n", pageNumber, frameNumber);
+                }
+                tlb.insert(pid, pageNumber, frameNumber);
+                return true;
+            } else {
+                // Otra CPU está desalojando la página: en cuanto cambie su entrada, se vuelve a traducir.
+                Thread.yield();
+            }
         }
     }
-    
+
+    /**
+     * Registra un acierto sobre un marco obtenido sin cerrojos (del TLB o de la tabla de páginas).
+     * @return false si el marco ya no contiene esa página o la está desalojando otra CPU;
+     *         en ese caso el acceso no cuenta y hay que volver a traducir.
+     */
+    private boolean recordHit(int cpu, PageTable pageTable, int pageNumber, int frameNumber, boolean write) {
+        if (!physicalMemory.markAccessed(frameNumber, write)
+                || !physicalMemory.isOwnedBy(frameNumber, pageTable, pageNumber)) {
+            return false;
+        }
+        if (trackAccesses && accessBuffers[cpu].record(frameNumber)) {
+            // Se entrega el lote sólo si el cerrojo está libre: un acierto nunca espera.
+            if (replacementLock.tryLock()) {
+                try {
+                    drainAccessBuffers();
+                } finally {
+                    replacementLock.unlock();
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lee bytes del espacio de direcciones virtual de un proceso, resolviendo las faltas que haga falta.
+     * Las páginas desalojadas se recuperan de swap; las que nunca se han escrito se leen a cero.
+     * @param cpu La CPU simulada que realiza el acceso.
+     * @param virtualAddress Dirección virtual del primer byte.
+     * @return true si se ha leído todo el rango; false si se sale del espacio del proceso o una falta no
+     *         se pudo resolver (en ese caso destination puede haber quedado a medias).
+     */
+    public boolean read(int cpu, Process process, int virtualAddress, byte[] destination, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, destination.length);
+        return copyRange(cpu, process, virtualAddress, destination, offset, length, false);
+    }
+
+    public boolean read(Process process, int virtualAddress, byte[] destination, int offset, int length) {
+        return read(0, process, virtualAddress, destination, offset, length);
+    }
+
+    /**
+     * Escribe bytes en el espacio de direcciones virtual de un proceso, resolviendo las faltas que haga
+     * falta. Las páginas tocadas quedan modificadas, así que su contenido irá a swap si se desalojan.
+     * @param cpu La CPU simulada que realiza el acceso.
+     * @param virtualAddress Dirección virtual del primer byte.
+     * @return true si se ha escrito todo el rango; false si se sale del espacio del proceso o una falta no
+     *         se pudo resolver (en ese caso puede haberse escrito sólo una parte).
+     */
+    public boolean write(int cpu, Process process, int virtualAddress, byte[] source, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, source.length);
+        return copyRange(cpu, process, virtualAddress, source, offset, length, true);
+    }
+
+    public boolean write(Process process, int virtualAddress, byte[] source, int offset, int length) {
+        return write(0, process, virtualAddress, source, offset, length);
+    }
+
+    private boolean copyRange(int cpu, Process process, int virtualAddress, byte[] buffer, int offset, int length, boolean write) {
+        int done = 0;
+        while (done < length) {
+            int address = virtualAddress + done;
+            Process target = process;
+            int targetAddress = address;
+            int remaining = length - done;
+            if (address >= 0 && (address >> process.getPageShift()) >= process.getVirtualSizeInPages()) {
+                // Dentro de una región mapeada se copia directamente de los marcos del objeto.
+                MappedRegion region = process.getPageTable().findRegion(address);
+                if (region == null || (write && !region.isWritable())) {
+                    return false;
+                }
+                target = region.getObject().getPages();
+                targetAddress = region.toObjectAddress(address);
+                remaining = Math.min(remaining, region.getEnd() - address);
+            }
+            int pageBytes = 1 << target.getPageShift();
+            int inPage = targetAddress & (pageBytes - 1);
+            int chunk = Math.min(remaining, pageBytes - inPage);
+            if (!copyPage(cpu, target, targetAddress, inPage, buffer, offset + done, chunk, write)) {
+                return false;
+            }
+            done += chunk;
+        }
+        return true;
+    }
+
+    /**
+     * Copia un tramo que no cruza el límite de página. accessMemory() deja la página residente (y cuenta el
+     * acceso, el TLB y los bits del marco); la copia se hace después con la franja tomada, para que ninguna
+     * CPU pueda desalojar o trasladar el marco a medias. Si se desalojó entre ambos pasos, se repite la falta.
+     */
+    private boolean copyPage(int cpu, Process process, int virtualAddress, int inPage, byte[] buffer, int offset, int length, boolean write) {
+        PageTable pageTable = process.getPageTable();
+        int pageNumber = virtualAddress >> process.getPageShift();
+        while (true) {
+            if (!accessMemory(cpu, process, virtualAddress, write)) {
+                return false;
+            }
+            ReentrantLock stripe = pageTable.lockFor(pageNumber);
+            stripe.lock();
+            try {
+                int frameNumber = pageTable.translate(pageNumber);
+                if (frameNumber == PageTable.NOT_PRESENT || (write && physicalMemory.isShared(frameNumber))) {
+                    // Desalojada, o compartida otra vez por un fork(): accessMemory() lo resuelve.
+                    continue;
+                }
+                if (write) {
+                    ram.write(frameNumber, inPage, buffer, offset, length);
+                    // Con la franja tomada el desalojo aún no ha mirado el bit: la escritura irá a swap.
+                    physicalMemory.markDirty(frameNumber);
+                } else {
+                    ram.read(frameNumber, inPage, buffer, offset, length);
+                }
+                return true;
+            } finally {
+                stripe.unlock();
+            }
+        }
+    }
+
+    /**
+     * Entrega a la estrategia los aciertos acumulados por todas las CPUs.
+     * Debe llamarse con replacementLock tomado.
+     */
+    private void drainAccessBuffers() {
+        if (!trackAccesses) {
+            return;
+        }
+        for (AccessBuffer buffer : accessBuffers) {
+            buffer.drainTo(replacementAlgorithm);
+        }
+    }
+
+    /**
+     * Abre un segmento de memoria compartida con nombre, como shm_open(): si no existe lo crea con el
+     * tamaño pedido (redondeado a páginas); si ya existe lo devuelve tal cual, sin cambiar su tamaño.
+     * Sus páginas nacen a cero y viven hasta que se borra el nombre y se desmapea la última región.
+     */
+    public MemoryObject openSharedSegment(String name, int sizeKB) {
+        synchronized (mappingLock) {
+            MemoryObject segment = sharedSegments.get(name);
+            if (segment == null) {
+                segment = createObject(name, sizeKB * 1024, null);
+                sharedSegments.put(name, segment);
+            }
+            return segment;
+        }
+    }
+
+    /**
+     * Borra el nombre de un segmento compartido, como shm_unlink(). Las regiones que ya lo mapean siguen
+     * funcionando; sus marcos se liberan al desmapear la última.
+     * @return false si no había ningún segmento con ese nombre.
+     */
+    public boolean unlinkSharedSegment(String name) {
+        synchronized (mappingLock) {
+            MemoryObject segment = sharedSegments.remove(name);
+            if (segment == null) {
+                return false;
+            }
+            unlink(segment);
+            return true;
+        }
+    }
+
+    /**
+     * Crea un objeto de memoria anónimo (sin nombre en el espacio de segmentos) cuyas páginas nacen con
+     * el contenido dado. Es lo que usa el sistema de ficheros para mapear un fichero: quien lo crea lo
+     * mantiene vivo hasta llamar a releaseMemoryObject().
+     * @param sizeBytes Tamaño del objeto; se redondea a páginas y debe cubrir initialContents.
+     */
+    public MemoryObject createMemoryObject(String name, int sizeBytes, byte[] initialContents) {
+        if (sizeBytes < initialContents.length) {
+            throw new IllegalArgumentException("El objeto " + name + " no cabe en " + sizeBytes + " bytes");
+        }
+        synchronized (mappingLock) {
+            return createObject(name, sizeBytes, initialContents.clone());
+        }
+    }
+
+    /**
+     * Suelta la referencia de quien creó el objeto con createMemoryObject(). Las regiones que aún lo
+     * mapean lo mantienen vivo; sus marcos se liberan al desmapear la última.
+     */
+    public void releaseMemoryObject(MemoryObject object) {
+        synchronized (mappingLock) {
+            unlink(object);
+        }
+    }
+
+    /**
+     * Mapea una parte de un objeto compartido en el espacio de direcciones de un proceso, como
+     * mmap(MAP_SHARED): la región se coloca en el primer hueco libre por encima del espacio propio del
+     * proceso, y sus accesos usan los mismos marcos que los de cualquier otro proceso que mapee el objeto.
+     * @param offset Desplazamiento dentro del objeto, múltiplo del tamaño de página.
+     * @param length Bytes a mapear; se redondea a páginas y no puede pasar del final del objeto.
+     * @return La dirección virtual del principio de la región, o MAP_FAILED si los límites no son válidos,
+     *         el objeto ya se destruyó o no queda hueco en el espacio de direcciones.
+     */
+    public int map(Process process, MemoryObject object, int offset, int length, boolean writable) {
+        int pageBytes = PhysicalMemory.FRAME_BYTES;
+        long rounded = ((long) length + pageBytes - 1) & -pageBytes;
+        if (offset < 0 || (offset & (pageBytes - 1)) != 0 || length <= 0 || offset + rounded > object.getSize()) {
+            return MAP_FAILED;
+        }
+        long base = (long) process.getVirtualSizeInPages() << process.getPageShift();
+        if (base + rounded > Integer.MAX_VALUE) {
+            return MAP_FAILED;
+        }
+        MappedRegion region;
+        synchronized (mappingLock) {
+            if (object.destroyed) {
+                return MAP_FAILED;
+            }
+            PageTable pageTable = process.getPageTable();
+            int start = pageTable.findFreeRange((int) base, (int) rounded);
+            if (start < 0) {
+                return MAP_FAILED;
+            }
+            region = new MappedRegion(start, (int) rounded, object, offset, writable);
+            pageTable.addRegion(region);
+            object.mappingCount++;
+        }
+        if (verbose) {
+            System.out.printf("MEM-MAP (PID %d): %s\n", process.getPid(), region);
+        }
+        return region.getStart();
+    }
+
+    /**
+     * Quita la región que empieza en la dirección dada, como munmap() de una región entera.
+     * No debe desmapearse una región mientras otro hilo del proceso sigue accediendo a ella.
+     * @return false si no hay ninguna región que empiece ahí.
+     */
+    public boolean unmap(Process process, int address) {
+        PageTable pageTable = process.getPageTable();
+        synchronized (mappingLock) {
+            MappedRegion region = pageTable.findRegion(address);
+            if (region == null || region.getStart() != address) {
+                return false;
+            }
+            pageTable.removeRegion(region);
+            dropMapping(region.getObject());
+        }
+        if (verbose) {
+            System.out.printf("MEM-UNMAP (PID %d): Región en 0x%08x desmapeada.\n", process.getPid(), address);
+        }
+        return true;
+    }
+
+    /**
+     * Lee bytes de un objeto compartido sin mapearlo, como haría read() sobre el fichero.
+     */
+    public boolean readObject(MemoryObject object, int offset, byte[] destination, int destinationOffset, int length) {
+        return read(0, object.getPages(), offset, destination, destinationOffset, length);
+    }
+
+    /**
+     * Escribe bytes en un objeto compartido sin mapearlo; los procesos que lo mapean ven el cambio.
+     */
+    public boolean writeObject(MemoryObject object, int offset, byte[] source, int sourceOffset, int length) {
+        return write(0, object.getPages(), offset, source, sourceOffset, length);
+    }
+
+    /**
+     * Requiere el cerrojo de mapeos.
+     */
+    private MemoryObject createObject(String name, int sizeBytes, byte[] initialContents) {
+        int pageBytes = PhysicalMemory.FRAME_BYTES;
+        int rounded = Math.max(pageBytes, (sizeBytes + pageBytes - 1) & -pageBytes);
+        MemoryObject object = new MemoryObject(nextObjectId++, name, rounded, initialContents);
+        memoryObjects.put(object.getId(), object);
+        if (verbose) {
+            System.out.printf("MEM-OBJECT: Objeto compartido '%s' creado (%d KB, PID interno %d).\n", name, rounded / 1024, object.getId());
+        }
+        return object;
+    }
+
+    /**
+     * Quita la última referencia que no es una región. Requiere el cerrojo de mapeos.
+     */
+    private void unlink(MemoryObject object) {
+        if (!object.unlinked) {
+            object.unlinked = true;
+            if (object.mappingCount == 0) {
+                destroy(object);
+            }
+        }
+    }
+
+    /**
+     * Requiere el cerrojo de mapeos.
+     */
+    private void dropMapping(MemoryObject object) {
+        object.mappingCount--;
+        if (object.mappingCount == 0 && object.unlinked) {
+            destroy(object);
+        }
+    }
+
+    /**
+     * Libera los marcos y los huecos de swap de un objeto que ya nadie referencia. Requiere el cerrojo de
+     * mapeos, que va antes que las franjas de la tabla del objeto.
+     */
+    private void destroy(MemoryObject object) {
+        object.destroyed = true;
+        releaseProcessMemory(object.getPages());
+        memoryObjects.remove(object.getId());
+    }
+
     /**
      * Libera todos los marcos de memoria que estaban asignados a un proceso terminado.
      * @param process El proceso que ha terminado.
      */
     public void releaseProcessMemory(Process process) {
-        System.out.printf("MEM-RELEASE (PID %d): Liberando todos los marcos de memoria.\n", process.getPid());
-        for (int i = 0; i < physicalMemory.length; i++) {
-            if (physicalMemory[i].getProcessId() != null && physicalMemory[i].getProcessId() == process.getPid()) {
-                // Este marco pertenece al proceso terminado.
-                int pageNum = physicalMemory[i].getPageNumber();
-                physicalMemory[i].free();
-                freeFrames.add(i); // El marco vuelve a estar disponible.
-                // Es importante remover la página de la cola de reemplazo para no causar errores.
-                pageReplacementQueue.remove(Integer.valueOf(i)); 
-                // Invalida la página en la tabla del proceso para reflejar que ya no está en memoria.
-                process.getPageTable().invalidatePage(pageNum);
-                 System.out.printf("  -> Marco %d (contenía página %d) liberado.\n", i, pageNum);
+        if (verbose) {
+            System.out.printf("MEM-RELEASE (PID %d): Liberando todos los marcos de memoria.\n", process.getPid());
+        }
+        PageTable pageTable = process.getPageTable();
+        if (!pageTable.getRegions().isEmpty()) {
+            // Las regiones mapeadas sueltan su objeto, que se destruye si era su última referencia.
+            synchronized (mappingLock) {
+                for (MappedRegion region : pageTable.getRegions()) {
+                    pageTable.removeRegion(region);
+                    dropMapping(region.getObject());
+                }
+            }
+        }
+        // Con todas las franjas tomadas ninguna otra CPU puede cargar ni desalojar páginas del proceso.
+        pageTable.lockAll();
+        try {
+            replacementLock.lock();
+            try {
+                // Sólo se recorren los marcos residentes del proceso, no toda la memoria física.
+                int frame = physicalMemory.firstResidentFrame(pageTable);
+                while (frame != FrameTable.NO_FRAME) {
+                    int next = physicalMemory.nextResidentFrame(frame);
+                    int pageNum = physicalMemory.getPageNumber(frame);
+                    // Invalida la página en la tabla del proceso para reflejar que ya no está en memoria.
+                    pageTable.invalidatePage(pageNum);
+                    if (physicalMemory.isHuge(frame)) {
+                        // Las páginas enormes no las rastrea el algoritmo de reemplazo: el tramo vuelve a la reserva.
+                        physicalMemory.releaseHugeRun(frame);
+                        frame = next;
+                        continue;
+                    }
+                    if (physicalMemory.getMapCount(frame) > 1) {
+                        // Otros procesos de su familia de fork() siguen usando el marco: pasa a uno de ellos.
+                        handOver(pageTable, frame, pageNum);
+                        frame = next;
+                        continue;
+                    }
+                    if (physicalMemory.isEvicting(frame)) {
+                        // Otra CPU ya lo eligió como víctima: verá la entrada invalidada y lo reciclará ella.
+                        frame = next;
+                        continue;
+                    }
+                    int slot = physicalMemory.getSwapSlot(frame);
+                    if (slot != PageTable.NO_SWAP_SLOT) {
+                        swapDevice.freeSlot(slot);
+                    }
+                    // Es importante que el algoritmo de reemplazo deje de rastrear el marco.
+                    replacementAlgorithm.onFrameFree(frame);
+                    physicalMemory.release(frame); // El marco vuelve a estar disponible y sale del conjunto residente.
+                    if (verbose) {
+                        System.out.printf("  -> Marco %d (contenía página %d) liberado.\n", frame, pageNum);
+                    }
+                    frame = next;
+                }
+            } finally {
+                replacementLock.unlock();
             }
+            // Las páginas que estaban en swap también dejan libres sus huecos.
+            if (pageTable.getSwappedPageCount() > 0) {
+                pageTable.releaseSwapSlots(swapDevice::freeSlot);
+            }
+            if (pageTable.isForked()) {
+                // Lo que sigue presente son marcos compartidos de otros procesos de la familia.
+                PageTable.Cursor cursor = pageTable.cursor();
+                while (cursor.next()) {
+                    pageTable.invalidatePage(cursor.page());
+                    physicalMemory.unshare(cursor.frame());
+                }
+                pageTable.getFamily().remove(pageTable);
+            }
+        } finally {
+            pageTable.unlockAll();
+        }
+        // Ninguna traducción del proceso puede sobrevivir en los TLBs.
+        for (TranslationLookasideBuffer tlb : tlbs) {
+            tlb.flushProcess(process.getPid());
         }
     }
 
     /**
      * Orquesta la carga de una página del "disco" a la memoria física.
      *
+     * @param cpu La CPU simulada en la que se produjo la falta.
      * @param process El proceso que sufrió la falta de página.
      * @param pageNumber El número de página que necesita ser cargada.
-     * @return true si la página fue cargada exitosamente, false si no.
+     * @param write Si el acceso que provocó la falta es de escritura.
+     * @param prefetch Si es una carga de lectura anticipada y no una falta real: no cuenta como falta
+     *                 y la traducción no se instala en el TLB.
+     * @return FAULT_LOADED si la página fue cargada, FAULT_FAILED si no se pudo conseguir marco,
+     *         o FAULT_RETRY si otra CPU la cargó antes y basta con volver a traducir.
      */
-    private boolean handlePageFault(Process process, int pageNumber) {
-        Integer frameToUse;
+    private int handlePageFault(int cpu, Process process, int pageNumber, boolean write, boolean prefetch) {
+        if (!prefetch) {
+            cpuStats[cpu * STAT_STRIDE + STAT_FAULTS]++;
+        }
+        PageTable pageTable = process.getPageTable();
+        boolean faultNotified = false;
 
-        if (!freeFrames.isEmpty()) {
+        // El marco se consigue antes de tomar la franja de la página: desalojar exige la franja de la víctima.
+        int frameToUse = physicalMemory.allocateFrame(cpu);
+
+        if (frameToUse != FrameTable.NO_FRAME) {
             // Caso 1: Hay marcos libres. Es el caso más simple.
-            frameToUse = freeFrames.poll();
-            System.out.printf("  -> Marco libre encontrado: %d. Cargando página %d en él.\n", frameToUse, pageNumber);
+            if (verbose) {
+                System.out.printf("  -> Marco libre encontrado: %d. Cargando página %d en él.\n", frameToUse, pageNumber);
+            }
         } else {
             // Caso 2: No hay marcos libres. Se necesita un algoritmo de reemplazo de páginas.
-            System.out.println("  -> No hay marcos libres. Se necesita reemplazo de página.");
-            frameToUse = runPageReplacementAlgorithm();
-            if (frameToUse == null) {
-                 System.out.println("  -> ¡ERROR CRÍTICO! El algoritmo de reemplazo no pudo seleccionar un marco.");
-                return false; // Situación inesperada
+            if (verbose) {
+                System.out.println("  -> No hay marcos libres. Se necesita reemplazo de página.");
+            }
+            frameToUse = runPageReplacementAlgorithm(cpu, process.getPid(), pageNumber);
+            faultNotified = true;
+            if (frameToUse == PageReplacementAlgorithm.NO_FRAME) {
+                if (verbose) {
+                    System.out.println("  -> ¡ERROR CRÍTICO! El algoritmo de reemplazo no pudo seleccionar un marco.");
+                }
+                return FAULT_FAILED; // Situación inesperada
+            }
+            if (verbose) {
+                System.out.printf("  -> Reemplazando página en el marco %d.\n", frameToUse);
+            }
+        }
+
+        ReentrantLock stripe = pageTable.lockFor(pageNumber);
+        stripe.lock();
+        try {
+            if (pageTable.translate(pageNumber) != PageTable.NOT_PRESENT) {
+                // Otra CPU resolvió la misma falta mientras se conseguía el marco: se devuelve.
+                physicalMemory.release(frameToUse, cpu);
+                if (verbose) {
+                    System.out.printf("  -> La página %d ya la ha cargado otra CPU. Marco %d devuelto.\n", pageNumber, frameToUse);
+                }
+                return FAULT_RETRY;
+            }
+
+            // Si la página se había desalojado a swap, se lee su contenido antes de mapearla;
+            // si no, nace a cero (el marco puede traer datos de otro proceso).
+            int swapSlot = pageTable.getSwapSlot(pageNumber);
+            if (swapSlot != PageTable.NO_SWAP_SLOT) {
+                ram.readFromSwap(swapDevice, swapSlot, frameToUse);
+                if (verbose) {
+                    System.out.printf("  -> Página %d leída del hueco de swap %d.\n", pageNumber, swapSlot);
+                }
+            } else if (process.getPid() >= MemoryObject.FIRST_ID) {
+                // Primera carga de una página de un objeto compartido: nace con su contenido (el del fichero).
+                MemoryObject object = memoryObjects.get(process.getPid());
+                if (object != null) {
+                    object.fill(ram, pageNumber, frameToUse);
+                } else {
+                    ram.zero(frameToUse, 1);
+                }
+            } else {
+                ram.zero(frameToUse, 1);
+            }
+
+            // Carga la página nueva en el marco seleccionado.
+            loadPageIntoFrame(cpu, process, pageNumber, frameToUse, write, swapSlot, faultNotified, prefetch);
+            return FAULT_LOADED;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Resuelve una escritura sobre un marco compartido tras un fork(): copia la página en un marco propio del
+     * proceso y deja el original a las demás tablas de la familia. Si mientras se conseguía el marco la página
+     * dejó de estar compartida (o de estar en ese marco), no se copia nada y basta con volver a traducir.
+     * @return FAULT_LOADED, FAULT_FAILED o FAULT_RETRY, como handlePageFault().
+     */
+    private int handleCopyOnWrite(int cpu, Process process, int pageNumber, int sharedFrame) {
+        long[] stats = cpuStats;
+        stats[cpu * STAT_STRIDE + STAT_FAULTS]++;
+        PageTable pageTable = process.getPageTable();
+        boolean faultNotified = false;
+
+        // Como en handlePageFault(), el marco se consigue antes de tomar la franja.
+        int frameToUse = physicalMemory.allocateFrame(cpu);
+        if (frameToUse == FrameTable.NO_FRAME) {
+            frameToUse = runPageReplacementAlgorithm(cpu, process.getPid(), pageNumber);
+            faultNotified = true;
+            if (frameToUse == PageReplacementAlgorithm.NO_FRAME) {
+                return FAULT_FAILED;
+            }
+        }
+
+        ReentrantLock stripe = pageTable.lockFor(pageNumber);
+        stripe.lock();
+        try {
+            if (pageTable.translate(pageNumber) != sharedFrame || !physicalMemory.isShared(sharedFrame)) {
+                physicalMemory.release(frameToUse, cpu);
+                return FAULT_RETRY;
+            }
+            // Nadie escribe en un marco compartido, así que su contenido es estable mientras se copia.
+            ram.copy(sharedFrame, frameToUse);
+            if (physicalMemory.getOwnerTable(sharedFrame) == pageTable) {
+                handOver(pageTable, sharedFrame, pageNumber);
+            } else {
+                physicalMemory.unshare(sharedFrame);
+            }
+            stats[cpu * STAT_STRIDE + STAT_COW_BREAKS]++;
+            if (verbose) {
+                System.out.printf("  -> Copia-en-escritura: página %d del PID %d copiada del marco compartido %d al %d.\n",
+                        pageNumber, process.getPid(), sharedFrame, frameToUse);
+            }
+            loadPageIntoFrame(cpu, process, pageNumber, frameToUse, true, PageTable.NO_SWAP_SLOT, faultNotified, false);
+            return FAULT_LOADED;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Cede un marco compartido a otra tabla de la familia que también lo mapea, cuando su propietario deja
+     * de usarlo (por terminar o por copiarlo al escribir). Se llama con la franja de la página tomada.
+     */
+    private void handOver(PageTable owner, int frameNumber, int pageNumber) {
+        ForkFamily family = owner.getFamily();
+        for (int i = 0; i < family.size(); i++) {
+            PageTable table = family.member(i);
+            if (table != owner && table.translate(pageNumber) == frameNumber) {
+                physicalMemory.changeOwner(frameNumber, family.pid(i), table);
+                break;
+            }
+        }
+        physicalMemory.unshare(frameNumber);
+    }
+
+    /**
+     * Da al hijo de un fork() el espacio de direcciones de su padre sin copiar memoria: su tabla (vacía y de
+     * la misma familia, ver PageTable(PageTable)) recibe todas las entradas del padre, los marcos residentes
+     * pasan a estar compartidos en copia-en-escritura y cada hueco de swap gana una referencia. Cuesta lo que
+     * ocupa la tabla de páginas del padre, no lo que ocupan sus páginas.
+     * @throws IllegalArgumentException Si el padre usa páginas enormes, que no se comparten, o si la tabla
+     *         del hijo no se creó a partir de la del padre.
+     */
+    public void forkAddressSpace(Process parent, Process child) {
+        if (parent.usesHugePages()) {
+            throw new IllegalArgumentException("Las páginas enormes no se comparten en copia-en-escritura (PID " + parent.getPid() + ")");
+        }
+        PageTable parentTable = parent.getPageTable();
+        PageTable childTable = child.getPageTable();
+        ForkFamily family = parentTable.getFamily();
+        if (childTable.getFamily() != family) {
+            throw new IllegalArgumentException("La tabla de páginas del PID " + child.getPid() + " no es de la familia del PID " + parent.getPid());
+        }
+        SwapDevice swap = swapDevice;
+        // Con las franjas de la familia tomadas nadie carga, desaloja, traslada ni copia páginas de ninguno.
+        parentTable.lockAll();
+        try {
+            family.add(parentTable, parent.getPid());
+            family.add(childTable, child.getPid());
+            childTable.copyFrom(parentTable, physicalMemory::share, slot -> swap.duplicateSlot(slot));
+        } finally {
+            parentTable.unlockAll();
+        }
+        // Las regiones de objetos compartidos no se copian en escritura: el hijo ve los mismos marcos.
+        synchronized (mappingLock) {
+            for (MappedRegion region : parentTable.getRegions()) {
+                childTable.addRegion(region);
+                region.getObject().mappingCount++;
+            }
+        }
+        if (verbose) {
+            System.out.printf("MEM-FORK: PID %d comparte con su padre PID %d %d páginas residentes y %d en swap.\n",
+                    child.getPid(), parent.getPid(), childTable.getPresentPageCount(), childTable.getSwappedPageCount());
+        }
+    }
+
+    /**
+     * Resuelve una falta sobre una página enorme con un tramo libre de la reserva o, si está agotada, con un
+     * bloque del buddy (compactando si hace falta). Las páginas enormes están fijas en memoria, así que no se
+     * consulta al algoritmo de reemplazo: si no hay bloque el acceso falla, como una falta de hugetlbfs sin
+     * páginas disponibles.
+     * @return FAULT_LOADED, FAULT_FAILED o FAULT_RETRY, como handlePageFault().
+     */
+    private int handleHugePageFault(int cpu, Process process, int pageNumber, boolean write) {
+        long[] stats = cpuStats;
+        stats[cpu * STAT_STRIDE + STAT_FAULTS]++;
+        PageTable pageTable = process.getPageTable();
+        int headFrame = physicalMemory.allocateHugeRun();
+        if (headFrame == FrameTable.NO_FRAME && compact(FrameTable.HUGE_PAGE_ORDER)) {
+            // Compactación directa: la memoria libre bastaba, pero estaba fragmentada.
+            headFrame = physicalMemory.allocateHugeRun();
+        }
+        if (headFrame == FrameTable.NO_FRAME) {
+            stats[cpu * STAT_STRIDE + STAT_HUGE_FAILURES]++;
+            if (verbose) {
+                System.out.printf("  -> ¡ERROR! No quedan páginas enormes libres para la página %d del PID %d.\n", pageNumber, process.getPid());
+            }
+            return FAULT_FAILED;
+        }
+
+        ReentrantLock stripe = pageTable.lockFor(pageNumber);
+        stripe.lock();
+        try {
+            if (pageTable.translate(pageNumber) != PageTable.NOT_PRESENT) {
+                physicalMemory.releaseHugeRun(headFrame);
+                return FAULT_RETRY;
+            }
+            ram.zero(headFrame, pageTable.getFramesPerPage());
+            physicalMemory.occupyHugeRun(headFrame, process.getPid(), pageNumber, pageTable, write);
+            physicalMemory.markAccessed(headFrame, write); // El acceso que provocó la falta es una referencia
+            pageTable.mapPageToFrame(pageNumber, headFrame);
+        } finally {
+            stripe.unlock();
+        }
+        shootdown(process.getPid(), pageNumber);
+        tlbs[cpu].insert(process.getPid(), pageNumber, headFrame);
+        if (verbose) {
+            System.out.printf("  -> ¡CARGA COMPLETA! Página enorme %d del PID %d en los marcos %d a %d.\n",
+                    pageNumber, process.getPid(), headFrame, headFrame + pageTable.getFramesPerPage() - 1);
+        }
+        return FAULT_LOADED;
+    }
+
+    /**
+     * Intenta dejar libre un bloque contiguo de 2^order marcos trasladando las páginas que lo ocupan a
+     * marcos libres de otras zonas, como la compactación de memoria de Linux. Elige la zona alineada que
+     * menos traslados necesita, retira del buddy sus marcos libres para que nadie los tome y mueve una a una
+     * sus páginas, actualizando su PageTable, su posición en el algoritmo de reemplazo y los TLBs.
+     * Es seguro llamarlo con otras CPUs accediendo a memoria.
+     * @param order Orden del bloque que se quiere conseguir (FrameTable.HUGE_PAGE_ORDER para páginas enormes).
+     * @return true si al terminar hay un bloque libre de ese orden.
+     */
+    public boolean compact(int order) {
+        synchronized (compactionLock) {
+            int blockSize = 1 << order;
+            if (physicalMemory.getLargestFreeOrder() >= order) {
+                return true;
+            }
+            // Los marcos retenidos en las cachés por CPU pueden completar un bloque al volver al buddy.
+            physicalMemory.drainCpuCaches();
+            if (physicalMemory.getLargestFreeOrder() >= order) {
+                return true;
+            }
+            compactionRuns++;
+            // Cada traslado consume un marco libre de fuera de la zona.
+            int maxMoves = physicalMemory.getFreeFrameCount() - physicalMemory.getFreeHugePageCount() * FrameTable.HUGE_PAGE_FRAMES - blockSize;
+            int start = maxMoves > 0 ? physicalMemory.findCompactionCandidate(order, maxMoves) : FrameTable.NO_FRAME;
+            if (start == FrameTable.NO_FRAME) {
+                if (verbose) {
+                    System.out.printf("MEM-COMPACT: Ninguna zona de %d marcos se puede vaciar.\n", blockSize);
+                }
+                return false;
+            }
+
+            boolean[] isolated = new boolean[blockSize];
+            long movedBefore = migratedPages;
+            physicalMemory.isolateFreeBlocks(start, order, isolated);
+            for (int pass = 0; pass < COMPACTION_PASSES; pass++) {
+                for (int i = 0; i < blockSize; i++) {
+                    if (!isolated[i] && migrateFrame(start + i, start, isolated)) {
+                        isolated[i] = true;
+                        migratedPages++;
+                    }
+                }
+                // Las páginas que otros liberaron mientras tanto han vuelto al buddy: también se retiran.
+                physicalMemory.isolateFreeBlocks(start, order, isolated);
+                if (allSet(isolated)) {
+                    physicalMemory.freeBlock(start, order);
+                    compactionSuccesses++;
+                    if (verbose) {
+                        System.out.printf("MEM-COMPACT: Marcos %d a %d libres tras trasladar %d páginas.\n", start, start + blockSize - 1, migratedPages - movedBefore);
+                    }
+                    return true;
+                }
+            }
+            // Alguna página no se pudo mover: se devuelve lo retirado, marco a marco, y el buddy lo fusiona.
+            for (int i = 0; i < blockSize; i++) {
+                if (isolated[i]) {
+                    physicalMemory.freeBlock(start + i, 0);
+                }
+            }
+            if (verbose) {
+                System.out.printf("MEM-COMPACT: La zona %d-%d tiene páginas que no se pueden trasladar; compactación abandonada.\n", start, start + blockSize - 1);
             }
-            System.out.printf("  -> Reemplazando página en el marco %d.\n", frameToUse);
+            return false;
+        }
+    }
+
+    /**
+     * Traslada la página de un marco de la zona que se compacta a un marco libre de fuera de ella.
+     * @return true si el marco ha quedado vacío y en manos de la compactación.
+     */
+    private boolean migrateFrame(int frame, int zoneStart, boolean[] isolated) {
+        PageTable table = physicalMemory.getOwnerTable(frame);
+        if (table == null || !physicalMemory.isMovable(frame)) {
+            return false;
         }
+        int pageNum = physicalMemory.getPageNumber(frame);
+        ReentrantLock stripe = table.lockFor(pageNum);
+        stripe.lock();
+        try {
+            // Con la franja tomada nadie carga, desaloja ni libera esta página: se revalida lo leído sin cerrojo.
+            if (!physicalMemory.isOwnedBy(frame, table, pageNum) || table.translate(pageNum) != frame) {
+                return false;
+            }
+            int pid = physicalMemory.getOwnerPid(frame);
+            int target = physicalMemory.allocateFrame();
+            while (target >= zoneStart && target < zoneStart + isolated.length) {
+                // Un marco de la propia zona que alguien liberó: se queda retirado y se pide otro.
+                isolated[target - zoneStart] = true;
+                target = physicalMemory.allocateFrame();
+            }
+            if (target == FrameTable.NO_FRAME) {
+                return false;
+            }
+            replacementLock.lock();
+            try {
+                if (!physicalMemory.isMovable(frame)) {
+                    // La estrategia lo acaba de elegir como víctima: que lo desaloje quien lo eligió.
+                    physicalMemory.freeBlock(target, 0);
+                    return false;
+                }
+                // Los aciertos que lleguen a partir de aquí sobre el marco antiguo fallan y vuelven a traducir.
+                physicalMemory.beginEviction(frame);
+                physicalMemory.migrate(frame, target);
+                replacementAlgorithm.onFrameMigrated(frame, target);
+            } finally {
+                replacementLock.unlock();
+            }
+            ram.copy(frame, target);
+            table.mapPageToFrame(pageNum, target);
+            shootdown(pid, pageNum);
+            return true;
+        } finally {
+            stripe.unlock();
+        }
+    }
 
-        // Carga la página nueva en el marco seleccionado.
-        loadPageIntoFrame(process, pageNumber, frameToUse);
+    private static boolean allSet(boolean[] bits) {
+        for (boolean bit : bits) {
+            if (!bit) {
+                return false;
+            }
+        }
         return true;
     }
 
     /**
-     * Implementa el algoritmo de reemplazo de páginas FIFO (First-In, First-Out).
-     * @return El número del marco que ha sido liberado para ser reutilizado.
+     * Arranca un hilo de fondo que, cada periodMs, compacta una zona si no queda ningún bloque libre del
+     * tamaño de una página enorme pero sí memoria libre suficiente para formarlo.
      */
-    private Integer runPageReplacementAlgorithm() {
-        // FIFO: La primera página que entró, es la primera que sale.
-        Integer frameToReplace = pageReplacementQueue.poll();
+    public void startCompactionDaemon(long periodMs) {
+        synchronized (compactionLock) {
+            if (compactionDaemon != null) {
+                return;
+            }
+            compactionDaemon = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "memory-compaction");
+                t.setDaemon(true);
+                return t;
+            });
+            compactionDaemon.scheduleWithFixedDelay(this::backgroundCompaction, periodMs, periodMs, TimeUnit.MILLISECONDS);
+        }
+    }
 
-        if (frameToReplace == null) {
-            return null; // La cola estaba vacía, no debería pasar si no hay marcos libres.
+    public void stopCompactionDaemon() {
+        ScheduledExecutorService daemon;
+        synchronized (compactionLock) {
+            daemon = compactionDaemon;
+            compactionDaemon = null;
+        }
+        if (daemon != null) {
+            daemon.shutdown();
         }
+    }
 
-        Frame victimFrame = physicalMemory[frameToReplace];
-        int oldProcessId = victimFrame.getProcessId();
-        int oldPageNumber = victimFrame.getPageNumber();
+    private void backgroundCompaction() {
+        try {
+            int order = FrameTable.HUGE_PAGE_ORDER;
+            if (physicalMemory.getLargestFreeOrder() < order
+                    && physicalMemory.getFreeFrameCount() >= 2 * (1 << order) + physicalMemory.getFreeHugePageCount() * FrameTable.HUGE_PAGE_FRAMES) {
+                compact(order);
+            }
+        } catch (RuntimeException e) {
+            // Una excepción cancelaría la tarea periódica: se informa y se sigue.
+            System.err.println("MemoryManager: Error en la compactación de fondo: " + e);
+        }
+    }
+
+    /**
+     * Delega en la estrategia de reemplazo instalada la elección del marco víctima y lo desaloja.
+     * Se llama sin ninguna franja tomada; toma la de la página víctima sólo para actualizar su entrada.
+     * @param cpu La CPU simulada en la que se produjo la falta.
+     * @param processId El proceso que provocó la falta.
+     * @param pageNumber La página que provocó la falta.
+     * @return El número del marco que ha sido liberado para ser reutilizado, o NO_FRAME.
+     */
+    private int runPageReplacementAlgorithm(int cpu, int processId, int pageNumber) {
+        int frameToReplace;
+        String algorithmName;
+        replacementLock.lock();
+        try {
+            drainAccessBuffers();
+            replacementAlgorithm.onPageFault(processId, pageNumber);
+            frameToReplace = replacementAlgorithm.findVictimFrame();
+            if (frameToReplace == PageReplacementAlgorithm.NO_FRAME) {
+                return PageReplacementAlgorithm.NO_FRAME; // No debería pasar si no hay marcos libres.
+            }
+            // Desde aquí ningún acierto sobre el marco se da por bueno y releaseProcessMemory lo deja en paz.
+            physicalMemory.beginEviction(frameToReplace);
+            algorithmName = replacementAlgorithm.getName();
+        } finally {
+            replacementLock.unlock();
+        }
 
-        System.out.printf("  -> Algoritmo FIFO elige el marco %d para reemplazo (contenía página %d del PID %d).\n", frameToReplace, oldPageNumber, oldProcessId);
+        // El mapa inverso nos da la tabla de páginas del proceso antiguo.
+        PageTable victimTable = physicalMemory.getOwnerTable(frameToReplace);
+        int oldProcessId = physicalMemory.getOwnerPid(frameToReplace);
+        int oldPageNumber = physicalMemory.getPageNumber(frameToReplace);
 
-        // NOTA: En un SO real, aquí se guardaría la página víctima en disco si ha sido modificada (dirty bit).
-        // Aquí simplemente la invalidamos en la tabla de páginas del proceso antiguo.
-        // Necesitaríamos una forma de obtener el Proceso a partir de su ID, lo cual requiere una refactorización mayor.
-        // Por ahora, asumimos que no podemos notificar al proceso antiguo, lo cual es una simplificación.
+        if (verbose) {
+            System.out.printf("  -> Algoritmo %s elige el marco %d para reemplazo (contenía página %d del PID %d).\n", algorithmName, frameToReplace, oldPageNumber, oldProcessId);
+        }
 
-        victimFrame.free(); // Se libera el marco, pero no se añade a freeFrames porque se va a usar ya.
+        long[] stats = cpuStats;
+        stats[cpu * STAT_STRIDE + STAT_EVICTIONS]++;
+        ReentrantLock stripe = victimTable.lockFor(oldPageNumber);
+        stripe.lock();
+        try {
+            // Un marco compartido pudo pasar a otra tabla de la familia antes de tomar la franja (que es
+            // la misma para toda la familia); con ella tomada el propietario ya no cambia.
+            victimTable = physicalMemory.getOwnerTable(frameToReplace);
+            oldProcessId = physicalMemory.getOwnerPid(frameToReplace);
+            if (victimTable.translate(oldPageNumber) != frameToReplace) {
+                // El proceso antiguo liberó su memoria mientras tanto: no hay nada que conservar.
+                int swapSlot = physicalMemory.getSwapSlot(frameToReplace);
+                if (swapSlot != PageTable.NO_SWAP_SLOT) {
+                    swapDevice.freeSlot(swapSlot);
+                }
+            } else if (physicalMemory.getMapCount(frameToReplace) > 1) {
+                unmapSharedPage(stats, cpu, victimTable, oldPageNumber, frameToReplace);
+            } else {
+                unmapPage(stats, cpu, victimTable, oldProcessId, oldPageNumber, frameToReplace);
+            }
 
+            physicalMemory.vacate(frameToReplace); // Se vacía el marco, pero no vuelve a la lista de libres porque se va a usar ya.
+        } finally {
+            stripe.unlock();
+        }
         return frameToReplace;
     }
 
+    /**
+     * Saca una página de su marco: invalida su entrada y su traducción en todos los TLBs y, si está
+     * modificada, la escribe en swap. Se llama con la franja de la página tomada y el marco ya marcado
+     * como en desalojo; el marco en sí lo vacía o libera quien llama.
+     */
+    private void unmapPage(long[] stats, int cpu, PageTable table, int pid, int pageNumber, int frameNumber) {
+        int swapSlot = physicalMemory.getSwapSlot(frameNumber);
+        // La traducción antigua no puede seguir en ningún TLB (shootdown en todas las CPUs).
+        table.invalidatePage(pageNumber);
+        shootdown(pid, pageNumber);
+
+        if (physicalMemory.isDirty(frameNumber)) {
+            // Sólo las páginas modificadas se escriben en swap; si ya tenían hueco, se reutiliza.
+            stats[cpu * STAT_STRIDE + STAT_DIRTY_EVICTIONS]++;
+            swapSlot = writeBack(stats, cpu, swapSlot, frameNumber);
+        } else if (verbose && swapSlot != PageTable.NO_SWAP_SLOT) {
+            System.out.printf("  -> La página víctima no está modificada: su copia en el hueco %d sigue siendo válida.\n", swapSlot);
+        }
+        // La entrada apunta al hueco de swap si la página tiene copia, o queda vacía (se recargará a cero).
+        if (swapSlot != PageTable.NO_SWAP_SLOT) {
+            table.mapPageToSwap(pageNumber, swapSlot);
+        }
+    }
+
+    /**
+     * Igual que unmapPage() para un marco compartido tras un fork(): escribe la página en swap una sola vez
+     * y hace que todas las tablas de la familia que la mapean apunten al mismo hueco, con una referencia
+     * cada una. Se llama con la franja de la página tomada, que es la misma para toda la familia.
+     */
+    private void unmapSharedPage(long[] stats, int cpu, PageTable owner, int pageNumber, int frameNumber) {
+        int swapSlot = physicalMemory.getSwapSlot(frameNumber);
+        if (physicalMemory.isDirty(frameNumber)) {
+            stats[cpu * STAT_STRIDE + STAT_DIRTY_EVICTIONS]++;
+            swapSlot = writeBack(stats, cpu, swapSlot, frameNumber);
+        }
+        ForkFamily family = owner.getFamily();
+        boolean slotTaken = false; // La primera entrada hereda la referencia del marco
+        for (int i = 0; i < family.size(); i++) {
+            PageTable table = family.member(i);
+            if (table.translate(pageNumber) != frameNumber) {
+                continue;
+            }
+            table.invalidatePage(pageNumber);
+            shootdown(family.pid(i), pageNumber);
+            if (swapSlot != PageTable.NO_SWAP_SLOT) {
+                if (slotTaken) {
+                    swapDevice.duplicateSlot(swapSlot);
+                }
+                table.mapPageToSwap(pageNumber, swapSlot);
+                slotTaken = true;
+            }
+        }
+    }
+
+    /**
+     * Escribe en swap la página modificada de un marco que se va a desalojar.
+     * @param stats Los contadores por CPU vigentes.
+     * @param cpu La CPU simulada que desaloja.
+     * @param swapSlot El hueco que ya tenía la página, o NO_SWAP_SLOT.
+     * @param frameNumber El marco cuyo contenido se guarda.
+     * @return El hueco donde ha quedado la página, o NO_SWAP_SLOT si no hay swap o está lleno
+     *         (en ese caso el contenido se pierde y la página se recargará a cero).
+     */
+    private int writeBack(long[] stats, int cpu, int swapSlot, int frameNumber) {
+        SwapDevice swap = swapDevice;
+        if (swap == null) {
+            stats[cpu * STAT_STRIDE + STAT_LOST_PAGES]++;
+            if (verbose) {
+                System.out.printf("  -> La página víctima está modificada, pero no hay swap: su contenido se descarta.\n");
+            }
+            return PageTable.NO_SWAP_SLOT;
+        }
+        if (swapSlot != PageTable.NO_SWAP_SLOT && swap.isSlotShared(swapSlot)) {
+            // Otras tablas de la familia siguen apuntando a la copia antigua: no se puede sobrescribir.
+            swap.freeSlot(swapSlot);
+            swapSlot = PageTable.NO_SWAP_SLOT;
+        }
+        if (swapSlot == PageTable.NO_SWAP_SLOT) {
+            swapSlot = swap.allocateSlot();
+            if (swapSlot == SwapDevice.NO_SLOT) {
+                stats[cpu * STAT_STRIDE + STAT_LOST_PAGES]++;
+                if (verbose) {
+                    System.out.printf("  -> ¡Swap lleno! El contenido de la página víctima se descarta.\n");
+                }
+                return PageTable.NO_SWAP_SLOT;
+            }
+        }
+        ram.writeToSwap(swap, swapSlot, frameNumber);
+        if (verbose) {
+            System.out.printf("  -> La página víctima está modificada: escrita en el hueco de swap %d.\n", swapSlot);
+        }
+        return swapSlot;
+    }
+
     /**
      * Realiza la acción final de colocar una página en un marco físico.
+     * Se llama con la franja de la página tomada.
+     * @param cpu La CPU simulada que provocó la carga; su TLB recibe la nueva traducción.
      * @param process El proceso al que pertenece la página.
      * @param pageNumber El número de página a cargar.
      * @param frameNumber El marco físico donde se cargará la página.
+     * @param write Si la página se carga por una escritura (nace modificada).
+     * @param swapSlot El hueco de swap del que se leyó la página, o NO_SWAP_SLOT.
+     * @param faultNotified Si la estrategia ya recibió onPageFault() al buscar víctima.
+     * @param prefetch Si es una carga de lectura anticipada (la traducción no entra en el TLB).
      */
-    private void loadPageIntoFrame(Process process, int pageNumber, int frameNumber) {
-        // 1. Ocupar el marco físico.
-        physicalMemory[frameNumber].allocate(process.getPid(), pageNumber);
+    private void loadPageIntoFrame(int cpu, Process process, int pageNumber, int frameNumber, boolean write,
+                                   int swapSlot, boolean faultNotified, boolean prefetch) {
+        // 1. Ocupar el marco físico. Si se carga por una escritura, nace ya modificada.
+        physicalMemory.occupy(frameNumber, process.getPid(), pageNumber, process.getPageTable(), write);
+        // El acceso que provocó la falta cuenta como referencia, igual que un acierto de TLB: si no, el
+        // primer recorte del conjunto residente podría quitar la página recién cargada y usada. Las páginas
+        // de la lectura anticipada nacen sin referenciar.
+        if (!prefetch) {
+            physicalMemory.markAccessed(frameNumber, write);
+        }
+        // El hueco se conserva asociado al marco: mientras la página no se modifique, esa copia
+        // sigue valiendo y el próximo desalojo no tiene que escribir nada.
+        physicalMemory.setSwapSlot(frameNumber, swapSlot);
 
         // 2. Actualizar la tabla de páginas del proceso para que apunte al nuevo marco.
         process.getPageTable().mapPageToFrame(pageNumber, frameNumber);
 
-        // 3. Añadir el marco a la cola de reemplazo (para FIFO).
-        pageReplacementQueue.add(frameNumber);
+        // 3. Notificar al algoritmo de reemplazo que empiece a rastrear el marco.
+        replacementLock.lock();
+        try {
+            if (!faultNotified) {
+                replacementAlgorithm.onPageFault(process.getPid(), pageNumber);
+            }
+            replacementAlgorithm.onPageLoad(frameNumber);
+        } finally {
+            replacementLock.unlock();
+        }
+
+        // 4. El mapeo ha cambiado: se invalida en todos los TLBs y se recarga en el de la CPU que falló.
+        shootdown(process.getPid(), pageNumber);
+        if (!prefetch) {
+            tlbs[cpu].insert(process.getPid(), pageNumber, frameNumber);
+        }
+
+        if (verbose) {
+            System.out.printf("  -> ¡CARGA COMPLETA! Página %d del PID %d cargada en el marco %d. Tabla de páginas actualizada.\n", pageNumber, process.getPid(), frameNumber);
+        }
+    }
+
+    /**
+     * Tras resolver una falta, ajusta el conjunto residente del proceso: lo recorta si su frecuencia de
+     * faltas es baja y, si el acceso es secuencial, carga por adelantado las páginas siguientes.
+     * Se llama sin cerrojos tomados.
+     */
+    private void adjustResidency(int cpu, Process process, int pageNumber) {
+        PageTable pageTable = process.getPageTable();
+        WorkingSetTracker workingSet = pageTable.getWorkingSet();
+        if (workingSet.endFaultInterval(pageTable.getPresentPageCount()) && workingSetTrimming) {
+            trimWorkingSet(cpu, process, pageNumber);
+        }
+        int window = workingSet.onFault(pageNumber);
+        if (window > 0 && readahead) {
+            readahead(cpu, process, pageNumber, window);
+        }
+    }
+
+    /**
+     * Carga las páginas que siguen a la de la falta, hasta el tamaño de la ventana o el final del espacio
+     * de direcciones. Las páginas entran sin referenciar, así que si no se llegan a usar son las primeras
+     * candidatas a desalojo y a recorte.
+     */
+    private void readahead(int cpu, Process process, int pageNumber, int window) {
+        PageTable pageTable = process.getPageTable();
+        int lastPage = Math.min(pageNumber + window, process.getVirtualSizeInPages() - 1);
+        if (verbose) {
+            System.out.printf("  -> Acceso secuencial: lectura anticipada de las páginas %d a %d.\n", pageNumber + 1, lastPage);
+        }
+        int loaded = 0;
+        for (int page = pageNumber + 1; page <= lastPage; page++) {
+            if (pageTable.translate(page) != PageTable.NOT_PRESENT) {
+                continue;
+            }
+            int result = handlePageFault(cpu, process, page, false, true);
+            if (result == FAULT_FAILED) {
+                break;
+            }
+            if (result == FAULT_LOADED) {
+                loaded++;
+            }
+        }
+        cpuStats[cpu * STAT_STRIDE + STAT_PREFETCHED] += loaded;
+        pageTable.getWorkingSet().recordPrefetch(loaded);
+    }
+
+    /**
+     * Recorte por frecuencia de faltas: quita al proceso las páginas que no ha referenciado desde su falta
+     * anterior y limpia el bit de referencia de las demás para el siguiente intervalo. Los marcos vuelven
+     * a la lista de libres, de donde los tomarán los procesos que sí están fallando.
+     * @param keepPage La página que acaba de cargarse, que nunca se recorta.
+     */
+    private void trimWorkingSet(int cpu, Process process, int keepPage) {
+        PageTable pageTable = process.getPageTable();
+        int pid = process.getPid();
+        long[] stats = cpuStats;
+        int trimmed = 0;
+        int kept = 0;
+        // Con todas las franjas tomadas nadie carga ni desaloja páginas del proceso mientras se recorre.
+        pageTable.lockAll();
+        try {
+            int frame = physicalMemory.firstResidentFrame(pageTable);
+            while (frame != FrameTable.NO_FRAME) {
+                int next = physicalMemory.nextResidentFrame(frame);
+                int pageNum = physicalMemory.getPageNumber(frame);
+                // Las páginas compartidas tras un fork() se quedan: quitarlas afectaría a toda la familia.
+                if (pageNum == keepPage || physicalMemory.isShared(frame) || physicalMemory.testAndClearReferenced(frame)) {
+                    kept++;
+                    frame = next;
+                    continue;
+                }
+                replacementLock.lock();
+                try {
+                    if (physicalMemory.isEvicting(frame)) {
+                        // Ya es la víctima de otra CPU, que lo desalojará en cuanto suelte su franja.
+                        frame = next;
+                        continue;
+                    }
+                    physicalMemory.beginEviction(frame);
+                    replacementAlgorithm.onFrameFree(frame);
+                } finally {
+                    replacementLock.unlock();
+                }
+                unmapPage(stats, cpu, pageTable, pid, pageNum, frame);
+                physicalMemory.release(frame, cpu);
+                trimmed++;
+                frame = next;
+            }
+        } finally {
+            pageTable.unlockAll();
+        }
+        stats[cpu * STAT_STRIDE + STAT_TRIMMED] += trimmed;
+        pageTable.getWorkingSet().recordTrim(trimmed, kept);
+        if (verbose) {
+            System.out.printf("  -> Frecuencia de faltas baja (PID %d): conjunto residente recortado en %d páginas, quedan %d.\n", pid, trimmed, kept);
+        }
+    }
+
+    public long getAccessCount() {
+        return sumStat(STAT_ACCESSES);
+    }
+
+    public long getPageFaultCount() {
+        return sumStat(STAT_FAULTS);
+    }
 
-        System.out.printf("  -> ¡CARGA COMPLETA! Página %d del PID %d cargada en el marco %d. Tabla de páginas actualizada.\n", pageNumber, process.getPid(), frameNumber);
+    public long getEvictionCount() {
+        return sumStat(STAT_EVICTIONS);
+    }
+
+    public long getDirtyEvictionCount() {
+        return sumStat(STAT_DIRTY_EVICTIONS);
+    }
+
+    /**
+     * @return Páginas modificadas cuyo contenido se descartó al desalojarlas (sin swap o con el swap lleno).
+     */
+    public long getLostPageCount() {
+        return sumStat(STAT_LOST_PAGES);
+    }
+
+    /**
+     * @return Páginas cargadas por lectura anticipada (no cuentan como faltas).
+     */
+    public long getPrefetchedPageCount() {
+        return sumStat(STAT_PREFETCHED);
+    }
+
+    /**
+     * @return Páginas quitadas a procesos con frecuencia de faltas baja.
+     */
+    public long getTrimmedPageCount() {
+        return sumStat(STAT_TRIMMED);
+    }
+
+    /**
+     * @return Faltas de páginas enormes que fallaron por tener la reserva agotada.
+     */
+    public long getHugePageFailureCount() {
+        return sumStat(STAT_HUGE_FAILURES);
+    }
+
+    public int getFreeHugePageCount() {
+        return physicalMemory.getFreeHugePageCount();
+    }
+
+    /**
+     * @return Escrituras que rompieron una página compartida tras un fork() y tuvieron que copiarla.
+     */
+    public long getCopyOnWriteBreakCount() {
+        return sumStat(STAT_COW_BREAKS);
+    }
+
+    /**
+     * @return Objetos de memoria compartidos vivos (segmentos y ficheros mapeados).
+     */
+    public int getMemoryObjectCount() {
+        return memoryObjects.size();
+    }
+
+    /**
+     * @return Marcos mapeados ahora mismo por más de un proceso (copia-en-escritura).
+     */
+    public int getSharedFrameCount() {
+        return physicalMemory.getSharedFrameCount();
+    }
+
+    /**
+     * @return Índice de fragmentación de la memoria libre para páginas enormes (ver FrameTable.getFragmentationIndex).
+     */
+    public double getHugePageFragmentationIndex() {
+        return physicalMemory.getFragmentationIndex(FrameTable.HUGE_PAGE_ORDER);
+    }
+
+    public long getCompactionRunCount() {
+        return compactionRuns;
+    }
+
+    public long getCompactionSuccessCount() {
+        return compactionSuccesses;
+    }
+
+    public long getMigratedPageCount() {
+        return migratedPages;
+    }
+
+    public long getSwapInBytes() {
+        return swapDevice == null ? 0 : swapDevice.getSwapInBytes();
+    }
+
+    public long getSwapOutBytes() {
+        return swapDevice == null ? 0 : swapDevice.getSwapOutBytes();
+    }
+
+    /**
+     * @return La fracción de accesos que provocaron una falta de página.
+     */
+    public double getFaultRate() {
+        long accesses = getAccessCount();
+        return accesses == 0 ? 0.0 : (double) getPageFaultCount() / accesses;
+    }
+
+    private long sumStat(int stat) {
+        long[] stats = cpuStats;
+        long total = 0;
+        for (int i = stat; i < stats.length; i += STAT_STRIDE) {
+            total += stats[i];
+        }
+        return total;
+    }
+
+    /**
+     * Pone a cero los contadores de accesos, faltas, desalojos y swap (p. ej. entre dos comparativas).
+     */
+    public void resetStatistics() {
+        Arrays.fill(cpuStats, 0);
+        if (swapDevice != null) {
+            swapDevice.resetStatistics();
+        }
+    }
+
+    /**
+     * Invalida la traducción de una página en los TLBs de todas las CPUs simuladas.
+     */
+    private void shootdown(int pid, int pageNumber) {
+        for (TranslationLookasideBuffer tlb : tlbs) {
+            tlb.invalidate(pid, pageNumber);
+        }
     }
 
     /**
@@ -165,20 +1609,56 @@ public class MemoryManager {
      */
     public void showMemoryStatus() {
         System.out.println("--- Estado de la Memoria Física ---");
-        System.out.println("Total de Marcos: " + physicalMemory.length + ". Marcos Libres: " + freeFrames.size() + ".");
+        System.out.println("Total de Marcos: " + physicalMemory.size() + ". Marcos Libres: " + physicalMemory.getFreeFrameCount() + ".");
         System.out.println("Contenido de los marcos (PID:NumPágina):");
         StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < physicalMemory.length; i++) {
-            Frame frame = physicalMemory[i];
-            if (frame.isFree()) {
+        for (int i = 0; i < physicalMemory.size(); i++) {
+            if (physicalMemory.isFree(i)) {
                 sb.append(" Vacío ");
             } else {
-                sb.append(String.format(" %d:%d ", frame.getProcessId(), frame.getPageNumber()));
+                sb.append(String.format(" %d:%d ", physicalMemory.getOwnerPid(i), physicalMemory.getPageNumber(i)));
             }
-            sb.append(i == physicalMemory.length - 1 ? "]" : "|");
+            sb.append(i == physicalMemory.size() - 1 ? "]" : "|");
         }
         System.out.println(sb.toString());
-        System.out.println("Cola de Reemplazo FIFO (orden de salida): " + pageReplacementQueue);
+        replacementLock.lock();
+        try {
+            System.out.println("Algoritmo de Reemplazo: " + replacementAlgorithm.getName());
+            System.out.println(replacementAlgorithm.getStatus());
+        } finally {
+            replacementLock.unlock();
+        }
+        System.out.printf("Accesos: %d. Faltas de página: %d (%.2f%%). Desalojos: %d (modificados: %d).\n",
+                getAccessCount(), getPageFaultCount(), getFaultRate() * 100, getEvictionCount(), getDirtyEvictionCount());
+        System.out.printf("Lectura anticipada: %d páginas. Recorte por frecuencia de faltas: %d páginas.\n",
+                getPrefetchedPageCount(), getTrimmedPageCount());
+        System.out.println(ram);
+        System.out.println(physicalMemory.getAllocatorStatus());
+        System.out.printf("Cachés de marcos por CPU: %d marcos retenidos, aciertos: %.2f%%, rellenados: %d, vaciados: %d.\n",
+                physicalMemory.getCpuCachedFrameCount(), physicalMemory.getCpuCacheHitRatio() * 100,
+                physicalMemory.getCpuCacheRefillCount(), physicalMemory.getCpuCacheDrainCount());
+        System.out.printf("Copia-en-escritura: %d marcos compartidos, %d copias por escritura.\n",
+                getSharedFrameCount(), getCopyOnWriteBreakCount());
+        synchronized (mappingLock) {
+            if (!memoryObjects.isEmpty()) {
+                System.out.printf("Objetos compartidos: %d (segmentos con nombre: %s).\n", memoryObjects.size(), sharedSegments.values());
+            }
+        }
+        System.out.printf("Fragmentación para páginas enormes: %.2f. Compactaciones: %d (con éxito: %d), páginas trasladadas: %d.\n",
+                getHugePageFragmentationIndex(), compactionRuns, compactionSuccesses, migratedPages);
+        if (physicalMemory.getHugePageCount() > 0 || physicalMemory.getSurplusHugePageCount() > 0) {
+            System.out.printf("Páginas enormes: %d/%d libres en la reserva, %d sobrantes en uso (faltas sin bloque: %d).\n",
+                    physicalMemory.getFreeHugePageCount(), physicalMemory.getHugePageCount(),
+                    physicalMemory.getSurplusHugePageCount(), getHugePageFailureCount());
+        }
+        if (swapDevice != null) {
+            System.out.println(swapDevice);
+        } else if (getLostPageCount() > 0) {
+            System.out.println("Sin swap: " + getLostPageCount() + " páginas modificadas descartadas.");
+        }
+        for (int cpu = 0; cpu < tlbs.length; cpu++) {
+            System.out.println("CPU " + cpu + ": " + tlbs[cpu]);
+        }
         System.out.println("-----------------------------------");
     }
 }
@@ -0,0 +1,96 @@
+package com.ia_assistant.os_core.memory;
+
+import com.ia_assistant.os_core.Process;
+
+/**
+ * Objeto de memoria que varios procesos pueden mapear a la vez: un segmento compartido con nombre o el
+ * contenido de un fichero del FileSystemManager (que vive en RAM, como un fichero de tmpfs en Linux).
+ *
+ * Sus páginas están en un espacio de direcciones propio, el de un proceso interno cuyo PID es mayor o
+ * igual que FIRST_ID. Las regiones mapeadas (MappedRegion) no tienen entradas en la tabla de páginas de
+ * cada proceso: el MemoryManager traduce un acceso dentro de una región a una dirección del objeto y lo
+ * resuelve en la tabla del objeto. Así todos los procesos usan los mismos marcos sin copiar nada, y las
+ * páginas del objeto se desalojan a swap, se cachean en el TLB y se recortan como las de cualquier otro
+ * espacio de direcciones.
+ *
+ * Una página que nunca se ha tocado nace con el contenido inicial del objeto (los bytes del fichero), o
+ * a cero si no lo tiene.
+ */
+public final class MemoryObject {
+
+    /**
+     * Primer PID de los espacios de direcciones internos de los objetos; los procesos nunca llegan a él.
+     */
+    public static final int FIRST_ID = 1 << 30;
+
+    private final String name;
+    private final Process pages;
+    private final int sizeBytes;
+    private final byte[] initialContents; // null si las páginas nacen a cero
+
+    // Protegidos por el cerrojo de mapeos del MemoryManager; getMappingCount() lee el contador sin él.
+    volatile int mappingCount;
+    boolean unlinked;   // Ya no lo referencia nadie más que sus regiones: se destruye con la última
+    boolean destroyed;
+
+    MemoryObject(int id, String name, int sizeBytes, byte[] initialContents) {
+        this.name = name;
+        this.sizeBytes = sizeBytes;
+        this.initialContents = initialContents;
+        this.pages = new Process(id, "mem:" + name, 0, sizeBytes / 1024);
+    }
+
+    /**
+     * Prepara un marco para la primera carga de una página del objeto: la copia de su contenido inicial
+     * y ceros a partir de donde éste acaba.
+     */
+    void fill(PhysicalMemory ram, int pageNumber, int frameNumber) {
+        ram.zero(frameNumber, 1);
+        if (initialContents == null) {
+            return;
+        }
+        long start = (long) pageNumber * PhysicalMemory.FRAME_BYTES;
+        if (start < initialContents.length) {
+            int length = (int) Math.min(PhysicalMemory.FRAME_BYTES, initialContents.length - start);
+            ram.write(frameNumber, 0, initialContents, (int) start, length);
+        }
+    }
+
+    /**
+     * @return El espacio de direcciones interno donde viven las páginas del objeto.
+     */
+    Process getPages() {
+        return pages;
+    }
+
+    public int getId() {
+        return pages.getPid();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Tamaño en bytes, múltiplo del tamaño de página.
+     */
+    public int getSize() {
+        return sizeBytes;
+    }
+
+    public boolean isFileBacked() {
+        return initialContents != null;
+    }
+
+    /**
+     * @return Número de regiones, de cualquier proceso, que mapean el objeto ahora mismo.
+     */
+    public int getMappingCount() {
+        return mappingCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%d KB, %d regiones)", name, sizeBytes / 1024, mappingCount);
+    }
+}
@@ -1,22 +1,217 @@
 package com.ia_assistant.os_core.memory;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
 
 /**
  * Representa la tabla de páginas de un proceso.
  * Mapea las páginas virtuales a los marcos (frames) de la memoria física.
+ *
+ * Es una tabla de dos niveles (radix): un directorio de referencias a hojas de LEAF_SIZE
+ * entradas int. Las hojas se crean sólo cuando se mapea alguna página de su rango, así que
+ * un espacio de direcciones grande y poco usado apenas ocupa memoria. Una traducción son
+ * dos lecturas de array, sin boxing ni Optionals.
+ *
+ * Concurrencia: translate() no toma cerrojos; las entradas se escriben con semántica release y se leen
+ * con acquire, de modo que quien ve un marco ve también el estado que FrameTable publicó para él.
+ * Cualquier cambio de una entrada se hace con el cerrojo de su franja (lockFor) tomado: las páginas se
+ * reparten entre STRIPES cerrojos, así que las faltas de un mismo proceso sobre páginas distintas avanzan
+ * en paralelo. Liberar toda la tabla exige todas las franjas (lockAll).
+ *
+ * Las tablas creadas con fork() forman una ForkFamily con la de su padre y comparten con ella los
+ * cerrojos de franja, porque pueden apuntar a los mismos marcos (copia-en-escritura).
+ *
+ * Por encima del espacio propio del proceso, la tabla guarda también las regiones que mapean objetos de
+ * memoria compartidos (MappedRegion). Sus páginas no tienen entradas aquí, sino en la tabla del objeto.
  */
 public class PageTable {
 
-    // Un mapa de número de página virtual a número de marco físico.
-    // Usamos Optional<Integer> para representar si la página está presente en memoria o no.
-    // Si el valor es Optional.empty(), la página no está en un marco físico (falta de página).
-    private final Map<Integer, Optional<Integer>> pageToFrameMap;
+    /**
+     * Valor devuelto por translate() cuando la página no está en un marco físico.
+     */
+    public static final int NOT_PRESENT = -1;
+
+    /**
+     * Valor devuelto por getSwapSlot() cuando la página no tiene copia en swap.
+     */
+    public static final int NO_SWAP_SLOT = -1;
+
+    private static final int LEAF_BITS = 10;
+    private static final int LEAF_SIZE = 1 << LEAF_BITS;
+    private static final int LEAF_MASK = LEAF_SIZE - 1;
+
+    private static final int STRIPES = 16; // Potencia de dos
+    private static final VarHandle ENTRY = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle LEAF = MethodHandles.arrayElementVarHandle(int[][].class);
+
+    // Cada entrada guarda (marco + 1) si la página está presente, -(hueco de swap + 1) si está
+    // desalojada a swap, y 0 si nunca se ha cargado: una hoja recién creada ya está inicializada.
+    private static final int EMPTY = 0;
+
+    private static final MappedRegion[] NO_REGIONS = new MappedRegion[0];
+
+    private volatile int[][] directory;
+    private final Object growLock = new Object(); // Crecimiento del directorio y creación de hojas
+    private final ForkFamily family;
+    private final ReentrantLock[] stripes; // Los de la familia
+    // Contadores por franja: cada uno sólo cambia con su cerrojo tomado, así que no necesitan atómicos.
+    private final int[] presentPages = new int[STRIPES];
+    private final int[] swappedPages = new int[STRIPES];
+
+    // Cabeza de la lista de marcos residentes; los enlaces los mantiene FrameTable bajo el monitor de la tabla.
+    int residentHead = FrameTable.NO_FRAME;
+
+    private final WorkingSetTracker workingSet = new WorkingSetTracker();
+    private final int framesPerPage; // 1 para páginas normales; el tamaño del tramo para páginas enormes
+    // Ordenadas por dirección. Se sustituye el array entero al cambiar (con el cerrojo de mapeos del
+    // MemoryManager), así que los accesos lo leen sin cerrojos.
+    private volatile MappedRegion[] regions = NO_REGIONS;
 
     public PageTable() {
-        this.pageToFrameMap = new HashMap<>();
+        this(LEAF_SIZE);
+    }
+
+    public PageTable(int virtualSizeInPages) {
+        this(virtualSizeInPages, 1);
+    }
+
+    /**
+     * @param virtualSizeInPages Tamaño previsto del espacio de direcciones, para dimensionar el directorio.
+     *                           Las hojas se siguen creando bajo demanda.
+     * @param framesPerPage Marcos físicos que ocupa cada página de esta tabla. Con páginas enormes cada
+     *                      entrada apunta al primer marco de un tramo contiguo, así que la tabla tiene
+     *                      framesPerPage veces menos entradas para el mismo espacio de direcciones.
+     */
+    public PageTable(int virtualSizeInPages, int framesPerPage) {
+        this.framesPerPage = framesPerPage;
+        int directorySize = Math.max(1, (virtualSizeInPages + LEAF_MASK) >>> LEAF_BITS);
+        this.directory = new int[directorySize][];
+        this.family = new ForkFamily(STRIPES);
+        this.stripes = family.stripes;
+    }
+
+    /**
+     * Crea una tabla vacía en la familia de parent, para el hijo de un fork(). La llena
+     * MemoryManager.forkAddressSpace() con las entradas del padre.
+     */
+    public PageTable(PageTable parent) {
+        this.framesPerPage = parent.framesPerPage;
+        this.directory = new int[parent.directory.length][];
+        this.family = parent.family;
+        this.stripes = family.stripes;
+    }
+
+    ForkFamily getFamily() {
+        return family;
+    }
+
+    /**
+     * @return true si la tabla forma parte de una familia de fork(), así que puede compartir marcos.
+     */
+    boolean isForked() {
+        return family.size() > 0;
+    }
+
+    /**
+     * @return La región mapeada que contiene la dirección, o null si no hay ninguna.
+     */
+    public MappedRegion findRegion(int address) {
+        for (MappedRegion region : regions) {
+            if (address < region.getStart()) {
+                break;
+            }
+            if (region.contains(address)) {
+                return region;
+            }
+        }
+        return null;
+    }
+
+    public List<MappedRegion> getRegions() {
+        return List.of(regions);
+    }
+
+    /**
+     * Busca el primer hueco de length bytes libre de regiones a partir de la dirección from.
+     * @return La dirección del hueco, o -1 si no cabe antes del final del espacio de direcciones.
+     */
+    int findFreeRange(int from, int length) {
+        long candidate = from;
+        for (MappedRegion region : regions) {
+            if (region.getEnd() <= candidate) {
+                continue;
+            }
+            if (candidate + length <= region.getStart()) {
+                break;
+            }
+            candidate = region.getEnd();
+        }
+        return candidate + length <= Integer.MAX_VALUE ? (int) candidate : -1;
+    }
+
+    void addRegion(MappedRegion region) {
+        MappedRegion[] current = regions;
+        int index = 0;
+        while (index < current.length && current[index].getStart() < region.getStart()) {
+            index++;
+        }
+        MappedRegion[] updated = new MappedRegion[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        updated[index] = region;
+        System.arraycopy(current, index, updated, index + 1, current.length - index);
+        regions = updated;
+    }
+
+    boolean removeRegion(MappedRegion region) {
+        MappedRegion[] current = regions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == region) {
+                MappedRegion[] updated = new MappedRegion[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                regions = updated;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getFramesPerPage() {
+        return framesPerPage;
+    }
+
+    /**
+     * @return El historial de faltas del proceso (lectura anticipada y frecuencia de faltas).
+     */
+    public WorkingSetTracker getWorkingSet() {
+        return workingSet;
+    }
+
+    /**
+     * @return El cerrojo que protege la entrada de la página. Páginas consecutivas caen en franjas distintas.
+     */
+    ReentrantLock lockFor(int pageNumber) {
+        return stripes[pageNumber & (STRIPES - 1)];
+    }
+
+    /**
+     * Toma los cerrojos de todas las franjas, siempre en el mismo orden.
+     */
+    void lockAll() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
     }
 
     /**
@@ -25,7 +220,24 @@ public class PageTable {
      * @param frameNumber El número del marco físico.
      */
     public void mapPageToFrame(int pageNumber, int frameNumber) {
-        pageToFrameMap.put(pageNumber, Optional.of(frameNumber));
+        int[] leaf = leafFor(pageNumber);
+        int slot = pageNumber & LEAF_MASK;
+        countOut(pageNumber, leaf[slot]);
+        ENTRY.setRelease(leaf, slot, frameNumber + 1);
+        presentPages[pageNumber & (STRIPES - 1)]++;
+    }
+
+    /**
+     * Marca la página como desalojada a swap, recordando el hueco donde está su contenido.
+     * @param pageNumber El número de la página virtual.
+     * @param swapSlot El hueco del dispositivo de swap.
+     */
+    public void mapPageToSwap(int pageNumber, int swapSlot) {
+        int[] leaf = leafFor(pageNumber);
+        int slot = pageNumber & LEAF_MASK;
+        countOut(pageNumber, leaf[slot]);
+        ENTRY.setRelease(leaf, slot, -(swapSlot + 1));
+        swappedPages[pageNumber & (STRIPES - 1)]++;
     }
 
     /**
@@ -34,35 +246,223 @@ public class PageTable {
      * @param pageNumber El número de la página virtual a invalidar.
      */
     public void invalidatePage(int pageNumber) {
-        if (pageToFrameMap.containsKey(pageNumber)) {
-            pageToFrameMap.put(pageNumber, Optional.empty());
+        int[] leaf = leafOrNull(pageNumber);
+        if (leaf == null) {
+            return;
         }
+        int slot = pageNumber & LEAF_MASK;
+        countOut(pageNumber, leaf[slot]);
+        ENTRY.setRelease(leaf, slot, EMPTY);
     }
-    
+
     /**
      * Establece que una página existe en el espacio de direcciones virtuales del proceso,
-     * pero aún no está en la memoria física.
+     * pero aún no está en la memoria física. Reserva por adelantado la hoja que la contendrá.
      * @param pageNumber El número de la página a registrar.
      */
     public void provisionPage(int pageNumber) {
-        pageToFrameMap.putIfAbsent(pageNumber, Optional.empty());
+        leafFor(pageNumber);
+    }
+
+    /**
+     * Traduce una página virtual a su marco físico sin reservar memoria.
+     * @param pageNumber El número de la página virtual.
+     * @return El número de marco, o NOT_PRESENT si la página no está en memoria física.
+     */
+    public int translate(int pageNumber) {
+        int[] leaf = leafOrNull(pageNumber);
+        if (leaf == null) {
+            return NOT_PRESENT;
+        }
+        int entry = (int) ENTRY.getAcquire(leaf, pageNumber & LEAF_MASK);
+        return entry > 0 ? entry - 1 : NOT_PRESENT;
+    }
+
+    /**
+     * @return El hueco de swap que guarda la página desalojada, o NO_SWAP_SLOT si no está en swap.
+     */
+    public int getSwapSlot(int pageNumber) {
+        int[] leaf = leafOrNull(pageNumber);
+        if (leaf == null) {
+            return NO_SWAP_SLOT;
+        }
+        int entry = (int) ENTRY.getAcquire(leaf, pageNumber & LEAF_MASK);
+        return entry < 0 ? -entry - 1 : NO_SWAP_SLOT;
+    }
+
+    /**
+     * Olvida todas las páginas desalojadas a swap, entregando sus huecos para que se liberen.
+     * Sólo recorre la tabla si queda alguna página en swap. Con otros hilos activos, requiere lockAll().
+     * @param slotConsumer Recibe cada hueco de swap liberado.
+     */
+    public void releaseSwapSlots(IntConsumer slotConsumer) {
+        int[][] dirs = directory;
+        for (int dir = 0; getSwappedPageCount() > 0 && dir < dirs.length; dir++) {
+            int[] leaf = dirs[dir];
+            if (leaf == null) {
+                continue;
+            }
+            for (int slot = 0; slot < LEAF_SIZE; slot++) {
+                if (leaf[slot] < 0) {
+                    slotConsumer.accept(-leaf[slot] - 1);
+                    ENTRY.setRelease(leaf, slot, EMPTY);
+                }
+            }
+        }
+        Arrays.fill(swappedPages, 0);
+    }
+
+    /**
+     * Copia todas las entradas de parent (presentes y en swap) en esta tabla, que debe estar vacía.
+     * Cuesta lo que ocupa la tabla del padre, no lo que ocupan sus páginas. Requiere lockAll() de la familia.
+     * @param sharedFrames Recibe cada marco que pasa a estar mapeado también por esta tabla.
+     * @param sharedSlots Recibe cada hueco de swap al que pasa a apuntar también esta tabla.
+     */
+    void copyFrom(PageTable parent, IntConsumer sharedFrames, IntConsumer sharedSlots) {
+        int[][] dirs = parent.directory;
+        int[][] copy = new int[dirs.length][];
+        for (int dir = 0; dir < dirs.length; dir++) {
+            int[] leaf = dirs[dir];
+            if (leaf == null) {
+                continue;
+            }
+            for (int entry : leaf) {
+                if (entry > 0) {
+                    sharedFrames.accept(entry - 1);
+                } else if (entry < 0) {
+                    sharedSlots.accept(-entry - 1);
+                }
+            }
+            copy[dir] = leaf.clone();
+        }
+        System.arraycopy(parent.presentPages, 0, presentPages, 0, STRIPES);
+        System.arraycopy(parent.swappedPages, 0, swappedPages, 0, STRIPES);
+        directory = copy;
     }
 
     /**
      * Obtiene el número de marco físico para un número de página virtual dado.
+     * Variante de conveniencia de translate() para código que no está en el camino crítico.
      * @param pageNumber El número de la página virtual.
      * @return Un Optional que contiene el número de marco si la página está presente,
      *         o un Optional vacío si no lo está (falta de página).
      */
     public Optional<Integer> getFrameNumber(int pageNumber) {
-        return pageToFrameMap.getOrDefault(pageNumber, Optional.empty());
+        int frame = translate(pageNumber);
+        return frame == NOT_PRESENT ? Optional.empty() : Optional.of(frame);
+    }
+
+    /**
+     * @return El número de páginas actualmente presentes en memoria física.
+     */
+    public int getPresentPageCount() {
+        return sum(presentPages);
+    }
+
+    /**
+     * @return El número de páginas desalojadas a swap.
+     */
+    public int getSwappedPageCount() {
+        return sum(swappedPages);
+    }
+
+    private void countOut(int pageNumber, int entry) {
+        if (entry > 0) {
+            presentPages[pageNumber & (STRIPES - 1)]--;
+        } else if (entry < 0) {
+            swappedPages[pageNumber & (STRIPES - 1)]--;
+        }
+    }
+
+    private static int sum(int[] counters) {
+        int total = 0;
+        for (int c : counters) {
+            total += c;
+        }
+        return total;
     }
 
     /**
-     * Obtiene una copia del mapa de páginas para visualización o depuración.
-     * @return Un mapa inmutable del estado actual de la tabla de páginas.
+     * Devuelve un cursor que recorre las páginas presentes en orden creciente,
+     * sin copiar la tabla. Sustituye al antiguo getMappings(), que duplicaba el mapa entero.
      */
-    public Map<Integer, Optional<Integer>> getMappings() {
-        return new HashMap<>(pageToFrameMap);
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private int[] leafOrNull(int pageNumber) {
+        int dir = pageNumber >>> LEAF_BITS;
+        int[][] dirs = directory;
+        return dir < dirs.length ? (int[]) LEAF.getAcquire(dirs, dir) : null;
+    }
+
+    private int[] leafFor(int pageNumber) {
+        int[] leaf = leafOrNull(pageNumber);
+        if (leaf != null) {
+            return leaf;
+        }
+        // Varias franjas pueden necesitar la misma hoja a la vez: se crea una sola.
+        synchronized (growLock) {
+            int dir = pageNumber >>> LEAF_BITS;
+            int[][] dirs = directory;
+            if (dir >= dirs.length) {
+                dirs = Arrays.copyOf(dirs, Math.max(dir + 1, dirs.length * 2));
+                directory = dirs;
+            }
+            leaf = dirs[dir];
+            if (leaf == null) {
+                leaf = new int[LEAF_SIZE];
+                LEAF.setRelease(dirs, dir, leaf);
+            }
+            return leaf;
+        }
+    }
+
+    /**
+     * Cursor sobre las entradas presentes de la tabla. Uso típico:
+     * <pre>
+     * PageTable.Cursor c = pageTable.cursor();
+     * while (c.next()) { ... c.page() ... c.frame() ... }
+     * </pre>
+     * No debe modificarse la tabla mientras se recorre, salvo para invalidar la entrada actual.
+     */
+    public final class Cursor {
+
+        private int dir = 0;
+        private int slot = -1;
+        private int frame = NOT_PRESENT;
+
+        private Cursor() {
+        }
+
+        /**
+         * Avanza a la siguiente página presente.
+         * @return false cuando no quedan más entradas.
+         */
+        public boolean next() {
+            while (dir < directory.length) {
+                int[] leaf = directory[dir];
+                if (leaf != null) {
+                    while (++slot < LEAF_SIZE) {
+                        if (leaf[slot] > 0) {
+                            frame = leaf[slot] - 1;
+                            return true;
+                        }
+                    }
+                }
+                dir++;
+                slot = -1;
+            }
+            frame = NOT_PRESENT;
+            return false;
+        }
+
+        public int page() {
+            return (dir << LEAF_BITS) | slot;
+        }
+
+        public int frame() {
+            return frame;
+        }
     }
 }
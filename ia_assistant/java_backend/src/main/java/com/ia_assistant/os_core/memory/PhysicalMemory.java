@@ -0,0 +1,133 @@
+package com.ia_assistant.os_core.memory;
+
+import com.ia_assistant.os_core.Process;
+import com.ia_assistant.os_core.memory.swap.SwapDevice;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+
+/**
+ * Contenido de la RAM simulada, fuera del heap.
+ *
+ * Los bytes de cada marco viven en buffers directos de CHUNK_FRAMES marcos (4 MB), que se reservan la
+ * primera vez que se toca alguno de sus marcos: una RAM simulada de varios GB sólo ocupa memoria real en
+ * los trozos usados, y el recolector de basura no ve más que unos pocos objetos ByteBuffer. Un trozo
+ * tiene el tamaño del mayor bloque del buddy, así que un tramo de página enorme nunca queda partido
+ * entre dos trozos.
+ *
+ * Esta clase no sincroniza nada: todas las copias son absolutas (no mueven la posición de ningún
+ * buffer) y el MemoryManager garantiza, con la franja de la página, que nadie lee o escribe un marco
+ * mientras se carga, se desaloja o se traslada.
+ */
+public final class PhysicalMemory {
+
+    public static final int FRAME_BYTES = Process.PAGE_SIZE_KB * 1024;
+
+    private static final int CHUNK_SHIFT = BuddyAllocator.MAX_ORDER;
+    static final int CHUNK_FRAMES = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_FRAMES - 1;
+
+    private static final VarHandle CHUNKS = MethodHandles.arrayElementVarHandle(ByteBuffer[].class);
+    private static final ByteBuffer ZERO_FRAME = ByteBuffer.allocateDirect(FRAME_BYTES);
+
+    private final int numFrames;
+    private final ByteBuffer[] chunks;
+    private int allocatedChunks; // Protegidos por el monitor de la clase
+    private long allocatedBytes;
+
+    public PhysicalMemory(int numFrames) {
+        this.numFrames = numFrames;
+        this.chunks = new ByteBuffer[((numFrames - 1) >>> CHUNK_SHIFT) + 1];
+    }
+
+    /**
+     * Copia bytes de un marco (o de un tramo contiguo de marcos de una página enorme) a un array.
+     * @param frameNumber Primer marco de la página.
+     * @param offset Desplazamiento en bytes desde el inicio de ese marco.
+     */
+    public void read(int frameNumber, int offset, byte[] destination, int destinationOffset, int length) {
+        chunk(frameNumber).get(offsetInChunk(frameNumber) + offset, destination, destinationOffset, length);
+    }
+
+    /**
+     * Copia bytes de un array a un marco (o a un tramo contiguo de marcos de una página enorme).
+     * @param frameNumber Primer marco de la página.
+     * @param offset Desplazamiento en bytes desde el inicio de ese marco.
+     */
+    public void write(int frameNumber, int offset, byte[] source, int sourceOffset, int length) {
+        chunk(frameNumber).put(offsetInChunk(frameNumber) + offset, source, sourceOffset, length);
+    }
+
+    /**
+     * Pone a cero count marcos consecutivos. Los de un trozo que aún no se ha reservado ya son ceros.
+     */
+    public void zero(int frameNumber, int count) {
+        for (int frame = frameNumber; frame < frameNumber + count; frame++) {
+            ByteBuffer chunk = (ByteBuffer) CHUNKS.getAcquire(chunks, frame >>> CHUNK_SHIFT);
+            if (chunk != null) {
+                chunk.put(offsetInChunk(frame), ZERO_FRAME, 0, FRAME_BYTES);
+            }
+        }
+    }
+
+    /**
+     * Copia el contenido completo de un marco a otro (traslados de la compactación).
+     */
+    public void copy(int fromFrame, int toFrame) {
+        chunk(toFrame).put(offsetInChunk(toFrame), chunk(fromFrame), offsetInChunk(fromFrame), FRAME_BYTES);
+    }
+
+    /**
+     * Carga en el marco la página guardada en un hueco de swap.
+     */
+    public void readFromSwap(SwapDevice swap, int slot, int frameNumber) {
+        swap.readPage(slot, chunk(frameNumber), offsetInChunk(frameNumber));
+    }
+
+    /**
+     * Guarda el contenido del marco en un hueco de swap.
+     */
+    public void writeToSwap(SwapDevice swap, int slot, int frameNumber) {
+        swap.writePage(slot, chunk(frameNumber), offsetInChunk(frameNumber));
+    }
+
+    public int size() {
+        return numFrames;
+    }
+
+    /**
+     * @return Bytes reservados fuera del heap hasta ahora (sólo los trozos ya tocados).
+     */
+    public synchronized long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    private static int offsetInChunk(int frameNumber) {
+        return (frameNumber & CHUNK_MASK) * FRAME_BYTES;
+    }
+
+    private ByteBuffer chunk(int frameNumber) {
+        int index = frameNumber >>> CHUNK_SHIFT;
+        ByteBuffer chunk = (ByteBuffer) CHUNKS.getAcquire(chunks, index);
+        return chunk != null ? chunk : allocateChunk(index);
+    }
+
+    private synchronized ByteBuffer allocateChunk(int index) {
+        ByteBuffer chunk = chunks[index];
+        if (chunk == null) {
+            // El último trozo sólo cubre los marcos que existen. allocateDirect ya lo entrega a cero.
+            int frames = Math.min(CHUNK_FRAMES, numFrames - (index << CHUNK_SHIFT));
+            chunk = ByteBuffer.allocateDirect(frames * FRAME_BYTES);
+            CHUNKS.setRelease(chunks, index, chunk);
+            allocatedChunks++;
+            allocatedBytes += chunk.capacity();
+        }
+        return chunk;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("RAM: %d KB reservados fuera del heap de %d KB (%d/%d trozos)",
+                allocatedBytes / 1024, (long) numFrames * FRAME_BYTES / 1024, allocatedChunks, chunks.length);
+    }
+}
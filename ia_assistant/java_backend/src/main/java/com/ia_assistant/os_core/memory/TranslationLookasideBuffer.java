@@ -0,0 +1,188 @@
+package com.ia_assistant.os_core.memory;
+
+import java.util.Arrays;
+
+/**
+ * TLB (Translation Lookaside Buffer) software asociativo por conjuntos.
+ * Cachea traducciones (PID, página virtual) -> marco físico delante de la PageTable.
+ * Cada entrada va etiquetada con el PID (como un ASID), por lo que un mismo TLB puede
+ * servir a una CPU simulada que alterna entre procesos sin vaciarse en cada cambio.
+ *
+ * Dentro de cada conjunto se reemplaza en orden circular (round-robin).
+ *
+ * Cada CPU consulta sólo su TLB, pero los shootdowns llegan desde cualquier CPU que desaloje una página,
+ * así que las modificaciones están sincronizadas. lookup() no toma el monitor: puede devolver una
+ * traducción recién invalidada, y por eso el MemoryManager valida siempre el marco que obtiene.
+ */
+public class TranslationLookasideBuffer {
+
+    /**
+     * Valor devuelto por lookup() cuando la traducción no está en el TLB.
+     */
+    public static final int MISS = -1;
+
+    private static final long EMPTY_TAG = -1L;
+
+    private final int numSets;
+    private final int ways;
+    private final int setMask;
+    private final long[] tags;   // (pid << 32) | página, o EMPTY_TAG
+    private final int[] frames;
+    private final int[] nextVictim; // Próxima vía a reemplazar en cada conjunto
+
+    private long hits;
+    private long misses;
+    private long flushes;
+    private long shootdowns;
+
+    /**
+     * @param entries Número total de entradas (se redondea a conjuntos potencia de dos).
+     * @param associativity Número de vías por conjunto.
+     */
+    public TranslationLookasideBuffer(int entries, int associativity) {
+        if (entries <= 0 || associativity <= 0) {
+            throw new IllegalArgumentException("El TLB necesita al menos una entrada y una vía.");
+        }
+        this.ways = Math.min(associativity, entries);
+        int requestedSets = Math.max(1, entries / this.ways);
+        this.numSets = Integer.highestOneBit(requestedSets) == requestedSets
+                ? requestedSets : Integer.highestOneBit(requestedSets) << 1;
+        this.setMask = numSets - 1;
+        this.tags = new long[numSets * ways];
+        this.frames = new int[numSets * ways];
+        this.nextVictim = new int[numSets];
+        Arrays.fill(tags, EMPTY_TAG);
+    }
+
+    /**
+     * Busca la traducción de una página. Sólo debe llamarla la CPU propietaria del TLB.
+     * @return El marco físico, o MISS si no está cacheada.
+     */
+    public int lookup(int pid, int pageNumber) {
+        long tag = tag(pid, pageNumber);
+        int base = setIndex(pid, pageNumber) * ways;
+        for (int i = base; i < base + ways; i++) {
+            if (tags[i] == tag) {
+                hits++;
+                return frames[i];
+            }
+        }
+        misses++;
+        return MISS;
+    }
+
+    /**
+     * Inserta (o actualiza) una traducción tras resolverla en la tabla de páginas.
+     */
+    public synchronized void insert(int pid, int pageNumber, int frameNumber) {
+        long tag = tag(pid, pageNumber);
+        int set = setIndex(pid, pageNumber);
+        int base = set * ways;
+        int free = -1;
+        for (int i = base; i < base + ways; i++) {
+            if (tags[i] == tag) {
+                frames[i] = frameNumber;
+                return;
+            }
+            if (free < 0 && tags[i] == EMPTY_TAG) {
+                free = i;
+            }
+        }
+        if (free < 0) {
+            free = base + nextVictim[set];
+            nextVictim[set] = (nextVictim[set] + 1) % ways;
+        }
+        tags[free] = tag;
+        frames[free] = frameNumber;
+    }
+
+    /**
+     * Invalida una única traducción (TLB shootdown), p. ej. cuando una página es desalojada.
+     * Casi nunca está la traducción en el TLB de otra CPU, así que primero se busca sin el monitor.
+     */
+    public void invalidate(int pid, int pageNumber) {
+        long tag = tag(pid, pageNumber);
+        int base = setIndex(pid, pageNumber) * ways;
+        if (indexOf(tag, base) < 0) {
+            return;
+        }
+        synchronized (this) {
+            int i = indexOf(tag, base);
+            if (i >= 0) {
+                tags[i] = EMPTY_TAG;
+                shootdowns++;
+            }
+        }
+    }
+
+    private int indexOf(long tag, int base) {
+        for (int i = base; i < base + ways; i++) {
+            if (tags[i] == tag) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Vacía todas las traducciones de un proceso (p. ej. cuando termina).
+     */
+    public synchronized void flushProcess(int pid) {
+        for (int i = 0; i < tags.length; i++) {
+            if (tags[i] != EMPTY_TAG && (int) (tags[i] >>> 32) == pid) {
+                tags[i] = EMPTY_TAG;
+            }
+        }
+        flushes++;
+    }
+
+    /**
+     * Vacía el TLB por completo.
+     */
+    public synchronized void flushAll() {
+        Arrays.fill(tags, EMPTY_TAG);
+        flushes++;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getFlushes() {
+        return flushes;
+    }
+
+    public long getShootdowns() {
+        return shootdowns;
+    }
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    public synchronized void resetCounters() {
+        hits = 0;
+        misses = 0;
+        flushes = 0;
+        shootdowns = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TLB[%d conjuntos x %d vías, aciertos=%d, fallos=%d (%.1f%%), vaciados=%d, shootdowns=%d]",
+                numSets, ways, hits, misses, getHitRatio() * 100, flushes, shootdowns);
+    }
+
+    private static long tag(int pid, int pageNumber) {
+        return ((long) pid << 32) | (pageNumber & 0xFFFFFFFFL);
+    }
+
+    private int setIndex(int pid, int pageNumber) {
+        return (pageNumber ^ (pid * 0x9E3779B9)) & setMask;
+    }
+}
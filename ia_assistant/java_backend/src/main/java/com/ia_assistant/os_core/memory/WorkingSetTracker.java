@@ -0,0 +1,126 @@
+package com.ia_assistant.os_core.memory;
+
+/**
+ * Historial de faltas de un proceso: detecta accesos secuenciales para la lectura anticipada y mide la
+ * frecuencia de faltas (PFF) para decidir cuándo recortar su conjunto residente.
+ *
+ * Lectura anticipada: dos faltas en páginas consecutivas abren una ventana de READAHEAD_MIN páginas; si
+ * la siguiente falta cae justo detrás de la ventana cargada, el flujo sigue siendo secuencial y la ventana
+ * se duplica hasta READAHEAD_MAX. Cualquier otra falta la cierra.
+ *
+ * Frecuencia de faltas: el tiempo es virtual (accesos del propio proceso). Si entre dos faltas pasan pocos
+ * accesos, el proceso necesita más marcos y se le deja crecer; si pasan muchos, su conjunto de trabajo cabe
+ * holgadamente y el MemoryManager le quita las páginas que no ha referenciado desde la falta anterior.
+ *
+ * Los métodos de faltas son sincronizados (sólo se llaman en faltas). El contador de accesos se incrementa
+ * sin atómicos en cada acceso: con varias CPUs sobre el mismo proceso puede perder alguno, lo que sólo
+ * desplaza un poco el umbral.
+ */
+public final class WorkingSetTracker {
+
+    public static final int READAHEAD_MIN = 4;
+    public static final int READAHEAD_MAX = 32;
+
+    // Intervalo mínimo entre faltas (en accesos del proceso) para recortar. Se escala con el número de
+    // páginas residentes, así que el recorrido del recorte cuesta como mucho un paso por acceso.
+    public static final int PFF_TRIM_INTERVAL = 4096;
+
+    private static final int NO_PAGE = -2;
+
+    long accessCount; // Tiempo virtual del proceso; lo incrementa MemoryManager en cada acceso
+
+    private long lastFaultTime;
+    private int lastFaultPage = NO_PAGE;
+    private int nextSequentialPage = NO_PAGE; // Primera página tras la última ventana cargada
+    private int readaheadWindow;
+
+    private long faults;
+    private long readaheadWindows;
+    private long prefetchedPages;
+    private long trims;
+    private long trimmedPages;
+    private int workingSetSize; // Páginas que sobrevivieron al último recorte
+
+    /**
+     * Registra una falta y decide cuántas páginas siguientes conviene leer por adelantado.
+     * @param pageNumber La página que ha provocado la falta.
+     * @return El tamaño de la ventana de lectura anticipada, o 0 si el acceso no parece secuencial.
+     */
+    synchronized int onFault(int pageNumber) {
+        faults++;
+        if (pageNumber == nextSequentialPage && readaheadWindow > 0) {
+            readaheadWindow = Math.min(readaheadWindow * 2, READAHEAD_MAX);
+        } else if (pageNumber == lastFaultPage + 1) {
+            readaheadWindow = READAHEAD_MIN;
+        } else {
+            readaheadWindow = 0;
+        }
+        lastFaultPage = pageNumber;
+        nextSequentialPage = pageNumber + readaheadWindow + 1;
+        return readaheadWindow;
+    }
+
+    /**
+     * Cierra el intervalo de faltas actual.
+     * @param residentPages Páginas residentes del proceso en este momento.
+     * @return true si el intervalo ha sido lo bastante largo como para recortar el conjunto residente.
+     */
+    synchronized boolean endFaultInterval(int residentPages) {
+        long now = accessCount;
+        long interval = now - lastFaultTime;
+        lastFaultTime = now;
+        return interval > Math.max(PFF_TRIM_INTERVAL, residentPages);
+    }
+
+    synchronized void recordPrefetch(int pages) {
+        readaheadWindows++;
+        prefetchedPages += pages;
+    }
+
+    synchronized void recordTrim(int evicted, int kept) {
+        trims++;
+        trimmedPages += evicted;
+        workingSetSize = kept;
+    }
+
+    public synchronized long getFaultCount() {
+        return faults;
+    }
+
+    /**
+     * @return Faltas por cada mil accesos del proceso.
+     */
+    public synchronized double getFaultFrequency() {
+        return accessCount == 0 ? 0.0 : faults * 1000.0 / accessCount;
+    }
+
+    public synchronized long getReadaheadWindows() {
+        return readaheadWindows;
+    }
+
+    public synchronized long getPrefetchedPages() {
+        return prefetchedPages;
+    }
+
+    public synchronized long getTrimCount() {
+        return trims;
+    }
+
+    public synchronized long getTrimmedPages() {
+        return trimmedPages;
+    }
+
+    /**
+     * @return Estimación del conjunto de trabajo: páginas referenciadas entre las dos últimas faltas
+     *         que cerraron un intervalo largo (0 si aún no se ha recortado nunca).
+     */
+    public synchronized int getWorkingSetSize() {
+        return workingSetSize;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("faltas=%d (%.2f por mil accesos), ventanas de lectura anticipada=%d (%d páginas), recortes=%d (%d páginas), conjunto de trabajo=%d",
+                faults, getFaultFrequency(), readaheadWindows, prefetchedPages, trims, trimmedPages, workingSetSize);
+    }
+}
@@ -0,0 +1,150 @@
+package com.ia_assistant.os_core.memory.replacement;
+
+import com.ia_assistant.os_core.memory.FrameTable;
+
+/**
+ * Implementa ARC (Adaptive Replacement Cache, Megiddo y Modha).
+ * Reparte los marcos entre T1 (páginas vistas una vez) y T2 (vistas al menos dos veces) y
+ * recuerda en B1/B2 las páginas recién desalojadas de cada lista. Un acierto en un fantasma
+ * desplaza el objetivo p hacia la lista que lo habría evitado, así que se adapta sola entre
+ * recencia y frecuencia y resiste los recorridos secuenciales que vacían una LRU.
+ */
+public class ARCStrategy implements PageReplacementAlgorithm {
+
+    private static final int GHOST_NONE = 0;
+    private static final int GHOST_B1 = 1;
+    private static final int GHOST_B2 = 2;
+    private static final int PENDING_PROMOTIONS = 64;
+
+    private FrameTable frames;
+    private int capacity;  // c: número de marcos
+    private int target;    // p: tamaño objetivo de T1
+    private FrameList t1;
+    private FrameList t2;
+    private GhostList b1;
+    private GhostList b2;
+
+    // Lista fantasma en la que acertó la última falta; sólo desempata la elección de víctima
+    private int lastFaultGhost;
+    // Páginas que acertaron en un fantasma y aún no se han cargado. Con varias CPUs pueden
+    // intercalarse otras faltas entre onPageFault() y onPageLoad(), así que se recuerdan por clave.
+    private GhostList pendingPromotions;
+
+    private long victims;
+    private long ghostHits;
+
+    @Override
+    public void initialize(FrameTable frames) {
+        this.frames = frames;
+        this.capacity = frames.size();
+        this.target = 0;
+        this.t1 = new FrameList(capacity);
+        this.t2 = new FrameList(capacity);
+        this.b1 = new GhostList(capacity);
+        this.b2 = new GhostList(capacity);
+        this.lastFaultGhost = GHOST_NONE;
+        this.pendingPromotions = new GhostList(PENDING_PROMOTIONS);
+        this.victims = 0;
+        this.ghostHits = 0;
+    }
+
+    @Override
+    public void onPageFault(int processId, int pageNumber) {
+        long key = GhostList.key(processId, pageNumber);
+        if (b1.contains(key)) {
+            // La página habría seguido en memoria con un T1 más grande.
+            int delta = Math.max(1, b2.size() / b1.size());
+            target = Math.min(capacity, target + delta);
+            b1.remove(key);
+            pendingPromotions.addLast(key);
+            lastFaultGhost = GHOST_B1;
+            ghostHits++;
+        } else if (b2.contains(key)) {
+            // La página habría seguido en memoria con un T2 más grande.
+            int delta = Math.max(1, b1.size() / b2.size());
+            target = Math.max(0, target - delta);
+            b2.remove(key);
+            pendingPromotions.addLast(key);
+            lastFaultGhost = GHOST_B2;
+            ghostHits++;
+        } else {
+            lastFaultGhost = GHOST_NONE;
+        }
+    }
+
+    @Override
+    public int findVictimFrame() {
+        int t1Size = t1.size();
+        boolean fromT1 = t1Size > 0
+                && (t1Size > target || (lastFaultGhost == GHOST_B2 && t1Size == target) || t2.isEmpty());
+        int victim;
+        if (fromT1) {
+            victim = t1.removeFirst();
+            b1.addLast(keyOf(victim));
+        } else {
+            victim = t2.removeFirst();
+            if (victim == FrameList.NIL) {
+                return NO_FRAME;
+            }
+            b2.addLast(keyOf(victim));
+        }
+        victims++;
+        return victim;
+    }
+
+    @Override
+    public void onPageLoad(int frameNumber) {
+        if (pendingPromotions.size() > 0 && pendingPromotions.remove(keyOf(frameNumber))) {
+            // Acierto en fantasma: la página ya demostró reutilización, entra en T2.
+            t2.addLast(frameNumber);
+        } else {
+            // Página nueva: se acotan los historiales para que |T1|+|B1| <= c y el total <= 2c.
+            if (t1.size() + b1.size() >= capacity) {
+                b1.removeFirst();
+            } else if (t1.size() + t2.size() + b1.size() + b2.size() >= 2 * capacity) {
+                b2.removeFirst();
+            }
+            t1.addLast(frameNumber);
+        }
+        lastFaultGhost = GHOST_NONE;
+    }
+
+    @Override
+    public void onPageAccess(int frameNumber) {
+        if (t1.remove(frameNumber)) {
+            t2.addLast(frameNumber);
+        } else {
+            t2.moveToLast(frameNumber);
+        }
+    }
+
+    @Override
+    public void onFrameFree(int frameNumber) {
+        if (!t1.remove(frameNumber)) {
+            t2.remove(frameNumber);
+        }
+    }
+
+    @Override
+    public void onFrameMigrated(int oldFrame, int newFrame) {
+        // Las claves de las listas fantasma son (PID, página), que no cambian al trasladar el marco.
+        if (!t1.replace(oldFrame, newFrame)) {
+            t2.replace(oldFrame, newFrame);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "ARC (Adaptive Replacement Cache)";
+    }
+
+    @Override
+    public String getStatus() {
+        return String.format("ARC: p=%d, T1=%d, T2=%d, B1=%d, B2=%d, víctimas=%d, aciertos en fantasmas=%d",
+                target, t1.size(), t2.size(), b1.size(), b2.size(), victims, ghostHits);
+    }
+
+    private long keyOf(int frameNumber) {
+        return GhostList.key(frames.getOwnerPid(frameNumber), frames.getPageNumber(frameNumber));
+    }
+}
@@ -0,0 +1,176 @@
+package com.ia_assistant.os_core.memory.replacement;
+
+import com.ia_assistant.os_core.memory.FrameTable;
+
+/**
+ * Implementa CLOCK-Pro (Jiang, Chen y Zhang), la aproximación con bits de referencia de LIRS.
+ * Las páginas residentes son calientes o frías; una página fría nueva pasa un "periodo de prueba"
+ * y, si se vuelve a referenciar dentro de él, se promociona a caliente. Las páginas frías desalojadas
+ * en prueba se recuerdan como no residentes; si vuelven a fallar, el objetivo de páginas frías crece.
+ *
+ * Variante con dos anillos: la manecilla fría recorre las frías y la caliente las calientes.
+ * El fin del periodo de prueba de una página no residente lo marca su salida del historial
+ * (acotado al número de marcos), que además reduce el objetivo de frías.
+ */
+public class ClockProStrategy implements PageReplacementAlgorithm {
+
+    private static final int PENDING_HOT = 64;
+
+    private FrameTable frames;
+    private int capacity;
+    private int coldTarget;      // mc: marcos reservados a páginas frías
+    private FrameList hot;
+    private FrameList cold;
+    private boolean[] inTest;    // Página fría residente en periodo de prueba
+    private GhostList nonResident;
+    // Páginas que volvieron dentro de su periodo de prueba y aún no se han cargado. Con varias CPUs
+    // pueden intercalarse otras faltas entre onPageFault() y onPageLoad(), así que se recuerdan por clave.
+    private GhostList pendingHot;
+
+    private long victims;
+    private long promotions;
+    private long demotions;
+
+    @Override
+    public void initialize(FrameTable frames) {
+        this.frames = frames;
+        this.capacity = frames.size();
+        this.coldTarget = Math.max(1, capacity / 100);
+        this.hot = new FrameList(capacity);
+        this.cold = new FrameList(capacity);
+        this.inTest = new boolean[capacity];
+        this.nonResident = new GhostList(capacity);
+        this.pendingHot = new GhostList(PENDING_HOT);
+        this.victims = 0;
+        this.promotions = 0;
+        this.demotions = 0;
+    }
+
+    @Override
+    public void onPageFault(int processId, int pageNumber) {
+        long key = GhostList.key(processId, pageNumber);
+        if (nonResident.remove(key)) {
+            pendingHot.addLast(key);
+            // Re-referencia dentro del periodo de prueba: hacen falta más marcos fríos.
+            coldTarget = Math.min(maxColdTarget(), coldTarget + 1);
+        }
+    }
+
+    @Override
+    public int findVictimFrame() {
+        while (true) {
+            if (cold.isEmpty()) {
+                if (hot.isEmpty()) {
+                    return NO_FRAME;
+                }
+                runHotHand();
+                continue;
+            }
+            int candidate = cold.first();
+            if (frames.testAndClearReferenced(candidate)) {
+                if (inTest[candidate]) {
+                    // Referenciada durante la prueba: pasa a caliente.
+                    cold.remove(candidate);
+                    inTest[candidate] = false;
+                    hot.addLast(candidate);
+                    promotions++;
+                    if (hot.size() > capacity - coldTarget) {
+                        runHotHand();
+                    }
+                } else {
+                    // Fría referenciada fuera de prueba: empieza un nuevo periodo de prueba.
+                    inTest[candidate] = true;
+                    cold.moveToLast(candidate);
+                }
+            } else {
+                cold.remove(candidate);
+                if (inTest[candidate] && nonResident.addLast(keyOf(candidate))) {
+                    // Se ha caído del historial una página cuyo periodo de prueba terminó sin uso.
+                    coldTarget = Math.max(1, coldTarget - 1);
+                }
+                inTest[candidate] = false;
+                victims++;
+                return candidate;
+            }
+        }
+    }
+
+    @Override
+    public void onPageLoad(int frameNumber) {
+        // Si la página estaba en el historial, vuelve directamente como caliente.
+        if (pendingHot.size() > 0 && pendingHot.remove(keyOf(frameNumber))) {
+            inTest[frameNumber] = false;
+            hot.addLast(frameNumber);
+            if (hot.size() > capacity - coldTarget) {
+                runHotHand();
+            }
+        } else {
+            inTest[frameNumber] = true;
+            cold.addLast(frameNumber);
+        }
+    }
+
+    @Override
+    public void onPageAccess(int frameNumber) {
+        // El bit de referencia ya lo ha activado el MemoryManager.
+    }
+
+    @Override
+    public boolean tracksAccesses() {
+        return false;
+    }
+
+    @Override
+    public void onFrameFree(int frameNumber) {
+        if (!cold.remove(frameNumber)) {
+            hot.remove(frameNumber);
+        }
+        inTest[frameNumber] = false;
+    }
+
+    @Override
+    public void onFrameMigrated(int oldFrame, int newFrame) {
+        if (!cold.replace(oldFrame, newFrame)) {
+            hot.replace(oldFrame, newFrame);
+        }
+        inTest[newFrame] = inTest[oldFrame];
+        inTest[oldFrame] = false;
+    }
+
+    @Override
+    public String getName() {
+        return "CLOCK-Pro";
+    }
+
+    @Override
+    public String getStatus() {
+        return String.format("CLOCK-Pro: calientes=%d, frías=%d (objetivo %d), no residentes=%d, víctimas=%d, promociones=%d, degradaciones=%d",
+                hot.size(), cold.size(), coldTarget, nonResident.size(), victims, promotions, demotions);
+    }
+
+    /**
+     * Manecilla caliente: degrada a fría la primera página caliente sin referencia,
+     * limpiando por el camino los bits de las que sí la tienen.
+     */
+    private void runHotHand() {
+        while (!hot.isEmpty()) {
+            int candidate = hot.first();
+            if (frames.testAndClearReferenced(candidate)) {
+                hot.moveToLast(candidate);
+            } else {
+                hot.remove(candidate);
+                cold.addLast(candidate);
+                demotions++;
+                return;
+            }
+        }
+    }
+
+    private int maxColdTarget() {
+        return Math.max(1, capacity - 1);
+    }
+
+    private long keyOf(int frameNumber) {
+        return GhostList.key(frames.getOwnerPid(frameNumber), frames.getPageNumber(frameNumber));
+    }
+}
@@ -0,0 +1,81 @@
+package com.ia_assistant.os_core.memory.replacement;
+
+import com.ia_assistant.os_core.memory.FrameTable;
+
+/**
+ * Implementa el algoritmo CLOCK (segunda oportunidad).
+ * Los marcos forman un anillo; la manecilla avanza desde el más antiguo y, si encuentra el bit
+ * de referencia activo, lo limpia y le da una segunda vuelta en lugar de desalojarlo.
+ * Los accesos no cuestan nada al algoritmo: sólo la MMU (el MemoryManager) activa el bit.
+ */
+public class ClockStrategy implements PageReplacementAlgorithm {
+
+    private FrameTable frames;
+    // El anillo se representa con una lista: la cabeza es la posición de la manecilla.
+    private FrameList ring;
+    private long victims;
+    private long secondChances;
+
+    @Override
+    public void initialize(FrameTable frames) {
+        this.frames = frames;
+        this.ring = new FrameList(frames.size());
+        this.victims = 0;
+        this.secondChances = 0;
+    }
+
+    @Override
+    public int findVictimFrame() {
+        // Como mucho da una vuelta completa limpiando bits; en la segunda encuentra víctima.
+        while (!ring.isEmpty()) {
+            int candidate = ring.first();
+            if (frames.testAndClearReferenced(candidate)) {
+                // Segunda oportunidad: la manecilla pasa de largo.
+                ring.moveToLast(candidate);
+                secondChances++;
+            } else {
+                ring.remove(candidate);
+                victims++;
+                return candidate;
+            }
+        }
+        return NO_FRAME;
+    }
+
+    @Override
+    public void onPageLoad(int frameNumber) {
+        // La página nueva entra justo detrás de la manecilla.
+        ring.addLast(frameNumber);
+    }
+
+    @Override
+    public void onPageAccess(int frameNumber) {
+        // El bit de referencia ya lo ha activado el MemoryManager.
+    }
+
+    @Override
+    public boolean tracksAccesses() {
+        return false;
+    }
+
+    @Override
+    public void onFrameFree(int frameNumber) {
+        ring.remove(frameNumber);
+    }
+
+    @Override
+    public void onFrameMigrated(int oldFrame, int newFrame) {
+        ring.replace(oldFrame, newFrame);
+    }
+
+    @Override
+    public String getName() {
+        return "CLOCK (Second Chance)";
+    }
+
+    @Override
+    public String getStatus() {
+        return String.format("Anillo CLOCK: %d marcos, víctimas=%d, segundas oportunidades=%d. Desde la manecilla: %s",
+                ring.size(), victims, secondChances, ring.describe(16));
+    }
+}
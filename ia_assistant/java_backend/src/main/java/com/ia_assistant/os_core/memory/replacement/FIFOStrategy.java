@@ -1,29 +1,31 @@
 package com.ia_assistant.os_core.memory.replacement;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import com.ia_assistant.os_core.memory.FrameTable;
 
 /**
  * Implementa el algoritmo de reemplazo de páginas First-In, First-Out (FIFO).
  */
 public class FIFOStrategy implements PageReplacementAlgorithm {
 
-    private final Queue<Integer> fifoQueue;
+    // Cola de marcos en orden de carga, enlazada por número de marco.
+    private FrameList fifoQueue;
 
-    public FIFOStrategy() {
-        this.fifoQueue = new LinkedList<>();
+    @Override
+    public void initialize(FrameTable frames) {
+        this.fifoQueue = new FrameList(frames.size());
     }
 
     @Override
-    public Integer findVictimFrame() {
+    public int findVictimFrame() {
         // La víctima es el que está al frente de la cola (el primero que entró).
-        return fifoQueue.poll();
+        int victim = fifoQueue.removeFirst();
+        return victim == FrameList.NIL ? NO_FRAME : victim;
     }
 
     @Override
     public void onPageLoad(int frameNumber) {
         // Cuando una página se carga, se añade al final de la cola.
-        fifoQueue.add(frameNumber);
+        fifoQueue.addLast(frameNumber);
     }
 
     @Override
@@ -32,13 +34,23 @@ public class FIFOStrategy implements PageReplacementAlgorithm {
         // Este método se deja vacío intencionadamente.
     }
 
+    @Override
+    public boolean tracksAccesses() {
+        return false;
+    }
+
     @Override
     public void onFrameFree(int frameNumber) {
         // Si un marco se libera explícitamente, hay que quitarlo de la cola
         // para evitar intentar seleccionarlo como víctima cuando ya está vacío.
-        fifoQueue.remove(Integer.valueOf(frameNumber));
+        fifoQueue.remove(frameNumber);
     }
-    
+
+    @Override
+    public void onFrameMigrated(int oldFrame, int newFrame) {
+        fifoQueue.replace(oldFrame, newFrame);
+    }
+
     @Override
     public String getName() {
         return "FIFO (First-In, First-Out)";
@@ -46,6 +58,6 @@ public class FIFOStrategy implements PageReplacementAlgorithm {
 
     @Override
     public String getStatus() {
-        return "Orden de Salida FIFO: " + fifoQueue.toString();
+        return "Orden de Salida FIFO: " + fifoQueue.describe(32);
     }
 }
@@ -0,0 +1,122 @@
+package com.ia_assistant.os_core.memory.replacement;
+
+import java.util.Arrays;
+
+/**
+ * Montículo binario indexado de marcos, ordenado por una prioridad por marco que guarda quien lo usa
+ * (un int[] compartido). Como FrameList, no reserva nada por operación: la posición de cada marco en el
+ * montículo está en un array, así que quitar o reordenar un marco cualquiera es O(log n).
+ */
+final class FrameHeap {
+
+    static final int NIL = -1;
+
+    private final int[] heap;
+    private final int[] position; // Índice de cada marco en heap, o NIL si no está
+    private final int[] priority;
+    private final boolean maxFirst;
+    private int size;
+
+    /**
+     * @param priority Prioridad de cada marco. Si cambia la de un marco del montículo hay que llamar a update().
+     * @param maxFirst true para que peek() devuelva el marco de mayor prioridad; false, el de menor.
+     */
+    FrameHeap(int capacity, int[] priority, boolean maxFirst) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.priority = priority;
+        this.maxFirst = maxFirst;
+        Arrays.fill(position, NIL);
+    }
+
+    boolean contains(int frame) {
+        return position[frame] != NIL;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return El primer marco según el orden del montículo, o NIL si está vacío.
+     */
+    int peek() {
+        return size == 0 ? NIL : heap[0];
+    }
+
+    void add(int frame) {
+        heap[size] = frame;
+        position[frame] = size;
+        siftUp(size++);
+    }
+
+    void remove(int frame) {
+        int index = position[frame];
+        if (index == NIL) {
+            return;
+        }
+        position[frame] = NIL;
+        int last = heap[--size];
+        if (index < size) {
+            heap[index] = last;
+            position[last] = index;
+            siftUp(index);
+            siftDown(position[last]);
+        }
+    }
+
+    /**
+     * Recoloca un marco cuya prioridad ha cambiado.
+     */
+    void update(int frame) {
+        int index = position[frame];
+        if (index != NIL) {
+            siftUp(index);
+            siftDown(position[frame]);
+        }
+    }
+
+    private boolean before(int a, int b) {
+        return maxFirst ? priority[a] > priority[b] : priority[a] < priority[b];
+    }
+
+    private void siftUp(int index) {
+        int frame = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!before(frame, heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            position[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = frame;
+        position[frame] = index;
+    }
+
+    private void siftDown(int index) {
+        int frame = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], frame)) {
+                break;
+            }
+            heap[index] = heap[child];
+            position[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = frame;
+        position[frame] = index;
+    }
+}
@@ -0,0 +1,149 @@
+package com.ia_assistant.os_core.memory.replacement;
+
+import java.util.Arrays;
+
+/**
+ * Lista doblemente enlazada intrusiva sobre números de marco.
+ * Los enlaces viven en dos arrays de enteros indexados por el propio número de marco,
+ * por lo que insertar, quitar o mover un marco cuesta O(1) y no reserva memoria.
+ */
+final class FrameList {
+
+    static final int NIL = -1;
+    private static final int UNLINKED = -2; // Marca de "el marco no está en la lista"
+
+    private final int[] prev;
+    private final int[] next;
+    private int head = NIL;
+    private int tail = NIL;
+    private int size;
+
+    FrameList(int capacity) {
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+        Arrays.fill(prev, UNLINKED);
+    }
+
+    boolean contains(int frameNumber) {
+        return prev[frameNumber] != UNLINKED;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int first() {
+        return head;
+    }
+
+    int next(int frameNumber) {
+        return next[frameNumber];
+    }
+
+    void addLast(int frameNumber) {
+        prev[frameNumber] = tail;
+        next[frameNumber] = NIL;
+        if (tail == NIL) {
+            head = frameNumber;
+        } else {
+            next[tail] = frameNumber;
+        }
+        tail = frameNumber;
+        size++;
+    }
+
+    /**
+     * Quita un marco de la lista. No hace nada si el marco no estaba enlazado.
+     * @return true si el marco estaba en la lista.
+     */
+    boolean remove(int frameNumber) {
+        int p = prev[frameNumber];
+        if (p == UNLINKED) {
+            return false;
+        }
+        int n = next[frameNumber];
+        if (p == NIL) {
+            head = n;
+        } else {
+            next[p] = n;
+        }
+        if (n == NIL) {
+            tail = p;
+        } else {
+            prev[n] = p;
+        }
+        prev[frameNumber] = UNLINKED;
+        size--;
+        return true;
+    }
+
+    /**
+     * Extrae el primer marco de la lista.
+     * @return El marco extraído, o NIL si la lista estaba vacía.
+     */
+    int removeFirst() {
+        int first = head;
+        if (first != NIL) {
+            remove(first);
+        }
+        return first;
+    }
+
+    /**
+     * Mueve un marco ya enlazado al final de la lista.
+     */
+    void moveToLast(int frameNumber) {
+        if (frameNumber != tail && remove(frameNumber)) {
+            addLast(frameNumber);
+        }
+    }
+
+    /**
+     * Pone newFrame en la posición que ocupaba oldFrame, que deja de estar enlazado.
+     * @return true si oldFrame estaba en la lista.
+     */
+    boolean replace(int oldFrame, int newFrame) {
+        int p = prev[oldFrame];
+        if (p == UNLINKED) {
+            return false;
+        }
+        int n = next[oldFrame];
+        prev[newFrame] = p;
+        next[newFrame] = n;
+        if (p == NIL) {
+            head = newFrame;
+        } else {
+            next[p] = newFrame;
+        }
+        if (n == NIL) {
+            tail = newFrame;
+        } else {
+            prev[n] = newFrame;
+        }
+        prev[oldFrame] = UNLINKED;
+        return true;
+    }
+
+    /**
+     * Representación abreviada de la lista para getStatus(); con decenas de miles
+     * de marcos no tiene sentido volcarla entera.
+     */
+    String describe(int maxElements) {
+        StringBuilder sb = new StringBuilder("[");
+        int shown = 0;
+        for (int f = head; f != NIL && shown < maxElements; f = next[f], shown++) {
+            if (shown > 0) {
+                sb.append(", ");
+            }
+            sb.append(f);
+        }
+        if (size > shown) {
+            sb.append(shown > 0 ? ", " : "").append("... (").append(size - shown).append(" más)");
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,175 @@
+package com.ia_assistant.os_core.memory.replacement;
+
+import java.util.Arrays;
+
+/**
+ * Lista LRU acotada de páginas ya desalojadas ("fantasmas"), identificadas por (PID, página).
+ * Sólo guarda identidades, no marcos: sirve a ARC y CLOCK-Pro para reconocer una página que
+ * vuelve poco después de haber salido. Pertenencia, inserción y borrado son O(1) y no reservan
+ * memoria: una tabla hash de direccionamiento abierto apunta a nodos de una lista doble en arrays.
+ */
+final class GhostList {
+
+    private static final int NIL = -1;
+    private static final long EMPTY_KEY = -1L;
+
+    private final int capacity;
+    // Nodos: clave y enlaces de la lista (cabeza = más antiguo, cola = más reciente)
+    private final long[] nodeKey;
+    private final int[] prev;
+    private final int[] next;
+    private final int[] freeNodes;
+    private int freeTop;
+    private int head = NIL;
+    private int tail = NIL;
+    private int size;
+
+    // Hash con sondeo lineal: clave -> nodo
+    private final long[] hashKeys;
+    private final int[] hashNodes;
+    private final int hashMask;
+
+    GhostList(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.nodeKey = new long[this.capacity];
+        this.prev = new int[this.capacity];
+        this.next = new int[this.capacity];
+        this.freeNodes = new int[this.capacity];
+        for (int i = 0; i < this.capacity; i++) {
+            freeNodes[i] = this.capacity - 1 - i;
+        }
+        this.freeTop = this.capacity;
+
+        int tableSize = Integer.highestOneBit(this.capacity * 2 - 1) << 1;
+        this.hashKeys = new long[tableSize];
+        this.hashNodes = new int[tableSize];
+        this.hashMask = tableSize - 1;
+        Arrays.fill(hashKeys, EMPTY_KEY);
+    }
+
+    static long key(int processId, int pageNumber) {
+        return ((long) processId << 32) | (pageNumber & 0xFFFFFFFFL);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    boolean contains(long key) {
+        return findSlot(key) >= 0;
+    }
+
+    /**
+     * Añade la clave como la más reciente. Si la lista está llena, descarta la más antigua.
+     * @return true si hubo que descartar una entrada para hacer sitio.
+     */
+    boolean addLast(long key) {
+        if (remove(key)) {
+            return addLast(key);
+        }
+        boolean evicted = false;
+        if (size == capacity) {
+            removeFirst();
+            evicted = true;
+        }
+        int node = freeNodes[--freeTop];
+        nodeKey[node] = key;
+        prev[node] = tail;
+        next[node] = NIL;
+        if (tail == NIL) {
+            head = node;
+        } else {
+            next[tail] = node;
+        }
+        tail = node;
+        size++;
+        hashInsert(key, node);
+        return evicted;
+    }
+
+    /**
+     * Descarta la entrada más antigua.
+     * @return false si la lista estaba vacía.
+     */
+    boolean removeFirst() {
+        if (head == NIL) {
+            return false;
+        }
+        return remove(nodeKey[head]);
+    }
+
+    boolean remove(long key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return false;
+        }
+        int node = hashNodes[slot];
+        hashDelete(slot);
+
+        int p = prev[node];
+        int n = next[node];
+        if (p == NIL) {
+            head = n;
+        } else {
+            next[p] = n;
+        }
+        if (n == NIL) {
+            tail = p;
+        } else {
+            prev[n] = p;
+        }
+        freeNodes[freeTop++] = node;
+        size--;
+        return true;
+    }
+
+    private int findSlot(long key) {
+        int slot = mix(key) & hashMask;
+        while (hashKeys[slot] != EMPTY_KEY) {
+            if (hashKeys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & hashMask;
+        }
+        return -1;
+    }
+
+    private void hashInsert(long key, int node) {
+        int slot = mix(key) & hashMask;
+        while (hashKeys[slot] != EMPTY_KEY) {
+            slot = (slot + 1) & hashMask;
+        }
+        hashKeys[slot] = key;
+        hashNodes[slot] = node;
+    }
+
+    // Borrado con desplazamiento hacia atrás: no deja lápidas que degraden las búsquedas.
+    private void hashDelete(int slot) {
+        int hole = slot;
+        int probe = slot;
+        while (true) {
+            probe = (probe + 1) & hashMask;
+            long k = hashKeys[probe];
+            if (k == EMPTY_KEY) {
+                break;
+            }
+            int home = mix(k) & hashMask;
+            // ¿Puede la entrada de 'probe' ocupar el hueco sin quedar antes de su posición natural?
+            if (((probe - home) & hashMask) >= ((probe - hole) & hashMask)) {
+                hashKeys[hole] = k;
+                hashNodes[hole] = hashNodes[probe];
+                hole = probe;
+            }
+        }
+        hashKeys[hole] = EMPTY_KEY;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -1,29 +1,28 @@
 package com.ia_assistant.os_core.memory.replacement;
 
-import java.util.LinkedList;
+import com.ia_assistant.os_core.memory.FrameTable;
 
 /**
  * Implementa el algoritmo de reemplazo de páginas Least Recently Used (LRU).
  */
 public class LRUStrategy implements PageReplacementAlgorithm {
 
-    // Usamos una LinkedList para mantener el orden de uso. 
+    // Lista intrusiva para mantener el orden de uso.
     // El principio de la lista es el "menos recientemente usado".
     // El final de la lista es el "más recientemente usado".
-    private final LinkedList<Integer> lruList;
+    private FrameList lruList;
 
-    public LRUStrategy() {
-        this.lruList = new LinkedList<>();
+    @Override
+    public void initialize(FrameTable frames) {
+        this.lruList = new FrameList(frames.size());
     }
 
     @Override
-    public Integer findVictimFrame() {
+    public int findVictimFrame() {
         // La víctima es el primer elemento de la lista (el menos recientemente usado).
         // Lo quitamos de la lista al seleccionarlo.
-        if (lruList.isEmpty()) {
-            return null;
-        }
-        return lruList.removeFirst(); 
+        int victim = lruList.removeFirst();
+        return victim == FrameList.NIL ? NO_FRAME : victim;
     }
 
     @Override
@@ -37,23 +36,19 @@ public class LRUStrategy implements PageReplacementAlgorithm {
     public void onPageAccess(int frameNumber) {
         // ¡Esta es la lógica clave de LRU!
         // Cuando se accede a una página que ya está en memoria, debemos marcarla como "muy reciente".
-        // Lo logramos moviendo su número de marco al final de la lista.
-        
-        // Primero, lo quitamos de su posición actual.
-        // Usamos remove(Object) para asegurarnos de que trata el int como un elemento a borrar,
-        // no como un índice.
-        boolean removed = lruList.remove(Integer.valueOf(frameNumber));
-
-        // Si estaba en la lista, lo volvemos a añadir al final.
-        if (removed) {
-            lruList.addLast(frameNumber);
-        }
+        // Los enlaces están indexados por marco, así que moverla al final es O(1).
+        lruList.moveToLast(frameNumber);
     }
 
     @Override
     public void onFrameFree(int frameNumber) {
         // Si un marco se libera, hay que quitarlo de nuestra lista de seguimiento.
-        lruList.remove(Integer.valueOf(frameNumber));
+        lruList.remove(frameNumber);
+    }
+
+    @Override
+    public void onFrameMigrated(int oldFrame, int newFrame) {
+        lruList.replace(oldFrame, newFrame);
     }
 
     @Override
@@ -63,6 +58,6 @@ public class LRUStrategy implements PageReplacementAlgorithm {
 
     @Override
     public String getStatus() {
-        return "Orden de Uso (LRU -> MRU): " + lruList.toString();
+        return "Orden de Uso (LRU -> MRU): " + lruList.describe(32);
     }
 }
@@ -0,0 +1,141 @@
+package com.ia_assistant.os_core.memory.replacement;
+
+import com.ia_assistant.os_core.memory.FrameTable;
+import com.ia_assistant.os_core.memory.trace.ReferenceString;
+import java.util.Arrays;
+
+/**
+ * Algoritmo óptimo de Belady (OPT/MIN): desaloja la página residente cuyo próximo uso está más lejos.
+ * Es fuera de línea, porque necesita conocer todos los accesos futuros: se construye a partir de la
+ * traza (ReferenceString) que se va a reproducir y sirve de cota inferior para comparar el resto.
+ *
+ * No recibe los aciertos: sabe por dónde va la traza gracias a las faltas. Entre dos faltas ninguna
+ * página sale de memoria, así que la página que falla es la primera aparición de esa página después de
+ * la falta anterior. Por eso exige reproducir la traza en una sola CPU, sin lectura anticipada ni
+ * recorte de conjuntos residentes (que cargan o quitan páginas sin que nadie las pida).
+ *
+ * Cada marco guarda el próximo uso que se le conocía. Dos montículos sobre esa prioridad dan la víctima
+ * (el más lejano) y los marcos cuyo uso ya pasó (el más cercano), que se actualizan antes de elegir
+ * avanzando por la cadena de siguiente uso de su página. Cada actualización corresponde a un acierto,
+ * así que el coste total es O(log marcos) por acceso, nunca un recorrido del futuro por falta.
+ */
+public class OptimalStrategy implements PageReplacementAlgorithm {
+
+    private final ReferenceString references;
+    private FrameTable frames;
+    private int position = -1;  // Índice en la traza del acceso que provocó la última falta
+    private int[] cursor;       // Por página de la traza: su primer acceso posterior a lo ya visto
+    private int[] pageIds;      // Por marco: la página de la traza que contiene, o -1
+    private int[] nextUse;      // Por marco: próximo uso conocido de su página
+    private FrameHeap farthest; // Por próximo uso, el más lejano primero: la víctima
+    private FrameHeap soonest;  // Por próximo uso, el más cercano primero: los que hay que actualizar
+
+    public OptimalStrategy(ReferenceString references) {
+        this.references = references;
+    }
+
+    @Override
+    public void initialize(FrameTable frames) {
+        this.frames = frames;
+        this.position = -1;
+        this.cursor = new int[references.distinctPages()];
+        for (int id = 0; id < cursor.length; id++) {
+            cursor[id] = references.firstAccess(id);
+        }
+        this.pageIds = new int[frames.size()];
+        this.nextUse = new int[frames.size()];
+        Arrays.fill(pageIds, -1);
+        this.farthest = new FrameHeap(frames.size(), nextUse, true);
+        this.soonest = new FrameHeap(frames.size(), nextUse, false);
+    }
+
+    @Override
+    public void onPageFault(int processId, int pageNumber) {
+        int id = references.pageId(processId, pageNumber);
+        if (id >= 0) {
+            int access = useAfter(id, position);
+            if (access != ReferenceString.NEVER) {
+                position = access;
+            }
+        }
+    }
+
+    @Override
+    public int findVictimFrame() {
+        // Los marcos cuyo próximo uso conocido ya pasó se usaron después: su siguiente uso está más adelante.
+        while (!soonest.isEmpty() && nextUse[soonest.peek()] <= position) {
+            int frame = soonest.peek();
+            nextUse[frame] = useAfter(pageIds[frame], position);
+            soonest.update(frame);
+            farthest.update(frame);
+        }
+        int victim = farthest.peek();
+        if (victim == FrameHeap.NIL) {
+            return NO_FRAME;
+        }
+        onFrameFree(victim);
+        return victim;
+    }
+
+    @Override
+    public void onPageLoad(int frameNumber) {
+        int id = references.pageId(frames.getOwnerPid(frameNumber), frames.getPageNumber(frameNumber));
+        pageIds[frameNumber] = id;
+        nextUse[frameNumber] = id < 0 ? ReferenceString.NEVER : useAfter(id, position);
+        farthest.add(frameNumber);
+        soonest.add(frameNumber);
+    }
+
+    @Override
+    public void onPageAccess(int frameNumber) {
+        // Los aciertos se deducen de la traza.
+    }
+
+    @Override
+    public boolean tracksAccesses() {
+        return false;
+    }
+
+    @Override
+    public void onFrameFree(int frameNumber) {
+        farthest.remove(frameNumber);
+        soonest.remove(frameNumber);
+        pageIds[frameNumber] = -1;
+    }
+
+    @Override
+    public void onFrameMigrated(int oldFrame, int newFrame) {
+        int id = pageIds[oldFrame];
+        int use = nextUse[oldFrame];
+        onFrameFree(oldFrame);
+        pageIds[newFrame] = id;
+        nextUse[newFrame] = use;
+        farthest.add(newFrame);
+        soonest.add(newFrame);
+    }
+
+    /**
+     * @return El primer acceso a la página posterior al índice dado, o NEVER.
+     */
+    private int useAfter(int pageId, int index) {
+        if (pageId < 0) {
+            return ReferenceString.NEVER;
+        }
+        int access = cursor[pageId];
+        while (access <= index) {
+            access = references.nextAccess(access);
+        }
+        cursor[pageId] = access;
+        return access;
+    }
+
+    @Override
+    public String getName() {
+        return "OPT (Belady, fuera de línea)";
+    }
+
+    @Override
+    public String getStatus() {
+        return String.format("OPT: acceso %d de %d en la traza, %d marcos rastreados", position + 1, references.length(), farthest.size());
+    }
+}
@@ -1,17 +1,47 @@
 package com.ia_assistant.os_core.memory.replacement;
 
+import com.ia_assistant.os_core.memory.FrameTable;
+
 /**
  * Interfaz para las estrategias de reemplazo de páginas.
  * Esto permite que el MemoryManager utilice diferentes algoritmos (FIFO, LRU, etc.) de forma intercambiable.
+ *
+ * Las implementaciones no necesitan ser seguras para hilos: el MemoryManager serializa todas las
+ * llamadas con un único cerrojo. Los accesos a páginas residentes (onPageAccess) llegan en lotes y con
+ * retraso, y pueden referirse a marcos que ya no se rastrean; en ese caso deben ignorarse.
  */
 public interface PageReplacementAlgorithm {
 
+    /**
+     * Valor devuelto por findVictimFrame() cuando no hay ningún marco que desalojar.
+     */
+    int NO_FRAME = -1;
+
+    /**
+     * Prepara las estructuras internas del algoritmo para la memoria física dada.
+     * El MemoryManager lo llama al instalar la estrategia, antes de cualquier otra notificación.
+     * La tabla de marcos da acceso a los bits de referencia/modificado y al propietario de cada marco.
+     * @param frames La tabla de marcos físicos.
+     */
+    void initialize(FrameTable frames);
+
+    /**
+     * Notifica que la página indicada ha provocado una falta, antes de buscar víctima.
+     * Los algoritmos con historial de páginas ya desalojadas (ARC, CLOCK-Pro) lo usan para adaptarse.
+     * Con varias CPUs pueden intercalarse faltas de otras páginas antes del onPageLoad() correspondiente,
+     * así que no debe dejar estado pendiente para esa carga.
+     * @param processId El proceso que sufrió la falta.
+     * @param pageNumber La página que se va a cargar.
+     */
+    default void onPageFault(int processId, int pageNumber) {
+    }
+
     /**
      * Se llama cuando se produce un fallo de página y no hay marcos libres.
-     * El algoritmo debe decidir qué marco de página debe ser la "víctima".
-     * @return El número del marco físico que ha sido seleccionado para reemplazo.
+     * El algoritmo debe decidir qué marco de página debe ser la "víctima" y dejar de rastrearlo.
+     * @return El número del marco físico que ha sido seleccionado para reemplazo, o NO_FRAME si no hay ninguno.
      */
-    Integer findVictimFrame();
+    int findVictimFrame();
 
     /**
      * Notifica al algoritmo que una página ha sido cargada en un marco.
@@ -27,13 +57,33 @@ public interface PageReplacementAlgorithm {
      */
     void onPageAccess(int frameNumber);
 
+    /**
+     * Indica si el algoritmo necesita recibir onPageAccess(). Los que sólo usan el bit de referencia
+     * devuelven false y el MemoryManager se ahorra registrar los aciertos.
+     */
+    default boolean tracksAccesses() {
+        return true;
+    }
+
     /**
      * Notifica al algoritmo que un marco ha sido liberado (ej. cuando un proceso termina).
      * El algoritmo debe dejar de rastrear este marco.
      * @param frameNumber El número del marco que ha sido liberado.
      */
     void onFrameFree(int frameNumber);
-    
+
+    /**
+     * Notifica que la página de un marco se ha trasladado a otro (compactación de memoria física).
+     * La página es la misma, así que el nuevo marco debería heredar la posición del antiguo; por defecto
+     * se trata como una liberación seguida de una carga, lo que pierde su historial.
+     * @param oldFrame El marco que ocupaba la página.
+     * @param newFrame El marco que la ocupa ahora.
+     */
+    default void onFrameMigrated(int oldFrame, int newFrame) {
+        onFrameFree(oldFrame);
+        onPageLoad(newFrame);
+    }
+
     /**
      * Obtiene el nombre de la estrategia actual (ej. "FIFO", "LRU").
      * @return El nombre del algoritmo.
@@ -0,0 +1,53 @@
+package com.ia_assistant.os_core.memory.replacement;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Registro de las estrategias de reemplazo que se pueden elegir por nombre corto ("fifo", "lru"...).
+ * Lo usan MemoryManager.setReplacementAlgorithm(String) y las herramientas de comparación, así que una
+ * estrategia nueva sólo hay que registrarla aquí. Las que necesitan datos externos, como OPT con su
+ * traza, no se registran: se construyen a mano.
+ */
+public final class ReplacementPolicies {
+
+    private static final Map<String, Supplier<PageReplacementAlgorithm>> POLICIES = new LinkedHashMap<>();
+
+    static {
+        register("fifo", FIFOStrategy::new);
+        register("lru", LRUStrategy::new);
+        register("clock", ClockStrategy::new);
+        register("arc", ARCStrategy::new);
+        register("clockpro", ClockProStrategy::new);
+    }
+
+    private ReplacementPolicies() {
+    }
+
+    /**
+     * Registra (o sustituye) una estrategia. El nombre no distingue mayúsculas.
+     */
+    public static synchronized void register(String name, Supplier<PageReplacementAlgorithm> factory) {
+        POLICIES.put(name.toLowerCase(Locale.ROOT), factory);
+    }
+
+    /**
+     * @return Una instancia nueva de la estrategia, o vacío si el nombre no está registrado.
+     */
+    public static synchronized Optional<PageReplacementAlgorithm> create(String name) {
+        Supplier<PageReplacementAlgorithm> factory = POLICIES.get(name.toLowerCase(Locale.ROOT));
+        return factory == null ? Optional.empty() : Optional.of(factory.get());
+    }
+
+    /**
+     * @return Los nombres registrados, en orden de registro.
+     */
+    public static synchronized List<String> names() {
+        return new ArrayList<>(POLICIES.keySet());
+    }
+}
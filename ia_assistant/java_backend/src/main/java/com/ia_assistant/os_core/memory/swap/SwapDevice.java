@@ -0,0 +1,324 @@
+package com.ia_assistant.os_core.memory.swap;
+
+import com.ia_assistant.os_core.Process;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dispositivo de swap respaldado por un fichero mapeado en memoria.
+ *
+ * El fichero se divide en huecos del tamaño de una página y se mapea por trozos con FileChannel.map,
+ * así que escribir o leer una página es una copia de memoria: el sistema operativo anfitrión decide
+ * cuándo llega al disco. Para que el desalojo no espere nunca a la E/S, las escrituras sólo anotan el
+ * rango modificado de cada trozo y un hilo de fondo lo fuerza a disco por lotes (cada WRITEBACK_BATCH
+ * páginas o cada WRITEBACK_PERIOD_MS, lo que ocurra antes).
+ *
+ * Los huecos libres se gestionan con una pila y una marca de agua bajo el monitor del dispositivo.
+ * Cada hueco lleva un contador de referencias: tras un fork() varias tablas de páginas pueden apuntar a
+ * la misma copia, que sólo vuelve a estar libre cuando todas la sueltan.
+ * Leer y escribir huecos distintos desde varios hilos es seguro: las copias son absolutas y no tocan
+ * la posición de ningún buffer; el MemoryManager garantiza que un mismo hueco no se usa a la vez.
+ */
+public class SwapDevice implements AutoCloseable {
+
+    public static final int NO_SLOT = -1;
+    public static final int PAGE_BYTES = Process.PAGE_SIZE_KB * 1024;
+
+    public static final int WRITEBACK_BATCH = 64;
+    public static final long WRITEBACK_PERIOD_MS = 50;
+
+    // 2^18 páginas de 4 KB = 1 GB por trozo mapeado, por debajo del límite de 2 GB de un buffer.
+    private static final int CHUNK_SHIFT = 18;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    private final Path file;
+    private final boolean deleteOnClose;
+    private final int slotCount;
+    private final RandomAccessFile backingFile;
+    private final MappedByteBuffer[] chunks;
+
+    // Huecos libres: pila de huecos devueltos más una marca de agua de huecos nunca usados.
+    private final int[] freeStack;
+    private int freeTop;
+    private int nextUnused;
+    private int usedSlots;
+    private final int[] references; // Referencias a cada hueco ocupado (entradas de tabla o marcos)
+
+    // Rango [min, max] de huecos escritos y aún no forzados a disco, por trozo (protegido por pendingLock).
+    private final Object pendingLock = new Object();
+    private final int[] pendingMin;
+    private final int[] pendingMax;
+    private int pendingPages;
+    private final AtomicBoolean flushQueued = new AtomicBoolean(false);
+    private final ScheduledExecutorService flusher;
+
+    // Métricas
+    private final LongAdder swapIns = new LongAdder();
+    private final LongAdder swapOuts = new LongAdder();
+    private volatile long writeBackBatches;
+    private volatile long pagesWrittenBack;
+
+    /**
+     * Crea (o trunca) el fichero de swap y lo mapea en memoria.
+     * @param file Ruta del fichero de swap.
+     * @param slotCount Número de páginas que caben en el dispositivo.
+     * @throws IOException Si el fichero no se puede crear o mapear.
+     */
+    public SwapDevice(Path file, int slotCount) throws IOException {
+        this(file, slotCount, false);
+    }
+
+    private SwapDevice(Path file, int slotCount, boolean deleteOnClose) throws IOException {
+        if (slotCount <= 0) {
+            throw new IllegalArgumentException("El dispositivo de swap necesita al menos un hueco: " + slotCount);
+        }
+        this.file = file;
+        this.deleteOnClose = deleteOnClose;
+        this.slotCount = slotCount;
+        this.backingFile = new RandomAccessFile(file.toFile(), "rw");
+        try {
+            long totalBytes = (long) slotCount * PAGE_BYTES;
+            // setLength deja un fichero disperso: sólo ocupa disco lo que realmente se escribe.
+            backingFile.setLength(totalBytes);
+            FileChannel channel = backingFile.getChannel();
+            int chunkCount = ((slotCount - 1) >>> CHUNK_SHIFT) + 1;
+            this.chunks = new MappedByteBuffer[chunkCount];
+            for (int c = 0; c < chunkCount; c++) {
+                long offset = ((long) c << CHUNK_SHIFT) * PAGE_BYTES;
+                chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE, offset, Math.min(totalBytes - offset, (long) PAGE_BYTES << CHUNK_SHIFT));
+            }
+        } catch (IOException e) {
+            backingFile.close();
+            throw e;
+        }
+        this.freeStack = new int[slotCount];
+        this.references = new int[slotCount];
+        this.freeTop = 0;
+        this.nextUnused = 0;
+        this.pendingMin = new int[chunks.length];
+        this.pendingMax = new int[chunks.length];
+        Arrays.fill(pendingMin, Integer.MAX_VALUE);
+        Arrays.fill(pendingMax, -1);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "swap-writeback");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::writeBackPending, WRITEBACK_PERIOD_MS, WRITEBACK_PERIOD_MS, TimeUnit.MILLISECONDS);
+
+        System.out.println("SwapDevice: Listo. " + slotCount + " huecos de " + Process.PAGE_SIZE_KB + " KB en " + file);
+    }
+
+    /**
+     * Crea un dispositivo de swap sobre un fichero temporal que se borra al cerrarlo.
+     */
+    public static SwapDevice createTemporary(int slotCount) throws IOException {
+        Path file = Files.createTempFile("aurora-swap", ".swp");
+        file.toFile().deleteOnExit();
+        return new SwapDevice(file, slotCount, true);
+    }
+
+    /**
+     * Reserva un hueco libre.
+     * @return El número de hueco, o NO_SLOT si el dispositivo está lleno.
+     */
+    public synchronized int allocateSlot() {
+        int slot;
+        if (freeTop > 0) {
+            slot = freeStack[--freeTop];
+        } else if (nextUnused < slotCount) {
+            slot = nextUnused++;
+        } else {
+            return NO_SLOT;
+        }
+        usedSlots++;
+        references[slot] = 1;
+        return slot;
+    }
+
+    /**
+     * Suelta una referencia a un hueco. Con la última, vuelve al dispositivo y su contenido deja de ser válido.
+     */
+    public synchronized void freeSlot(int slot) {
+        if (--references[slot] > 0) {
+            return;
+        }
+        freeStack[freeTop++] = slot;
+        usedSlots--;
+    }
+
+    /**
+     * Añade una referencia a un hueco ocupado (otra tabla de páginas apunta a la misma copia).
+     */
+    public synchronized void duplicateSlot(int slot) {
+        references[slot]++;
+    }
+
+    /**
+     * @return true si más de una página apunta al hueco, así que no se puede sobrescribir en su sitio.
+     */
+    public synchronized boolean isSlotShared(int slot) {
+        return references[slot] > 1;
+    }
+
+    /**
+     * Copia una página al hueco indicado. La copia es inmediata; el volcado a disco se hace en segundo plano.
+     * @param slot Hueco de destino.
+     * @param source Buffer con la imagen de la página.
+     * @param offset Posición de la página dentro de source.
+     */
+    public void writePage(int slot, ByteBuffer source, int offset) {
+        int chunk = slot >>> CHUNK_SHIFT;
+        int index = slot & CHUNK_MASK;
+        chunks[chunk].put(index * PAGE_BYTES, source, offset, PAGE_BYTES);
+        swapOuts.increment();
+
+        boolean batchFull;
+        synchronized (pendingLock) {
+            if (index < pendingMin[chunk]) {
+                pendingMin[chunk] = index;
+            }
+            if (index > pendingMax[chunk]) {
+                pendingMax[chunk] = index;
+            }
+            batchFull = ++pendingPages >= WRITEBACK_BATCH;
+        }
+        if (batchFull && flushQueued.compareAndSet(false, true)) {
+            flusher.execute(this::writeBackPending);
+        }
+    }
+
+    /**
+     * Copia el contenido de un hueco a una página de memoria.
+     * @param slot Hueco de origen.
+     * @param destination Buffer donde se deja la imagen de la página.
+     * @param offset Posición de la página dentro de destination.
+     */
+    public void readPage(int slot, ByteBuffer destination, int offset) {
+        int chunk = slot >>> CHUNK_SHIFT;
+        int index = slot & CHUNK_MASK;
+        destination.put(offset, chunks[chunk], index * PAGE_BYTES, PAGE_BYTES);
+        swapIns.increment();
+    }
+
+    /**
+     * Fuerza a disco, de forma síncrona, todas las escrituras pendientes.
+     */
+    public void flush() {
+        writeBackPending();
+    }
+
+    /**
+     * Vuelca a disco los rangos modificados desde el último lote. Lo ejecuta el hilo de fondo.
+     */
+    private void writeBackPending() {
+        flushQueued.set(false);
+        int pages;
+        int[] min = new int[chunks.length];
+        int[] max = new int[chunks.length];
+        synchronized (pendingLock) {
+            pages = pendingPages;
+            if (pages == 0) {
+                return;
+            }
+            System.arraycopy(pendingMin, 0, min, 0, min.length);
+            System.arraycopy(pendingMax, 0, max, 0, max.length);
+            Arrays.fill(pendingMin, Integer.MAX_VALUE);
+            Arrays.fill(pendingMax, -1);
+            pendingPages = 0;
+        }
+        try {
+            for (int c = 0; c < chunks.length; c++) {
+                if (max[c] >= 0) {
+                    chunks[c].force(min[c] * PAGE_BYTES, (max[c] - min[c] + 1) * PAGE_BYTES);
+                }
+            }
+        } catch (UncheckedIOException e) {
+            System.err.println("SwapDevice: Error al volcar páginas a disco: " + e.getMessage());
+            return;
+        }
+        writeBackBatches++;
+        pagesWrittenBack += pages;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public synchronized int getUsedSlotCount() {
+        return usedSlots;
+    }
+
+    public long getSwapInCount() {
+        return swapIns.sum();
+    }
+
+    public long getSwapOutCount() {
+        return swapOuts.sum();
+    }
+
+    public long getSwapInBytes() {
+        return getSwapInCount() * PAGE_BYTES;
+    }
+
+    public long getSwapOutBytes() {
+        return getSwapOutCount() * PAGE_BYTES;
+    }
+
+    /**
+     * @return Número de lotes de escritura diferida completados.
+     */
+    public long getWriteBackBatches() {
+        return writeBackBatches;
+    }
+
+    /**
+     * @return Páginas escritas que el hilo de fondo ya ha forzado a disco.
+     */
+    public long getPagesWrittenBack() {
+        return pagesWrittenBack;
+    }
+
+    /**
+     * Pone a cero los contadores de entradas y salidas de swap.
+     */
+    public void resetStatistics() {
+        swapIns.reset();
+        swapOuts.reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeBackPending();
+        backingFile.close();
+        if (deleteOnClose) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Swap: %d/%d huecos usados, entradas=%d (%d KB), salidas=%d (%d KB), lotes volcados=%d (%d páginas)",
+                getUsedSlotCount(), slotCount, getSwapInCount(), getSwapInBytes() / 1024, getSwapOutCount(), getSwapOutBytes() / 1024,
+                writeBackBatches, pagesWrittenBack);
+    }
+}
@@ -0,0 +1,166 @@
+package com.ia_assistant.os_core.memory.trace;
+
+import com.ia_assistant.os_core.Process;
+import com.ia_assistant.os_core.memory.MemoryManager;
+import com.ia_assistant.os_core.memory.replacement.ReplacementPolicies;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Mide el rendimiento de MemoryManager.accessMemory() con varias CPUs simuladas accediendo a la vez, cada
+ * una desde un hilo real del anfitrión: el mismo número total de accesos se reparte entre 1, 2, 4... CPUs
+ * y se sacan el tiempo, los accesos por segundo, la aceleración respecto a una sola CPU y la tasa de
+ * fallos. La fila de una CPU es el coste de un acceso sin contención, con todas las operaciones atómicas
+ * y cerrojos del camino concurrente; la aceleración nunca pasa del número de núcleos de la máquina.
+ *
+ * Los accesos son sintéticos y se generan antes de medir: cada CPU elige al azar uno de los procesos y una
+ * dirección con distribución normal en torno al principio de su espacio virtual (así hay localidad y
+ * también fallos), y uno de cada cuatro es una escritura. La semilla de cada CPU es fija.
+ */
+public class ConcurrentAccessBenchmark {
+
+    public static final int PROCESSES = 8;
+    public static final int VIRTUAL_SIZE_KB = 16 * 1024;
+    public static final int SPREAD_KB = 256; // Desviación típica de las direcciones dentro de cada proceso
+
+    private final String policy;
+    private final int memoryMB;
+    private final int accesses;
+
+    /**
+     * @param policy   Estrategia de reemplazo de ReplacementPolicies.
+     * @param memoryMB Memoria física del MemoryManager.
+     * @param accesses Accesos en total, repartidos entre las CPUs.
+     */
+    public ConcurrentAccessBenchmark(String policy, int memoryMB, int accesses) {
+        if (ReplacementPolicies.create(policy).isEmpty()) {
+            throw new IllegalArgumentException("Algoritmo de reemplazo desconocido: " + policy);
+        }
+        this.policy = policy;
+        this.memoryMB = memoryMB;
+        this.accesses = accesses;
+    }
+
+    /**
+     * Hace los accesos desde cpus hilos reales, uno por CPU simulada, sobre un MemoryManager nuevo.
+     */
+    public Result run(int cpus) throws InterruptedException {
+        MemoryManager memoryManager = new MemoryManager(memoryMB);
+        memoryManager.setReplacementAlgorithm(policy);
+        memoryManager.setVerbose(false);
+        memoryManager.configureTlbs(cpus, 64, 4);
+        Process[] processes = new Process[PROCESSES];
+        for (int i = 0; i < processes.length; i++) {
+            processes[i] = new Process(i + 1, "bench-" + (i + 1), 0, VIRTUAL_SIZE_KB);
+        }
+
+        int perCpu = accesses / cpus;
+        int[][] addresses = new int[cpus][perCpu]; // Dirección, con el proceso en los 3 bits bajos y la escritura en el 4º
+        for (int cpu = 0; cpu < cpus; cpu++) {
+            SplittableRandom random = new SplittableRandom(cpu);
+            for (int i = 0; i < perCpu; i++) {
+                int address = (int) (Math.abs(random.nextGaussian()) * SPREAD_KB * 1024) % (VIRTUAL_SIZE_KB * 1024);
+                addresses[cpu][i] = (address & ~0xF) | (random.nextInt(4) == 0 ? 8 : 0) | random.nextInt(PROCESSES);
+            }
+        }
+
+        boolean[] failed = new boolean[cpus];
+        java.lang.Thread[] workers = new java.lang.Thread[cpus];
+        for (int cpu = 0; cpu < cpus; cpu++) {
+            int id = cpu;
+            workers[cpu] = new java.lang.Thread(() -> {
+                for (int encoded : addresses[id]) {
+                    Process process = processes[encoded & 7];
+                    if (!memoryManager.accessMemory(id, process, encoded & ~0xF, (encoded & 8) != 0)) {
+                        failed[id] = true;
+                        return;
+                    }
+                }
+            }, "memory-cpu-" + cpu);
+        }
+        long start = System.nanoTime();
+        for (java.lang.Thread worker : workers) {
+            worker.start();
+        }
+        for (java.lang.Thread worker : workers) {
+            worker.join();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        for (boolean f : failed) {
+            if (f) {
+                throw new IllegalStateException("Un acceso falló: falta memoria para resolver un fallo de página");
+            }
+        }
+        return new Result(cpus, (long) perCpu * cpus, elapsedNanos, memoryManager.getFaultRate());
+    }
+
+    /**
+     * Resultado de una medida con un número de CPUs.
+     */
+    public static final class Result {
+
+        private final int cpus;
+        private final long accesses;
+        private final long elapsedNanos;
+        private final double faultRate;
+
+        Result(int cpus, long accesses, long elapsedNanos, double faultRate) {
+            this.cpus = cpus;
+            this.accesses = accesses;
+            this.elapsedNanos = elapsedNanos;
+            this.faultRate = faultRate;
+        }
+
+        public int getCpus() {
+            return cpus;
+        }
+
+        public double getElapsedSeconds() {
+            return elapsedNanos / 1e9;
+        }
+
+        /**
+         * @return Accesos por segundo de tiempo real.
+         */
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0 : accesses / (elapsedNanos / 1e9);
+        }
+
+        public double getFaultRate() {
+            return faultRate;
+        }
+    }
+
+    /**
+     * Mide la escalabilidad desde la línea de comandos:
+     * ConcurrentAccessBenchmark [cpus=1,2,4,8] [estrategia=lru] [memoriaMB=4] [accesos=4000000]
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length > 0 && (args[0].equals("-h") || args[0].equals("--help"))) {
+            System.out.println("Uso: ConcurrentAccessBenchmark [cpus,cpus,...] [estrategia] [memoriaMB] [accesos]");
+            System.out.println("Estrategias disponibles: " + String.join(", ", ReplacementPolicies.names()));
+            return;
+        }
+        int[] cpuCounts = Arrays.stream((args.length > 0 ? args[0] : "1,2,4,8").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        String policy = args.length > 1 ? args[1] : "lru";
+        int memoryMB = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int accesses = args.length > 3 ? Integer.parseInt(args[3]) : 4_000_000;
+
+        ConcurrentAccessBenchmark benchmark = new ConcurrentAccessBenchmark(policy, memoryMB, accesses);
+        benchmark.run(1); // Calentamiento del JIT
+        System.out.printf("%n%d accesos, %s, %d MB, %d núcleos en el anfitrión%n", accesses, policy, memoryMB,
+                          Runtime.getRuntime().availableProcessors());
+        System.out.printf("%6s %10s %14s %12s %12s%n", "cpus", "segundos", "M accesos/s", "aceleración", "fallos (%)");
+        double baseline = 0;
+        for (int cpus : cpuCounts) {
+            Result result = benchmark.run(cpus);
+            if (baseline == 0) {
+                baseline = result.getThroughput();
+            }
+            System.out.printf("%6d %10.2f %14.2f %12.2f %12.3f%n", cpus, result.getElapsedSeconds(),
+                              result.getThroughput() / 1e6, result.getThroughput() / baseline,
+                              result.getFaultRate() * 100);
+        }
+    }
+}
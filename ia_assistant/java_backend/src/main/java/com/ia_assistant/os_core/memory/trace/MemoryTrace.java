@@ -0,0 +1,36 @@
+package com.ia_assistant.os_core.memory.trace;
+
+import java.nio.ByteOrder;
+
+/**
+ * Formato binario de las trazas de acceso a memoria.
+ *
+ * Cabecera de HEADER_BYTES: magic (int), versión (int), número de registros (long).
+ * Después, registros de RECORD_BYTES: una palabra con el PID (bit 31 = escritura) y la dirección virtual.
+ * Todo en little-endian, para que una traza generada en cualquier máquina se pueda mapear tal cual.
+ */
+public final class MemoryTrace {
+
+    public static final int MAGIC = 0x52545541; // "AUTR" en little-endian
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 16;
+    public static final int RECORD_BYTES = 8;
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private static final int WRITE_FLAG = 0x8000_0000;
+
+    private MemoryTrace() {
+    }
+
+    static int encodePid(int processId, boolean write) {
+        return write ? (processId | WRITE_FLAG) : processId;
+    }
+
+    static int pidOf(int word) {
+        return word & ~WRITE_FLAG;
+    }
+
+    static boolean isWrite(int word) {
+        return (word & WRITE_FLAG) != 0;
+    }
+}
@@ -0,0 +1,190 @@
+package com.ia_assistant.os_core.memory.trace;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Cadena de referencias de una traza, indexada por "siguiente uso": para cada acceso, el índice del
+ * próximo acceso a la misma página (PID, página virtual). Es lo que necesita un algoritmo fuera de línea
+ * como OPT para saber en O(1) cuándo volverá a usarse cada página, sin recorrer el futuro en cada falta.
+ *
+ * Se construye con dos pasadas: una hacia delante que numera las páginas distintas con una tabla hash
+ * de direccionamiento abierto, y otra hacia atrás que encadena cada acceso con el siguiente de su página.
+ * Ocupa un int por registro de la traza más unos pocos por página distinta.
+ */
+public final class ReferenceString {
+
+    /**
+     * Índice que indica que la página no vuelve a usarse en la traza.
+     */
+    public static final int NEVER = Integer.MAX_VALUE;
+
+    private static final long EMPTY_KEY = -1L;
+
+    private final int[] next;  // Por acceso: índice del siguiente acceso a la misma página, o NEVER
+    private final int[] first; // Por página distinta: índice de su primer acceso
+    private final long[] hashKeys;
+    private final int[] hashIds;
+    private final int hashMask;
+
+    private ReferenceString(int[] next, int[] first, long[] hashKeys, int[] hashIds) {
+        this.next = next;
+        this.first = first;
+        this.hashKeys = hashKeys;
+        this.hashIds = hashIds;
+        this.hashMask = hashKeys.length - 1;
+    }
+
+    /**
+     * Lee una traza y construye su índice de siguiente uso.
+     * @param pageShift log2 del tamaño de página con el que se reproducirá la traza.
+     * @throws IOException Si el fichero no se puede leer, no es una traza o tiene más de 2^31 - 2 registros.
+     */
+    public static ReferenceString load(Path tracePath, int pageShift) throws IOException {
+        try (FileChannel channel = FileChannel.open(tracePath, StandardOpenOption.READ)) {
+            long recordCount = TraceReplayer.readHeader(channel, tracePath);
+            if (recordCount >= NEVER) {
+                throw new IOException("La traza es demasiado larga para indexarla (" + recordCount + " registros): " + tracePath);
+            }
+            int length = (int) recordCount;
+            // Primera pasada: el identificador de página de cada acceso. El mismo array pasa a guardar
+            // después el siguiente uso, así que el índice no necesita más memoria que la traza en ints.
+            int[] ids = new int[length];
+            Builder builder = new Builder();
+            int[] batch = new int[8192];
+            int index = 0;
+            long position = MemoryTrace.HEADER_BYTES;
+            long end = position + recordCount * MemoryTrace.RECORD_BYTES;
+            while (position < end) {
+                long windowBytes = Math.min(TraceReplayer.WINDOW_BYTES, end - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowBytes);
+                IntBuffer records = window.order(MemoryTrace.BYTE_ORDER).asIntBuffer();
+                while (records.hasRemaining()) {
+                    int ints = Math.min(batch.length, records.remaining());
+                    records.get(batch, 0, ints);
+                    for (int i = 0; i < ints; i += 2) {
+                        ids[index++] = builder.idOf(key(MemoryTrace.pidOf(batch[i]), batch[i + 1] >> pageShift));
+                    }
+                }
+                position += windowBytes;
+            }
+
+            // Segunda pasada, hacia atrás: al terminar, lastSeen guarda el primer acceso de cada página.
+            int[] lastSeen = new int[builder.size];
+            Arrays.fill(lastSeen, NEVER);
+            for (int i = length - 1; i >= 0; i--) {
+                int id = ids[i];
+                ids[i] = lastSeen[id];
+                lastSeen[id] = i;
+            }
+            return new ReferenceString(ids, lastSeen, builder.keys, builder.ids);
+        }
+    }
+
+    static long key(int processId, int pageNumber) {
+        return ((long) processId << 32) | (pageNumber & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return Número de accesos de la traza.
+     */
+    public int length() {
+        return next.length;
+    }
+
+    /**
+     * @return Número de páginas distintas que aparecen en la traza.
+     */
+    public int distinctPages() {
+        return first.length;
+    }
+
+    /**
+     * @return El identificador denso (0..distinctPages()) de una página, o -1 si no aparece en la traza.
+     */
+    public int pageId(int processId, int pageNumber) {
+        long key = key(processId, pageNumber);
+        int slot = mix(key) & hashMask;
+        while (hashKeys[slot] != EMPTY_KEY) {
+            if (hashKeys[slot] == key) {
+                return hashIds[slot];
+            }
+            slot = (slot + 1) & hashMask;
+        }
+        return -1;
+    }
+
+    /**
+     * @return El índice del primer acceso a la página.
+     */
+    public int firstAccess(int pageId) {
+        return first[pageId];
+    }
+
+    /**
+     * @return El índice del siguiente acceso a la misma página que el acceso dado, o NEVER.
+     */
+    public int nextAccess(int index) {
+        return next[index];
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Tabla hash creciente de la primera pasada: clave de página -> identificador denso.
+     */
+    private static final class Builder {
+
+        long[] keys = new long[1 << 16];
+        int[] ids = new int[1 << 16];
+        int size;
+
+        Builder() {
+            Arrays.fill(keys, EMPTY_KEY);
+        }
+
+        int idOf(long key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY_KEY) {
+                if (keys[slot] == key) {
+                    return ids[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            ids[slot] = size;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return size - 1;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldIds = ids;
+            keys = new long[oldKeys.length * 2];
+            ids = new int[oldIds.length * 2];
+            Arrays.fill(keys, EMPTY_KEY);
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY_KEY) {
+                    int slot = mix(oldKeys[i]) & mask;
+                    while (keys[slot] != EMPTY_KEY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    ids[slot] = oldIds[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.ia_assistant.os_core.memory.trace;
+
+import com.ia_assistant.os_core.Process;
+import com.ia_assistant.os_core.memory.MemoryManager;
+import com.ia_assistant.os_core.memory.replacement.OptimalStrategy;
+import com.ia_assistant.os_core.memory.replacement.PageReplacementAlgorithm;
+import com.ia_assistant.os_core.memory.replacement.ReplacementPolicies;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compara estrategias de reemplazo sobre una misma traza: la reproduce con cada estrategia y cada número
+ * de marcos, y saca las curvas de tasa de fallos frente a memoria y el rendimiento en accesos por segundo.
+ * "opt" es el óptimo de Belady, la cota inferior de la tasa de fallos; el resto son los nombres de
+ * ReplacementPolicies.
+ *
+ * Cada reproducción usa un MemoryManager nuevo de una sola CPU, sin lectura anticipada ni recorte de
+ * conjuntos residentes, para que las faltas sólo dependan de la estrategia (y OPT sea exacto).
+ */
+public class ReplacementBenchmark {
+
+    public static final String OPT = "opt";
+
+    private final Path tracePath;
+    private final int virtualSizeKB;
+    private ReferenceString references; // Se construye la primera vez que se pide OPT
+
+    public ReplacementBenchmark(Path tracePath, int virtualSizeKB) {
+        this.tracePath = tracePath;
+        this.virtualSizeKB = virtualSizeKB;
+    }
+
+    /**
+     * Reproduce la traza con una estrategia y un número de marcos.
+     * @throws IllegalArgumentException Si la estrategia no es "opt" ni está registrada.
+     */
+    public ReplayReport run(String policy, int frames) throws IOException {
+        PageReplacementAlgorithm algorithm;
+        if (OPT.equalsIgnoreCase(policy)) {
+            if (references == null) {
+                references = ReferenceString.load(tracePath, Integer.numberOfTrailingZeros(Process.PAGE_SIZE_KB * 1024));
+            }
+            algorithm = new OptimalStrategy(references);
+        } else {
+            algorithm = ReplacementPolicies.create(policy)
+                    .orElseThrow(() -> new IllegalArgumentException("Algoritmo de reemplazo desconocido: " + policy));
+        }
+        MemoryManager memoryManager = MemoryManager.withFrames(frames, algorithm);
+        memoryManager.setReadahead(false);
+        memoryManager.setWorkingSetTrimming(false);
+        TraceReplayer replayer = new TraceReplayer(memoryManager, TraceReplayer.syntheticProcesses(virtualSizeKB));
+        return replayer.replay(tracePath);
+    }
+
+    /**
+     * Reproduce todas las combinaciones.
+     * @return Los informes, indexados por [estrategia][número de marcos].
+     */
+    public ReplayReport[][] runAll(List<String> policies, int[] frameCounts) throws IOException {
+        ReplayReport[][] reports = new ReplayReport[policies.size()][frameCounts.length];
+        for (int p = 0; p < policies.size(); p++) {
+            for (int f = 0; f < frameCounts.length; f++) {
+                reports[p][f] = run(policies.get(p), frameCounts[f]);
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * Tabla de tasa de fallos (%) con una fila por número de marcos y una columna por estrategia.
+     */
+    public static String formatFaultRates(List<String> policies, int[] frameCounts, ReplayReport[][] reports) {
+        return formatTable("Tasa de fallos (%)", policies, frameCounts, reports, true);
+    }
+
+    /**
+     * Tabla de rendimiento (millones de accesos por segundo) con la misma forma que formatFaultRates().
+     */
+    public static String formatThroughput(List<String> policies, int[] frameCounts, ReplayReport[][] reports) {
+        return formatTable("Rendimiento (M accesos/s)", policies, frameCounts, reports, false);
+    }
+
+    private static String formatTable(String title, List<String> policies, int[] frameCounts,
+                                      ReplayReport[][] reports, boolean faultRate) {
+        StringBuilder sb = new StringBuilder(title).append('\n');
+        sb.append(String.format("%10s", "marcos"));
+        for (String policy : policies) {
+            sb.append(String.format(" %10s", policy));
+        }
+        sb.append('\n');
+        for (int f = 0; f < frameCounts.length; f++) {
+            sb.append(String.format("%10d", frameCounts[f]));
+            for (int p = 0; p < policies.size(); p++) {
+                ReplayReport report = reports[p][f];
+                double value = faultRate ? report.getFaultRate() * 100 : report.getThroughput() / 1e6;
+                sb.append(String.format(" %10.3f", value));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Compara estrategias desde la línea de comandos:
+     * ReplacementBenchmark &lt;traza&gt; &lt;marcos,marcos,...&gt; [estrategias=opt,todas las registradas] [espacioVirtualKB=4194304]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Uso: ReplacementBenchmark <traza> <marcos,marcos,...> [estrategias] [espacioVirtualKB]");
+            System.out.println("Estrategias disponibles: " + OPT + ", " + String.join(", ", ReplacementPolicies.names()));
+            return;
+        }
+        int[] frameCounts = Arrays.stream(args[1].split(",")).mapToInt(Integer::parseInt).toArray();
+        List<String> policies;
+        if (args.length > 2) {
+            policies = Arrays.asList(args[2].split(","));
+        } else {
+            policies = new ArrayList<>();
+            policies.add(OPT);
+            policies.addAll(ReplacementPolicies.names());
+        }
+        int virtualSizeKB = args.length > 3 ? Integer.parseInt(args[3]) : 4 * 1024 * 1024;
+
+        ReplacementBenchmark benchmark = new ReplacementBenchmark(Paths.get(args[0]), virtualSizeKB);
+        ReplayReport[][] reports = benchmark.runAll(policies, frameCounts);
+        System.out.println();
+        System.out.println(formatFaultRates(policies, frameCounts, reports));
+        System.out.println(formatThroughput(policies, frameCounts, reports));
+    }
+}
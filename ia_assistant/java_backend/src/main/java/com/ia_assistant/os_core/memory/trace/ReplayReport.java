@@ -0,0 +1,72 @@
+package com.ia_assistant.os_core.memory.trace;
+
+/**
+ * Resultado de reproducir una traza: volumen, faltas, desalojos y rendimiento.
+ */
+public class ReplayReport {
+
+    private final String algorithmName;
+    private final long accesses;
+    private final long invalidAccesses;
+    private final long pageFaults;
+    private final long evictions;
+    private final long dirtyEvictions;
+    private final long elapsedNanos;
+
+    public ReplayReport(String algorithmName, long accesses, long invalidAccesses, long pageFaults,
+                        long evictions, long dirtyEvictions, long elapsedNanos) {
+        this.algorithmName = algorithmName;
+        this.accesses = accesses;
+        this.invalidAccesses = invalidAccesses;
+        this.pageFaults = pageFaults;
+        this.evictions = evictions;
+        this.dirtyEvictions = dirtyEvictions;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getAlgorithmName() {
+        return algorithmName;
+    }
+
+    public long getAccesses() {
+        return accesses;
+    }
+
+    public long getInvalidAccesses() {
+        return invalidAccesses;
+    }
+
+    public long getPageFaults() {
+        return pageFaults;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getDirtyEvictions() {
+        return dirtyEvictions;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getFaultRate() {
+        return accesses == 0 ? 0.0 : (double) pageFaults / accesses;
+    }
+
+    /**
+     * @return Accesos reproducidos por segundo de reloj.
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0.0 : accesses * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s] accesos=%d (inválidos=%d), faltas=%d (%.3f%%), desalojos=%d (modificados=%d), %.1f ms, %.2f M accesos/s",
+                algorithmName, accesses, invalidAccesses, pageFaults, getFaultRate() * 100,
+                evictions, dirtyEvictions, elapsedNanos / 1e6, getThroughput() / 1e6);
+    }
+}
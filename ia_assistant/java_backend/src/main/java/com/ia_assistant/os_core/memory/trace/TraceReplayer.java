@@ -0,0 +1,179 @@
+package com.ia_assistant.os_core.memory.trace;
+
+import com.ia_assistant.os_core.Process;
+import com.ia_assistant.os_core.memory.MemoryManager;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Reproduce trazas binarias de accesos (ver MemoryTrace) contra un MemoryManager.
+ *
+ * El fichero se mapea en memoria por ventanas con FileChannel.map, de modo que trazas de varios GB
+ * no pasan por el heap; los registros se copian por lotes a un int[] reutilizado y se reproducen con
+ * la traza por consola del MemoryManager desactivada, sin reservar memoria por acceso.
+ */
+public class TraceReplayer {
+
+    private static final int BATCH_RECORDS = 4096;
+    // Ventana de mapeo: múltiplo del tamaño de registro y muy por debajo del límite de 2 GB de un buffer.
+    static final long WINDOW_BYTES = 256L << 20;
+    // PIDs por encima de este valor se resuelven sin caché para no crecer el array sin límite.
+    private static final int MAX_CACHED_PID = 1 << 20;
+
+    private final MemoryManager memoryManager;
+    private final IntFunction<Process> processResolver;
+    private final int[] batch = new int[BATCH_RECORDS * 2];
+    private Process[] processCache = new Process[64];
+    private int cpu = 0;
+
+    /**
+     * @param memoryManager El gestor de memoria sobre el que se reproducen los accesos.
+     * @param processResolver Devuelve el proceso de cada PID de la traza (o null si no existe).
+     *                        Se consulta una sola vez por PID.
+     */
+    public TraceReplayer(MemoryManager memoryManager, IntFunction<Process> processResolver) {
+        this.memoryManager = memoryManager;
+        this.processResolver = processResolver;
+    }
+
+    /**
+     * Crea un resolutor que fabrica un proceso sintético por PID, con el espacio virtual indicado.
+     * Útil para trazas capturadas fuera del simulador.
+     */
+    public static IntFunction<Process> syntheticProcesses(int virtualSizeKB) {
+        return pid -> new Process(pid, "trace-" + pid, 0, virtualSizeKB);
+    }
+
+    /**
+     * Selecciona la CPU simulada (y por tanto el TLB) desde la que se reproducen los accesos.
+     */
+    public void setCpu(int cpu) {
+        this.cpu = cpu;
+    }
+
+    /**
+     * Reproduce la traza completa.
+     * @param tracePath Ruta del fichero de traza.
+     * @return Las estadísticas de la reproducción.
+     * @throws IOException Si el fichero no se puede leer o no tiene formato de traza.
+     */
+    public ReplayReport replay(Path tracePath) throws IOException {
+        boolean wasVerbose = memoryManager.isVerbose();
+        memoryManager.setVerbose(false);
+
+        long faultsBefore = memoryManager.getPageFaultCount();
+        long evictionsBefore = memoryManager.getEvictionCount();
+        long dirtyBefore = memoryManager.getDirtyEvictionCount();
+        long accesses = 0;
+        long invalid = 0;
+        long start = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(tracePath, StandardOpenOption.READ)) {
+            long recordCount = readHeader(channel, tracePath);
+            long position = MemoryTrace.HEADER_BYTES;
+            long end = position + recordCount * MemoryTrace.RECORD_BYTES;
+
+            while (position < end) {
+                long windowBytes = Math.min(WINDOW_BYTES, end - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowBytes);
+                IntBuffer records = window.order(MemoryTrace.BYTE_ORDER).asIntBuffer();
+
+                while (records.hasRemaining()) {
+                    int ints = Math.min(batch.length, records.remaining());
+                    records.get(batch, 0, ints);
+                    for (int i = 0; i < ints; i += 2) {
+                        int word = batch[i];
+                        Process process = resolve(MemoryTrace.pidOf(word));
+                        if (process == null
+                                || !memoryManager.accessMemory(cpu, process, batch[i + 1], MemoryTrace.isWrite(word))) {
+                            invalid++;
+                        }
+                    }
+                    accesses += ints >>> 1;
+                }
+                position += windowBytes;
+            }
+        } finally {
+            memoryManager.setVerbose(wasVerbose);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        return new ReplayReport(memoryManager.getReplacementAlgorithm().getName(), accesses, invalid,
+                memoryManager.getPageFaultCount() - faultsBefore,
+                memoryManager.getEvictionCount() - evictionsBefore,
+                memoryManager.getDirtyEvictionCount() - dirtyBefore,
+                elapsed);
+    }
+
+    /**
+     * Valida la cabecera de una traza.
+     * @return El número de registros que declara.
+     */
+    static long readHeader(FileChannel channel, Path tracePath) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(MemoryTrace.HEADER_BYTES).order(MemoryTrace.BYTE_ORDER);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Traza truncada: " + tracePath);
+            }
+        }
+        header.flip();
+        if (header.getInt() != MemoryTrace.MAGIC) {
+            throw new IOException("El fichero no es una traza de memoria: " + tracePath);
+        }
+        int version = header.getInt();
+        if (version != MemoryTrace.VERSION) {
+            throw new IOException("Versión de traza no soportada (" + version + "): " + tracePath);
+        }
+        long recordCount = header.getLong();
+        long available = (channel.size() - MemoryTrace.HEADER_BYTES) / MemoryTrace.RECORD_BYTES;
+        if (recordCount > available) {
+            throw new IOException("La traza declara " + recordCount + " registros pero sólo contiene " + available + ": " + tracePath);
+        }
+        return recordCount;
+    }
+
+    private Process resolve(int pid) {
+        if (pid >= MAX_CACHED_PID) {
+            return processResolver.apply(pid);
+        }
+        if (pid >= processCache.length) {
+            processCache = Arrays.copyOf(processCache, Math.max(pid + 1, processCache.length * 2));
+        }
+        Process process = processCache[pid];
+        if (process == null) {
+            process = processResolver.apply(pid);
+            processCache[pid] = process;
+        }
+        return process;
+    }
+
+    /**
+     * Reproduce una traza desde la línea de comandos:
+     * TraceReplayer &lt;traza&gt; [memoriaMB=128] [algoritmo=fifo] [espacioVirtualKB=4194304]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Uso: TraceReplayer <traza> [memoriaMB] [algoritmo] [espacioVirtualKB]");
+            return;
+        }
+        int memoryMB = args.length > 1 ? Integer.parseInt(args[1]) : 128;
+        String algorithm = args.length > 2 ? args[2] : "fifo";
+        int virtualSizeKB = args.length > 3 ? Integer.parseInt(args[3]) : 4 * 1024 * 1024;
+
+        MemoryManager memoryManager = new MemoryManager(memoryMB);
+        if (!memoryManager.setReplacementAlgorithm(algorithm)) {
+            System.out.println("Algoritmo de reemplazo desconocido: " + algorithm);
+            return;
+        }
+        TraceReplayer replayer = new TraceReplayer(memoryManager, syntheticProcesses(virtualSizeKB));
+        System.out.println(replayer.replay(Paths.get(args[0])));
+    }
+}
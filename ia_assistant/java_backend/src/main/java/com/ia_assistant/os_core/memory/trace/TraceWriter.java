@@ -0,0 +1,68 @@
+package com.ia_assistant.os_core.memory.trace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Escribe trazas de acceso a memoria en el formato de MemoryTrace.
+ * Los registros se acumulan en un buffer directo y se vuelcan en bloques;
+ * la cabecera con el número de registros se completa al cerrar.
+ */
+public class TraceWriter implements AutoCloseable {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long recordCount;
+
+    public TraceWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(MemoryTrace.BYTE_ORDER);
+        this.recordCount = 0;
+        channel.position(MemoryTrace.HEADER_BYTES);
+    }
+
+    /**
+     * Añade un acceso a la traza.
+     * @param processId El PID que realiza el acceso.
+     * @param virtualAddress La dirección virtual accedida.
+     * @param write true si el acceso es de escritura.
+     */
+    public void write(int processId, int virtualAddress, boolean write) throws IOException {
+        if (buffer.remaining() < MemoryTrace.RECORD_BYTES) {
+            flushBuffer();
+        }
+        buffer.putInt(MemoryTrace.encodePid(processId, write));
+        buffer.putInt(virtualAddress);
+        recordCount++;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+            ByteBuffer header = ByteBuffer.allocate(MemoryTrace.HEADER_BYTES).order(MemoryTrace.BYTE_ORDER);
+            header.putInt(MemoryTrace.MAGIC).putInt(MemoryTrace.VERSION).putLong(recordCount).flip();
+            channel.write(header, 0);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,243 @@
+package com.ia_assistant.os_core.scheduler;
+
+import com.ia_assistant.os_core.concurrency.Thread;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.TreeSet;
+
+/**
+ * Planificador de reparto justo al estilo de CFS de Linux, a nivel de Hilos.
+ *
+ * Cada hilo acumula un tiempo virtual de ejecución (vruntime) que crece al ejecutarse, más despacio cuanto
+ * mayor es su peso. El peso sale de la prioridad del proceso, interpretada como un valor nice de -20 (el
+ * mayor peso) a 19 con la tabla de Linux, donde cada nivel de nice es un ~10% de CPU. Siempre se ejecuta
+ * el hilo de menor vruntime: el primero de un árbol ordenado (TreeSet) por (vruntime, TID), así que
+ * admitir, elegir y quitar cualquier hilo es O(log n) sin recorrer la cola.
+ *
+ * El quantum de cada turno no es fijo: es la parte de targetLatency que le toca al hilo según su peso
+ * frente al de todos los hilos listos, con un mínimo de minGranularity ciclos para que con muchos hilos
+ * no se pase el tiempo cambiando de contexto.
+ *
+ * Mientras está en el árbol o ejecutándose en esta CPU, el vruntime de un hilo es absoluto; fuera
+ * (bloqueado, terminado o de camino a otra CPU) se guarda relativo al mínimo de esta cola (min_vruntime).
+ * Así un hilo que migra o que despierta conserva su adelanto o su retraso respecto a los demás, y no el
+ * reloj de otra cola. El mínimo sólo avanza, hasta el menor vruntime entre el hilo en ejecución y el
+ * primero del árbol, como update_min_vruntime de Linux. Al despertar, el retraso acumulado durmiendo se
+ * limita a media targetLatency, para que un hilo que duerme mucho tenga buena latencia pero no acapare la
+ * CPU.
+ */
+public class CompletelyFairStrategy implements SchedulingAlgorithm {
+
+    public static final int DEFAULT_TARGET_LATENCY = 24;
+    public static final int DEFAULT_MIN_GRANULARITY = 3;
+
+    /**
+     * Peso de nice 0: un ciclo de un hilo con este peso suma WEIGHT_UNIT unidades de vruntime.
+     */
+    static final int NICE_0_WEIGHT = 1024;
+    private static final long WEIGHT_UNIT = 1024;
+
+    // Tabla sched_prio_to_weight de Linux, de nice -20 a 19.
+    private static final int[] NICE_TO_WEIGHT = {
+        88761, 71755, 56483, 46273, 36291,
+        29154, 23254, 18705, 14949, 11916,
+         9548,  7620,  6100,  4904,  3906,
+         3121,  2501,  1991,  1586,  1277,
+         1024,   820,   655,   526,   423,
+          335,   272,   215,   172,   137,
+          110,    87,    70,    56,    45,
+           36,    29,    23,    18,    15,
+    };
+
+    private static final Comparator<Thread> VRUNTIME_ORDER =
+        Comparator.comparingLong(Thread::getVirtualRuntime).thenComparingInt(Thread::getThreadId);
+
+    private final int targetLatency;
+    private final int minGranularity;
+    private final TreeSet<Thread> tree = new TreeSet<>(VRUNTIME_ORDER);
+    private long minVruntime;
+    private long queuedWeight; // Suma de pesos de los hilos del árbol
+    private Thread current;    // Hilo que esta cola ha dado a su CPU y aún no ha vuelto, con vruntime absoluto
+
+    public CompletelyFairStrategy() {
+        this(DEFAULT_TARGET_LATENCY, DEFAULT_MIN_GRANULARITY);
+    }
+
+    /**
+     * @param targetLatency Ciclos en los que cada hilo listo debería ejecutarse al menos una vez.
+     * @param minGranularity Quantum mínimo, en ciclos, cuando hay tantos hilos que no caben en targetLatency.
+     */
+    public CompletelyFairStrategy(int targetLatency, int minGranularity) {
+        if (targetLatency < 1 || minGranularity < 1) {
+            throw new IllegalArgumentException("La latencia objetivo y la granularidad mínima deben ser positivas");
+        }
+        this.targetLatency = targetLatency;
+        this.minGranularity = minGranularity;
+    }
+
+    /**
+     * @return El peso de un hilo según la prioridad (nice) de su proceso, limitada a [-20, 19].
+     */
+    static int weightOf(Thread thread) {
+        int nice = Math.max(-20, Math.min(19, thread.getParentProcess().getPriority()));
+        return NICE_TO_WEIGHT[nice + 20];
+    }
+
+    @Override
+    public void admitThread(Thread thread) {
+        if (thread.getState() == Thread.ThreadState.READY) {
+            // Hilo nuevo (retraso 0) o que despierta: conserva su adelanto, pero el retraso se limita.
+            long sleeperCredit = targetLatency * WEIGHT_UNIT / 2;
+            thread.setVirtualRuntime(minVruntime + Math.max(thread.getVirtualRuntime(), -sleeperCredit));
+            insert(thread);
+        }
+    }
+
+    @Override
+    public Thread getNextThread() {
+        Thread thread = tree.pollFirst();
+        if (thread != null) {
+            queuedWeight -= weightOf(thread);
+            current = thread; // Sigue con su vruntime absoluto mientras se ejecuta
+            updateMinVruntime();
+        }
+        return thread;
+    }
+
+    @Override
+    public Thread takeForMigration() {
+        Thread thread = tree.pollFirst();
+        if (thread != null) {
+            queuedWeight -= weightOf(thread);
+            thread.setVirtualRuntime(thread.getVirtualRuntime() - minVruntime);
+            updateMinVruntime();
+        }
+        return thread;
+    }
+
+    @Override
+    public void returnThreadToQueue(Thread thread) {
+        if (thread.getState() != Thread.ThreadState.READY) {
+            return;
+        }
+        if (thread == current) {
+            current = null;
+        } else {
+            // No lo sacó esta cola (empezó el quantum con otra estrategia): su vruntime es relativo.
+            thread.setVirtualRuntime(minVruntime + thread.getVirtualRuntime());
+        }
+        insert(thread);
+    }
+
+    @Override
+    public void threadLeft(Thread thread) {
+        if (thread == current) {
+            current = null;
+            thread.setVirtualRuntime(thread.getVirtualRuntime() - minVruntime);
+        }
+    }
+
+    @Override
+    public int getQuantum(Thread thread, int defaultQuantum) {
+        // Se llama al darle la CPU, cuando el hilo ya no está en el árbol.
+        long weight = weightOf(thread);
+        long slice = targetLatency * weight / (queuedWeight + weight);
+        return (int) Math.max(minGranularity, slice);
+    }
+
+    @Override
+    public void onCycles(Thread running, int cycles) {
+        if (running != null) {
+            running.setVirtualRuntime(running.getVirtualRuntime() + WEIGHT_UNIT * NICE_0_WEIGHT / weightOf(running) * cycles);
+            updateMinVruntime();
+        }
+    }
+
+    @Override
+    public boolean shouldPreempt(Thread running) {
+        // Desaloja antes de acabar el quantum si el primero del árbol le lleva más de minGranularity ciclos
+        // (de nice 0) de ventaja, como al despertar un hilo que durmió mucho.
+        return !tree.isEmpty()
+            && absoluteVruntime(running) - tree.first().getVirtualRuntime() > minGranularity * WEIGHT_UNIT;
+    }
+
+    private long absoluteVruntime(Thread thread) {
+        return thread == current ? thread.getVirtualRuntime() : minVruntime + thread.getVirtualRuntime();
+    }
+
+    private void insert(Thread thread) {
+        if (tree.add(thread)) {
+            queuedWeight += weightOf(thread);
+            updateMinVruntime();
+        }
+    }
+
+    private void updateMinVruntime() {
+        long candidate;
+        if (current != null && !tree.isEmpty()) {
+            candidate = Math.min(current.getVirtualRuntime(), tree.first().getVirtualRuntime());
+        } else if (current != null) {
+            candidate = current.getVirtualRuntime();
+        } else if (!tree.isEmpty()) {
+            candidate = tree.first().getVirtualRuntime();
+        } else {
+            return;
+        }
+        // Nunca retrocede, para que los hilos que vuelven no puedan adelantarse a los que ya esperan.
+        minVruntime = Math.max(minVruntime, candidate);
+    }
+
+    @Override
+    public Queue<Thread> getReadyQueueSnapshot() {
+        return new LinkedList<>(tree);
+    }
+
+    @Override
+    public Iterator<Thread> readyIterator() {
+        return tree.iterator();
+    }
+
+    @Override
+    public void removeThread(Thread thread) {
+        // El árbol sólo encuentra al hilo con su vruntime absoluto; uno que se está ejecutando no está en él.
+        if (tree.remove(thread)) {
+            queuedWeight -= weightOf(thread);
+            thread.setVirtualRuntime(thread.getVirtualRuntime() - minVruntime);
+            updateMinVruntime();
+        }
+    }
+
+    @Override
+    public int size() {
+        return tree.size();
+    }
+
+    @Override
+    public boolean isPreemptive() {
+        return true;
+    }
+
+    @Override
+    public Queue<Thread> clear() {
+        Queue<Thread> oldQueue = new LinkedList<>();
+        for (Thread thread : tree) {
+            thread.setVirtualRuntime(thread.getVirtualRuntime() - minVruntime);
+            oldQueue.add(thread);
+        }
+        tree.clear();
+        queuedWeight = 0;
+        if (current != null) {
+            threadLeft(current);
+        }
+        return oldQueue;
+    }
+
+    /**
+     * @return El vruntime mínimo de la cola, en unidades de 1/1024 de ciclo de un hilo de nice 0.
+     */
+    public long getMinVruntime() {
+        return minVruntime;
+    }
+}
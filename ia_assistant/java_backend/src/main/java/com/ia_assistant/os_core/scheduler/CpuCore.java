@@ -0,0 +1,72 @@
+package com.ia_assistant.os_core.scheduler;
+
+import com.ia_assistant.os_core.concurrency.Thread;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Una CPU simulada del Scheduler: su propia cola de listos (una instancia de la estrategia), el hilo que
+ * ejecuta y sus contadores. Todo se protege con el cerrojo de la CPU, salvo load, que se publica aparte
+ * para que las demás CPUs decidan dónde admitir un hilo o a quién robar sin tocar ningún cerrojo.
+ */
+final class CpuCore {
+
+    final int id;
+    final ReentrantLock lock = new ReentrantLock();
+
+    SchedulingAlgorithm queue;
+    int generation;             // Generación de la estrategia de queue (Scheduler.setStrategy la incrementa)
+    Thread current;
+    int cyclesRunInQuantum;     // Ciclos ejecutados por el hilo actual en su quantum
+    int currentQuantum;         // Quantum concedido al hilo actual por la estrategia
+    boolean inQuantum;          // El hilo actual está ejecutando su carga fuera del cerrojo (runQuantum)
+    boolean pendingWakeup;      // Se pidió despertar al hilo actual mientras ejecutaba su quantum
+    volatile int queued;        // Hilos listos en la cola
+    volatile int load;          // Hilos listos más el que está en ejecución
+
+    long cycles;                // Ciclos totales de esta CPU
+    long busyCycles;            // Ciclos en los que ejecutó algún hilo
+    long migrationsIn;          // Hilos que llegaron de otra CPU (robos y equilibrado)
+    long migrationsOut;         // Hilos que otra CPU se llevó de esta
+    long steals;                // Veces que esta CPU, ociosa, robó un hilo
+
+    CpuCore(int id, SchedulingAlgorithm queue) {
+        this.id = id;
+        this.queue = queue;
+    }
+
+    /**
+     * Encola un hilo listo en esta CPU. Requiere el cerrojo.
+     * @param wakeup Si el hilo vuelve de un bloqueo (y no es nuevo).
+     */
+    void enqueue(Thread thread, boolean wakeup) {
+        thread.setCpu(id);
+        adopt(thread);
+        if (wakeup) {
+            queue.wakeThread(thread);
+        } else {
+            queue.admitThread(thread);
+        }
+        updateLoad();
+    }
+
+    /**
+     * Antes de pasarle un hilo a la estrategia de esta CPU: si su estado de planificación lo escribió una
+     * estrategia anterior (estaba bloqueado o de camino a otra CPU durante el cambio), lo olvida. Requiere
+     * el cerrojo.
+     */
+    void adopt(Thread thread) {
+        if (thread.getStrategyGeneration() != generation) {
+            thread.resetSchedulingState();
+            thread.setStrategyGeneration(generation);
+        }
+    }
+
+    void updateLoad() {
+        queued = queue.size();
+        load = queued + (current != null ? 1 : 0);
+    }
+
+    double utilization() {
+        return cycles == 0 ? 0.0 : (double) busyCycles / cycles;
+    }
+}
@@ -0,0 +1,113 @@
+package com.ia_assistant.os_core.scheduler;
+
+import com.ia_assistant.os_core.Process;
+import com.ia_assistant.os_core.concurrency.Thread;
+import com.ia_assistant.os_core.concurrency.Workload;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Mide cómo escala Scheduler.runCycles() con los hilos reales del anfitrión: simula los mismos ciclos en
+ * las mismas CPUs con 1, 2, 4... hilos reales y saca el tiempo, los ciclos simulados por segundo y la
+ * aceleración respecto a un solo hilo. La aceleración nunca pasa del número de núcleos de la máquina ni
+ * del de CPUs simuladas, así que conviene lanzarlo en una máquina con varios núcleos.
+ *
+ * Cada CPU empieza con varios hilos simulados cuya carga hace en cada paso un trabajo de CPU fijo, para
+ * que el coste de un ciclo no sea sólo el del Scheduler. Los hilos no terminan ni se bloquean durante la
+ * medida, así que el equilibrado apenas mueve hilos entre CPUs.
+ */
+public class CpuScalingBenchmark {
+
+    private final String policy;
+    private final int cpus;
+    private final int threadsPerCpu;
+    private final int workPerStep;
+
+    /**
+     * @param policy        Estrategia de SchedulingPolicies.
+     * @param cpus          CPUs simuladas.
+     * @param threadsPerCpu Hilos simulados por CPU.
+     * @param workPerStep   Iteraciones de trabajo que hace cada paso de la carga (0: sólo el Scheduler).
+     */
+    public CpuScalingBenchmark(String policy, int cpus, int threadsPerCpu, int workPerStep) {
+        if (cpus < 1 || threadsPerCpu < 1 || workPerStep < 0) {
+            throw new IllegalArgumentException("CPUs e hilos deben ser positivos y el trabajo por paso no negativo");
+        }
+        this.policy = policy;
+        this.cpus = cpus;
+        this.threadsPerCpu = threadsPerCpu;
+        this.workPerStep = workPerStep;
+    }
+
+    /**
+     * Simula los ciclos en un Scheduler nuevo con hostThreads hilos reales.
+     * @return Segundos de tiempo real que ha tardado runCycles().
+     * @throws IllegalArgumentException Si la estrategia no está registrada en SchedulingPolicies.
+     */
+    public double run(int cycles, int hostThreads) {
+        Supplier<SchedulingAlgorithm> factory = SchedulingPolicies.factory(policy)
+                .orElseThrow(() -> new IllegalArgumentException("Estrategia de planificación desconocida: " + policy));
+        Scheduler scheduler = new Scheduler(factory, 10, cpus);
+        scheduler.setVerbose(false);
+        Process process = new Process(1, "benchmark", 0, 1);
+        for (int i = 0; i < cpus * threadsPerCpu; i++) {
+            scheduler.admitThread(process.createThread(spin()));
+        }
+        long start = System.nanoTime();
+        scheduler.runCycles(cycles, hostThreads);
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    /**
+     * Carga que nunca termina: cada paso da workPerStep vueltas a un xorshift y guarda el estado, para
+     * que el compilador no pueda quitar el bucle.
+     */
+    private Workload spin() {
+        long[] state = {0x9E3779B97F4A7C15L};
+        return () -> {
+            long x = state[0];
+            for (int i = 0; i < workPerStep; i++) {
+                x ^= x << 13;
+                x ^= x >>> 7;
+                x ^= x << 17;
+            }
+            state[0] = x;
+            return Workload.Step.CONTINUE;
+        };
+    }
+
+    /**
+     * Mide la escalabilidad desde la línea de comandos:
+     * CpuScalingBenchmark [ciclos=200000] [hilosAnfitrion=1,2,4,8] [cpus=8] [estrategia=rr] [hilosPorCpu=4] [trabajoPorPaso=200]
+     */
+    public static void main(String[] args) {
+        if (args.length > 0 && (args[0].equals("-h") || args[0].equals("--help"))) {
+            System.out.println("Uso: CpuScalingBenchmark [ciclos] [hilosAnfitrion,...] [cpus] [estrategia] [hilosPorCpu] [trabajoPorPaso]");
+            System.out.println("Estrategias disponibles: " + String.join(", ", SchedulingPolicies.names()));
+            return;
+        }
+        int cycles = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int[] hostThreads = Arrays.stream((args.length > 1 ? args[1] : "1,2,4,8").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int cpus = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        String policy = args.length > 3 ? args[3] : "rr";
+        int threadsPerCpu = args.length > 4 ? Integer.parseInt(args[4]) : 4;
+        int workPerStep = args.length > 5 ? Integer.parseInt(args[5]) : 200;
+
+        Thread.setTracing(false);
+        CpuScalingBenchmark benchmark = new CpuScalingBenchmark(policy, cpus, threadsPerCpu, workPerStep);
+        benchmark.run(Math.max(1, cycles / 10), 1); // Calentamiento del JIT
+        System.out.printf("%n%d ciclos en %d CPUs (%s), %d núcleos en el anfitrión%n", cycles, cpus, policy,
+                          Runtime.getRuntime().availableProcessors());
+        System.out.printf("%14s %10s %14s %12s%n", "hilos reales", "segundos", "M ciclos/s", "aceleración");
+        double baseline = 0;
+        for (int threads : hostThreads) {
+            double seconds = benchmark.run(cycles, threads);
+            if (baseline == 0) {
+                baseline = seconds;
+            }
+            System.out.printf("%14d %10.2f %14.2f %12.2f%n", threads, seconds,
+                              (double) cycles * cpus / seconds / 1e6, baseline / seconds);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.ia_assistant.os_core.scheduler;
+
+import com.ia_assistant.os_core.Process;
+import com.ia_assistant.os_core.concurrency.Thread;
+import com.ia_assistant.os_core.concurrency.Workload;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Simulador por eventos discretos sobre un Scheduler. En vez de avanzar ciclo a ciclo, guarda en una cola
+ * ordenada por tiempo los próximos sucesos (llegadas de hilos, fines de turno en las CPUs, fines de E/S y
+ * despertares) y salta directamente al siguiente, avanzando de golpe las CPUs por los ciclos intermedios.
+ * El coste va con el número de sucesos y no con el de ciclos: no hay trazas por ciclo ni recorridos de
+ * la lista de procesos, y las CPUs ociosas no generan sucesos.
+ *
+ * El trabajo de cada hilo se describe con sus ráfagas: CPU, E/S, CPU, E/S..., CPU. Al acabar una ráfaga
+ * de CPU el hilo se bloquea hasta que termina su E/S; al acabar la última, termina. Los hilos del
+ * simulador no tienen Workload. Mientras dura la simulación, el Scheduler sólo debe usarse a través del
+ * simulador y desde un único hilo real.
+ *
+ * La traza por consola del Scheduler se desactiva al crear el simulador, porque una simulación larga tiene
+ * millones de sucesos; la de los hilos es global y se controla con Thread.setTracing().
+ */
+public class DiscreteEventSimulator {
+
+    public enum EventType {
+        ARRIVAL,        // Llega un hilo y se admite en el Scheduler
+        QUANTUM_EXPIRY, // Acaba el turno de una CPU: se agota el quantum o la ráfaga de CPU del hilo
+        IO_COMPLETION,  // Termina la E/S de un hilo, que vuelve a estar listo
+        UNBLOCK         // Despierta un hilo bloqueado con block()
+    }
+
+    private static final Comparator<Event> EVENT_ORDER =
+        Comparator.<Event>comparingLong(e -> e.time).thenComparingLong(e -> e.sequence);
+
+    private final Scheduler scheduler;
+    private final PriorityQueue<Event> events = new PriorityQueue<>(EVENT_ORDER);
+    private final Map<Thread, Job> jobs = new HashMap<>();
+    private final long[] cpuClock;  // Instante hasta el que se ha avanzado cada CPU
+    private final int[] turn;       // Turno actual de cada CPU, para descartar los fines de turno anulados
+    private final Thread[] running; // Hilo en ejecución en cada CPU, o null
+    private long now;
+    private long sequence;
+    private long processedEvents;
+    private int completedJobs;
+    private long totalTurnaround;
+    private boolean verbose;
+
+    public DiscreteEventSimulator(Scheduler scheduler) {
+        this.scheduler = scheduler;
+        int cpus = scheduler.getCpuCount();
+        this.cpuClock = new long[cpus];
+        this.turn = new int[cpus];
+        this.running = new Thread[cpus];
+        scheduler.setVerbose(false);
+    }
+
+    /**
+     * Activa o desactiva la traza por consola de cada suceso.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Crea en el proceso un hilo que llega en arrivalTime y alterna ráfagas de CPU y de E/S.
+     * @param cpuBursts Ciclos de cada ráfaga de CPU, al menos una.
+     * @param ioTimes   Ciclos de la E/S que sigue a cada ráfaga de CPU menos la última.
+     * @return El hilo, que se admite en el Scheduler al llegar.
+     */
+    public Thread submit(Process process, long arrivalTime, int[] cpuBursts, int[] ioTimes) {
+        if (cpuBursts.length == 0 || ioTimes.length != cpuBursts.length - 1) {
+            throw new IllegalArgumentException("Hace falta al menos una ráfaga de CPU y una E/S entre cada dos ráfagas");
+        }
+        for (int burst : cpuBursts) {
+            if (burst < 1) {
+                throw new IllegalArgumentException("Las ráfagas de CPU deben durar al menos un ciclo");
+            }
+        }
+        for (int io : ioTimes) {
+            if (io < 0) {
+                throw new IllegalArgumentException("Las E/S no pueden durar un tiempo negativo");
+            }
+        }
+        if (arrivalTime < now) {
+            throw new IllegalArgumentException("El hilo no puede llegar antes del instante actual (" + now + ")");
+        }
+        Thread thread = process.createThread(null);
+        jobs.put(thread, new Job(arrivalTime, cpuBursts.clone(), ioTimes.clone()));
+        schedule(arrivalTime, EventType.ARRIVAL, -1, thread);
+        return thread;
+    }
+
+    /**
+     * Bloquea ahora un hilo, esté en ejecución o listo, y lo despierta en wakeTime. Conserva lo que le
+     * quedaba de su ráfaga de CPU.
+     */
+    public void block(Thread thread, long wakeTime) {
+        int cpu = thread.getCpu();
+        if (cpu >= 0 && running[cpu] == thread) {
+            running[cpu] = null;
+            turn[cpu]++;
+        }
+        scheduler.blockThread(thread);
+        schedule(Math.max(now, wakeTime), EventType.UNBLOCK, -1, thread);
+        reschedule();
+    }
+
+    /**
+     * Procesa los sucesos hasta el instante until, incluido, y deja el reloj en until.
+     * @return Sucesos procesados.
+     */
+    public long run(long until) {
+        long before = processedEvents;
+        processUntil(until);
+        advanceTo(Math.max(now, until));
+        return processedEvents - before;
+    }
+
+    /**
+     * Procesa sucesos hasta que no queda ninguno: todos los hilos han terminado o están bloqueados sin
+     * nadie que los despierte. El reloj queda en el último suceso.
+     * @return Sucesos procesados.
+     */
+    public long runToCompletion() {
+        long before = processedEvents;
+        processUntil(Long.MAX_VALUE);
+        return processedEvents - before;
+    }
+
+    private void processUntil(long until) {
+        while (!events.isEmpty() && events.peek().time <= until) {
+            Event event = events.poll();
+            if (event.type == EventType.QUANTUM_EXPIRY && event.turn != turn[event.cpu]) {
+                continue; // El turno acabó antes, por desalojo o bloqueo
+            }
+            advanceTo(event.time);
+            processedEvents++;
+            if (verbose) {
+                System.out.printf("Simulador: t=%d %s %s%s\n", now, event.type,
+                                  event.thread != null ? "Thread " + event.thread.getThreadId() : "",
+                                  event.cpu >= 0 ? " en CPU " + event.cpu : "");
+            }
+            switch (event.type) {
+                case ARRIVAL -> scheduler.admitThread(event.thread);
+                case IO_COMPLETION, UNBLOCK -> scheduler.unblockThread(event.thread);
+                case QUANTUM_EXPIRY -> endTurn(event.cpu);
+            }
+            reschedule();
+        }
+    }
+
+    /**
+     * Avanza todas las CPUs hasta el instante time.
+     */
+    private void advanceTo(long time) {
+        for (int cpu = 0; cpu < running.length; cpu++) {
+            long elapsed = time - cpuClock[cpu];
+            Job job = running[cpu] != null ? jobs.get(running[cpu]) : null;
+            if (job != null) {
+                job.remaining -= elapsed;
+            }
+            while (elapsed > 0) {
+                int cycles = (int) Math.min(elapsed, Integer.MAX_VALUE);
+                scheduler.advance(cpu, cycles);
+                elapsed -= cycles;
+            }
+            cpuClock[cpu] = time;
+        }
+        now = time;
+    }
+
+    /**
+     * Da trabajo a las CPUs ociosas y desaloja a los hilos que deban ceder la CPU a uno que acaba de
+     * quedar listo.
+     */
+    private void reschedule() {
+        for (int cpu = 0; cpu < running.length; cpu++) {
+            if (running[cpu] != null && scheduler.preemptIfNeeded(cpu)) {
+                running[cpu] = null;
+                turn[cpu]++;
+            }
+            if (running[cpu] == null) {
+                startTurn(cpu);
+            }
+        }
+    }
+
+    private void startTurn(int cpu) {
+        Thread thread = scheduler.dispatchOn(cpu);
+        running[cpu] = thread;
+        if (thread == null) {
+            return;
+        }
+        // Un hilo sin ráfagas (admitido fuera del simulador) nunca deja la CPU por sí mismo: con una
+        // estrategia no apropiativa, su turno no acaba.
+        Job job = jobs.get(thread);
+        int quantum = scheduler.quantumLeft(cpu);
+        if (job == null && quantum == Integer.MAX_VALUE) {
+            return;
+        }
+        long slice = job != null ? Math.min(quantum, job.remaining) : quantum;
+        schedule(now + slice, EventType.QUANTUM_EXPIRY, cpu, thread);
+    }
+
+    private void endTurn(int cpu) {
+        Thread thread = running[cpu];
+        running[cpu] = null;
+        turn[cpu]++;
+        Job job = jobs.get(thread);
+        Workload.Step step = Workload.Step.CONTINUE;
+        if (job != null && job.remaining <= 0) {
+            if (job.burst + 1 < job.cpuBursts.length) {
+                schedule(now + job.ioTimes[job.burst], EventType.IO_COMPLETION, -1, thread);
+                job.burst++;
+                job.remaining = job.cpuBursts[job.burst];
+                step = Workload.Step.BLOCK;
+            } else {
+                job.completion = now;
+                completedJobs++;
+                totalTurnaround += now - job.arrival;
+                step = Workload.Step.EXIT;
+            }
+        }
+        scheduler.endTurn(cpu, step);
+    }
+
+    private void schedule(long time, EventType type, int cpu, Thread thread) {
+        events.add(new Event(time, sequence++, type, cpu, cpu >= 0 ? turn[cpu] : 0, thread));
+    }
+
+    // --- Métodos de Información ---
+
+    /**
+     * @return El instante actual de la simulación, en ciclos.
+     */
+    public long getTime() {
+        return now;
+    }
+
+    public long getProcessedEvents() {
+        return processedEvents;
+    }
+
+    public int getPendingEvents() {
+        return events.size();
+    }
+
+    public int getCompletedJobs() {
+        return completedJobs;
+    }
+
+    /**
+     * @return Ciclos desde que llegó el hilo hasta que terminó, o -1 si no es del simulador o no ha terminado.
+     */
+    public long getTurnaround(Thread thread) {
+        Job job = jobs.get(thread);
+        return job == null || job.completion < 0 ? -1 : job.completion - job.arrival;
+    }
+
+    /**
+     * @return El tiempo medio de retorno de los hilos terminados, en ciclos, o 0 si no ha terminado ninguno.
+     */
+    public double getMeanTurnaround() {
+        return completedJobs == 0 ? 0 : (double) totalTurnaround / completedJobs;
+    }
+
+    /**
+     * Ráfagas de un hilo del simulador y por dónde va.
+     */
+    private static final class Job {
+
+        final long arrival;
+        final int[] cpuBursts;
+        final int[] ioTimes;
+        int burst;             // Ráfaga de CPU actual
+        long remaining;        // Ciclos que le quedan a la ráfaga actual
+        long completion = -1;  // Instante en que terminó, o -1
+
+        Job(long arrival, int[] cpuBursts, int[] ioTimes) {
+            this.arrival = arrival;
+            this.cpuBursts = cpuBursts;
+            this.ioTimes = ioTimes;
+            this.remaining = cpuBursts[0];
+        }
+    }
+
+    private static final class Event {
+
+        final long time;
+        final long sequence; // Desempate: a igual tiempo, en el orden en que se programaron
+        final EventType type;
+        final int cpu;       // CPU del fin de turno, o -1
+        final int turn;      // Turno de la CPU al que pertenece el fin de turno
+        final Thread thread;
+
+        Event(long time, long sequence, EventType type, int cpu, int turn, Thread thread) {
+            this.time = time;
+            this.sequence = sequence;
+            this.type = type;
+            this.cpu = cpu;
+            this.turn = turn;
+            this.thread = thread;
+        }
+    }
+}
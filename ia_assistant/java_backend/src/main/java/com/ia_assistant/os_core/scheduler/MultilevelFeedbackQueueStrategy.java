@@ -0,0 +1,243 @@
+package com.ia_assistant.os_core.scheduler;
+
+import com.ia_assistant.os_core.concurrency.Thread;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+/**
+ * Colas multinivel con realimentación (MLFQ) a nivel de Hilos.
+ *
+ * Hay una cola Round-Robin por nivel, del 0 (el más prioritario, quantum más corto) al último (quantum
+ * más largo). Los hilos entran en el nivel 0 y bajan uno cuando consumen entero el quantum de su nivel;
+ * si se bloquean antes, al despertar conservan el nivel con el quantum completo. Así los hilos
+ * interactivos se quedan en los niveles altos con poca latencia, y los intensivos en CPU bajan a quanta
+ * largos. Un hilo que llega a un nivel más alto que el del que se ejecuta lo desaloja, y el desalojado
+ * conserva lo que le quedaba de quantum. Cada boostInterval ciclos todos los hilos vuelven
+ * al nivel 0, para que los de abajo no sufran inanición.
+ *
+ * Un mapa de bits con un bit por nivel no vacío da el nivel a ejecutar en O(1). Cada cola es una
+ * ThreadFifo indexada: encolar, sacar el primero y quitar un hilo cualquiera son O(1). El nivel de cada hilo
+ * se guarda en el propio hilo, así que lo conserva al migrar entre CPUs.
+ */
+public class MultilevelFeedbackQueueStrategy implements SchedulingAlgorithm {
+
+    public static final int[] DEFAULT_QUANTA = {2, 4, 8, 16};
+    public static final int DEFAULT_BOOST_INTERVAL = 200;
+
+    private final int[] quanta;
+    private final int boostInterval;
+    private final ThreadFifo[] levels;
+    private long nonEmpty; // Bit i activo si la cola del nivel i tiene hilos
+    private int size;
+    private int cyclesSinceBoost;
+    private long boosts;
+
+    public MultilevelFeedbackQueueStrategy() {
+        this(DEFAULT_QUANTA, DEFAULT_BOOST_INTERVAL);
+    }
+
+    /**
+     * @param quanta Quantum de cada nivel, del más prioritario al menos (entre 1 y 64 niveles).
+     * @param boostInterval Ciclos de la CPU entre dos subidas de todos los hilos al nivel 0 (0 las desactiva).
+     */
+    public MultilevelFeedbackQueueStrategy(int[] quanta, int boostInterval) {
+        if (quanta.length == 0 || quanta.length > Long.SIZE) {
+            throw new IllegalArgumentException("MLFQ admite entre 1 y " + Long.SIZE + " niveles: " + quanta.length);
+        }
+        for (int quantum : quanta) {
+            if (quantum < 1) {
+                throw new IllegalArgumentException("El quantum de cada nivel debe ser positivo: " + quantum);
+            }
+        }
+        this.quanta = quanta.clone();
+        this.boostInterval = boostInterval;
+        this.levels = new ThreadFifo[quanta.length];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = new ThreadFifo();
+        }
+    }
+
+    @Override
+    public void admitThread(Thread thread) {
+        if (thread.getState() == Thread.ThreadState.READY) {
+            // Hilo nuevo o que despierta: mismo nivel (limitado por si viene de una estrategia con más
+            // niveles) y quantum completo.
+            thread.setSchedulingLevel(Math.min(thread.getSchedulingLevel(), levels.length - 1));
+            enqueue(thread);
+        }
+    }
+
+    @Override
+    public Thread getNextThread() {
+        if (nonEmpty == 0) {
+            return null;
+        }
+        int level = Long.numberOfTrailingZeros(nonEmpty);
+        Thread thread = levels[level].poll();
+        dequeued(level);
+        return thread;
+    }
+
+    @Override
+    public void returnThreadToQueue(Thread thread) {
+        if (thread.getState() != Thread.ThreadState.READY) {
+            return;
+        }
+        int level = thread.getSchedulingLevel();
+        if (thread.getLevelCycles() >= quanta[level]) {
+            // Quantum agotado: baja un nivel (en el último sólo se reinicia la cuenta).
+            thread.setSchedulingLevel(Math.min(level + 1, levels.length - 1));
+        }
+        enqueue(thread);
+    }
+
+    @Override
+    public int getQuantum(Thread thread, int defaultQuantum) {
+        // Lo que le queda del quantum de su nivel, por si la desalojó un hilo más prioritario.
+        return Math.max(1, quanta[thread.getSchedulingLevel()] - thread.getLevelCycles());
+    }
+
+    @Override
+    public void onCycles(Thread running, int cycles) {
+        if (boostInterval <= 0 || cyclesSinceBoost + (long) cycles < boostInterval) {
+            if (running != null) {
+                running.addLevelCycles(cycles);
+            }
+            if (boostInterval > 0) {
+                cyclesSinceBoost += cycles;
+            }
+            return;
+        }
+        // Caben una o más subidas: tras la primera todo queda en el nivel 0 y las siguientes no mueven
+        // nada, así que basta con hacer la última y contar las demás. El hilo en ejecución empieza su
+        // nivel de nuevo en esa última subida.
+        long elapsed = cyclesSinceBoost + (long) cycles;
+        cyclesSinceBoost = (int) (elapsed % boostInterval);
+        boosts += elapsed / boostInterval - 1;
+        boost(running);
+        if (running != null) {
+            running.addLevelCycles(cyclesSinceBoost);
+        }
+    }
+
+    @Override
+    public boolean shouldPreempt(Thread running) {
+        return nonEmpty != 0 && Long.numberOfTrailingZeros(nonEmpty) < running.getSchedulingLevel();
+    }
+
+    /**
+     * Sube al nivel 0 todos los hilos de la cola y el que está en ejecución, conservando su orden.
+     */
+    private void boost(Thread running) {
+        boosts++;
+        if (running != null) {
+            running.setSchedulingLevel(0);
+        }
+        for (Thread thread : levels[0]) {
+            thread.setSchedulingLevel(0);
+        }
+        for (int level = 1; level < levels.length; level++) {
+            Thread thread;
+            while ((thread = levels[level].poll()) != null) {
+                thread.setSchedulingLevel(0);
+                levels[0].add(thread);
+            }
+        }
+        nonEmpty = size > 0 ? 1L : 0L;
+    }
+
+    private void enqueue(Thread thread) {
+        int level = thread.getSchedulingLevel();
+        if (levels[level].add(thread)) {
+            nonEmpty |= 1L << level;
+            size++;
+        }
+    }
+
+    private void dequeued(int level) {
+        size--;
+        if (levels[level].isEmpty()) {
+            nonEmpty &= ~(1L << level);
+        }
+    }
+
+    @Override
+    public Queue<Thread> getReadyQueueSnapshot() {
+        Queue<Thread> snapshot = new LinkedList<>();
+        for (ThreadFifo level : levels) {
+            level.forEach(snapshot::add);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public Iterator<Thread> readyIterator() {
+        return new Iterator<>() {
+            private int level = -1;
+            private Iterator<Thread> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && level < levels.length - 1) {
+                    current = levels[++level].iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public Thread next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    @Override
+    public void removeThread(Thread thread) {
+        int level = thread.getSchedulingLevel();
+        if (level < levels.length && levels[level].remove(thread)) {
+            dequeued(level);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isPreemptive() {
+        return true;
+    }
+
+    @Override
+    public Queue<Thread> clear() {
+        Queue<Thread> oldQueue = getReadyQueueSnapshot();
+        for (ThreadFifo level : levels) {
+            level.clear();
+        }
+        nonEmpty = 0;
+        size = 0;
+        return oldQueue;
+    }
+
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    public int getLevelQuantum(int level) {
+        return quanta[level];
+    }
+
+    /**
+     * @return Veces que se han subido todos los hilos al nivel 0.
+     */
+    public long getBoostCount() {
+        return boosts;
+    }
+}
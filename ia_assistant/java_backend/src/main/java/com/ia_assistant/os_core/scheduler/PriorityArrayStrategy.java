@@ -0,0 +1,300 @@
+package com.ia_assistant.os_core.scheduler;
+
+import com.ia_assistant.os_core.concurrency.Thread;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+/**
+ * Planificador por prioridades con arrays activo y expirado, al estilo del planificador O(1) de Linux 2.6.
+ *
+ * La prioridad estática de cada hilo es la del proceso, interpretada como un valor nice de -20 (la más
+ * alta) a 19, igual que en CompletelyFairStrategy. Cada array tiene una ThreadFifo por prioridad y un mapa
+ * de bits de prioridades no vacías, así que elegir el siguiente hilo es siempre un numberOfTrailingZeros,
+ * haya los hilos que haya. El quantum depende de la prioridad estática: el del Scheduler para nice 0, el
+ * doble para nice -20 y un ciclo para nice 19.
+ *
+ * El hilo que agota su quantum pasa al array expirado; cuando el activo se vacía, los arrays se
+ * intercambian. Así todos los hilos se ejecutan una vez por ronda, sea cual sea su prioridad.
+ *
+ * La prioridad dinámica (Thread.getDynamicPriority()) empieza en la estática y se aleja hasta MAX_BONUS
+ * niveles de ella según el comportamiento del hilo: sube un nivel cada vez que despierta de un bloqueo (no
+ * al llegar nuevo ni al migrar de CPU) y baja uno cada vez que agota el quantum. Los hilos
+ * interactivos (al menos INTERACTIVE_DELTA niveles por encima de su prioridad estática) que agotan el
+ * quantum vuelven al array activo para no esperar a toda la ronda, salvo que el array expirado lleve
+ * starvationLimit ciclos esperando: entonces van al expirado como los demás, el activo se vacía y la
+ * ronda se cierra, de modo que los hilos de abajo no sufren inanición.
+ */
+public class PriorityArrayStrategy implements SchedulingAlgorithm {
+
+    public static final int PRIORITY_LEVELS = 40;
+    public static final int MAX_BONUS = 5;
+    public static final int INTERACTIVE_DELTA = 2;
+    public static final int DEFAULT_STARVATION_LIMIT = 100;
+
+    private final int starvationLimit;
+    private PriorityArray active = new PriorityArray();
+    private PriorityArray expired = new PriorityArray();
+    private int baseQuantum = 4;     // Quantum del Scheduler, del que sale el de cada prioridad
+    private long clock;              // Ciclos de la CPU dueña de esta cola
+    private long expiredSince = -1;  // Ciclo en que llegó el primer hilo al array expirado, o -1
+    private long arraySwitches;
+
+    public PriorityArrayStrategy() {
+        this(DEFAULT_STARVATION_LIMIT);
+    }
+
+    /**
+     * @param starvationLimit Ciclos que puede esperar el array expirado antes de que los hilos interactivos
+     *                        dejen de volver al activo.
+     */
+    public PriorityArrayStrategy(int starvationLimit) {
+        this.starvationLimit = starvationLimit;
+    }
+
+    /**
+     * @return La prioridad estática del hilo, de 0 (nice -20) a PRIORITY_LEVELS - 1 (nice 19).
+     */
+    static int staticPriority(Thread thread) {
+        return Math.max(-20, Math.min(19, thread.getParentProcess().getPriority())) + 20;
+    }
+
+    private static int clampDynamic(Thread thread, int priority) {
+        int base = staticPriority(thread);
+        int clamped = Math.max(base - MAX_BONUS, Math.min(base + MAX_BONUS, priority));
+        return Math.max(0, Math.min(PRIORITY_LEVELS - 1, clamped));
+    }
+
+    @Override
+    public void admitThread(Thread thread) {
+        if (thread.getState() == Thread.ThreadState.READY) {
+            if (thread.getDynamicPriority() < 0) {
+                // Hilo nuevo: empieza en su prioridad estática, con el quantum completo. Uno que llega de
+                // otra CPU conserva su prioridad y lo que le quedaba de quantum.
+                thread.setDynamicPriority(staticPriority(thread));
+            }
+            active.add(thread);
+        }
+    }
+
+    @Override
+    public void wakeThread(Thread thread) {
+        if (thread.getState() == Thread.ThreadState.READY) {
+            // Vuelve de un bloqueo: bonificación por haber dormido, con el quantum completo.
+            int priority = thread.getDynamicPriority() < 0 ? staticPriority(thread) : thread.getDynamicPriority();
+            thread.setDynamicPriority(clampDynamic(thread, priority - 1));
+            active.add(thread);
+        }
+    }
+
+    @Override
+    public Thread getNextThread() {
+        if (active.isEmpty() && !expired.isEmpty()) {
+            switchArrays();
+        }
+        return active.poll();
+    }
+
+    @Override
+    public void returnThreadToQueue(Thread thread) {
+        if (thread.getState() != Thread.ThreadState.READY) {
+            return;
+        }
+        if (thread.getDynamicPriority() < 0) {
+            // Empezó el quantum con otra estrategia: entra como un hilo nuevo.
+            admitThread(thread);
+            return;
+        }
+        if (thread.getLevelCycles() < timeslice(thread, baseQuantum)) {
+            // Desalojado por un hilo más prioritario: sigue en la ronda con lo que le quedaba.
+            active.add(thread);
+            return;
+        }
+        int priority = thread.getDynamicPriority();
+        thread.setDynamicPriority(clampDynamic(thread, priority + 1));
+        boolean interactive = priority <= staticPriority(thread) - INTERACTIVE_DELTA;
+        if (interactive && !expiredStarving()) {
+            active.add(thread);
+        } else {
+            if (expired.isEmpty()) {
+                expiredSince = clock;
+            }
+            expired.add(thread);
+        }
+    }
+
+    private boolean expiredStarving() {
+        return !expired.isEmpty() && clock - expiredSince >= starvationLimit;
+    }
+
+    private void switchArrays() {
+        PriorityArray empty = active;
+        active = expired;
+        expired = empty;
+        expiredSince = -1;
+        arraySwitches++;
+    }
+
+    /**
+     * Quantum según la prioridad estática: base para nice 0, 2 * base para nice -20, lineal entre medias.
+     */
+    private static int timeslice(Thread thread, int base) {
+        return Math.max(1, base * (PRIORITY_LEVELS - staticPriority(thread)) / (PRIORITY_LEVELS / 2));
+    }
+
+    @Override
+    public int getQuantum(Thread thread, int defaultQuantum) {
+        baseQuantum = defaultQuantum;
+        return Math.max(1, timeslice(thread, defaultQuantum) - thread.getLevelCycles());
+    }
+
+    @Override
+    public void onCycles(Thread running, int cycles) {
+        clock += cycles;
+        if (running != null) {
+            running.addLevelCycles(cycles);
+        }
+    }
+
+    @Override
+    public boolean shouldPreempt(Thread running) {
+        return !active.isEmpty() && active.highestPriority() < running.getDynamicPriority();
+    }
+
+    @Override
+    public Queue<Thread> getReadyQueueSnapshot() {
+        Queue<Thread> snapshot = new LinkedList<>();
+        readyIterator().forEachRemaining(snapshot::add);
+        return snapshot;
+    }
+
+    /**
+     * Recorre primero el array activo y luego el expirado, cada uno por prioridad.
+     */
+    @Override
+    public Iterator<Thread> readyIterator() {
+        return new Iterator<>() {
+            private int queue = -1; // 0..PRIORITY_LEVELS-1 en el activo; el resto, en el expirado
+            private Iterator<Thread> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && queue < 2 * PRIORITY_LEVELS - 1) {
+                    queue++;
+                    PriorityArray array = queue < PRIORITY_LEVELS ? active : expired;
+                    current = array.queues[queue % PRIORITY_LEVELS].iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public Thread next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    @Override
+    public void removeThread(Thread thread) {
+        if (!active.remove(thread) && expired.remove(thread) && expired.isEmpty()) {
+            expiredSince = -1;
+        }
+    }
+
+    @Override
+    public int size() {
+        return active.size + expired.size;
+    }
+
+    @Override
+    public boolean isPreemptive() {
+        return true;
+    }
+
+    @Override
+    public Queue<Thread> clear() {
+        Queue<Thread> oldQueue = getReadyQueueSnapshot();
+        active.clear();
+        expired.clear();
+        expiredSince = -1;
+        return oldQueue;
+    }
+
+    /**
+     * @return Veces que se han intercambiado los arrays activo y expirado (rondas completadas).
+     */
+    public long getArraySwitchCount() {
+        return arraySwitches;
+    }
+
+    /**
+     * Una cola FIFO por prioridad más el mapa de bits de las que tienen hilos.
+     */
+    private static final class PriorityArray {
+
+        final ThreadFifo[] queues = new ThreadFifo[PRIORITY_LEVELS];
+        long bitmap;
+        int size;
+
+        PriorityArray() {
+            for (int i = 0; i < queues.length; i++) {
+                queues[i] = new ThreadFifo();
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int highestPriority() {
+            return Long.numberOfTrailingZeros(bitmap);
+        }
+
+        void add(Thread thread) {
+            int priority = thread.getDynamicPriority();
+            if (queues[priority].add(thread)) {
+                bitmap |= 1L << priority;
+                size++;
+            }
+        }
+
+        Thread poll() {
+            if (size == 0) {
+                return null;
+            }
+            int priority = highestPriority();
+            Thread thread = queues[priority].poll();
+            removed(priority);
+            return thread;
+        }
+
+        boolean remove(Thread thread) {
+            int priority = thread.getDynamicPriority();
+            if (priority < 0 || priority >= PRIORITY_LEVELS || !queues[priority].remove(thread)) {
+                return false;
+            }
+            removed(priority);
+            return true;
+        }
+
+        private void removed(int priority) {
+            size--;
+            if (queues[priority].isEmpty()) {
+                bitmap &= ~(1L << priority);
+            }
+        }
+
+        void clear() {
+            for (ThreadFifo queue : queues) {
+                queue.clear();
+            }
+            bitmap = 0;
+            size = 0;
+        }
+    }
+}
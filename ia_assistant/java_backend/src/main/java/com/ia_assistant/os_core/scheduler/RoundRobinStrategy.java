@@ -1,18 +1,20 @@
 package com.ia_assistant.os_core.scheduler;
 
 import com.ia_assistant.os_core.concurrency.Thread;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Queue;
 
 /**
  * Implementación de Round-Robin a nivel de Hilos.
+ * La cola es una ThreadFifo indexada, así que bloquear o terminar un hilo que espera es O(1).
  */
 public class RoundRobinStrategy implements SchedulingAlgorithm {
 
-    private final Queue<Thread> readyQueue;
+    private final ThreadFifo readyQueue;
 
     public RoundRobinStrategy() {
-        this.readyQueue = new LinkedList<>();
+        this.readyQueue = new ThreadFifo();
     }
 
     @Override
@@ -36,7 +38,14 @@ public class RoundRobinStrategy implements SchedulingAlgorithm {
 
     @Override
     public Queue<Thread> getReadyQueueSnapshot() {
-        return new LinkedList<>(readyQueue);
+        Queue<Thread> snapshot = new LinkedList<>();
+        readyQueue.forEach(snapshot::add);
+        return snapshot;
+    }
+
+    @Override
+    public Iterator<Thread> readyIterator() {
+        return readyQueue.iterator();
     }
 
     @Override
@@ -44,6 +53,11 @@ public class RoundRobinStrategy implements SchedulingAlgorithm {
         readyQueue.remove(thread);
     }
 
+    @Override
+    public int size() {
+        return readyQueue.size();
+    }
+
     @Override
     public boolean isPreemptive() {
         return true;
@@ -51,7 +65,7 @@ public class RoundRobinStrategy implements SchedulingAlgorithm {
 
     @Override
     public Queue<Thread> clear() {
-        Queue<Thread> oldQueue = new LinkedList<>(this.readyQueue);
+        Queue<Thread> oldQueue = getReadyQueueSnapshot();
         this.readyQueue.clear();
         return oldQueue;
     }
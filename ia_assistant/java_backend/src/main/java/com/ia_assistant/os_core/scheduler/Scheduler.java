@@ -2,115 +2,861 @@ package com.ia_assistant.os_core.scheduler;
 
 import com.ia_assistant.os_core.Process;
 import com.ia_assistant.os_core.concurrency.Thread;
+import com.ia_assistant.os_core.concurrency.Workload;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Orquesta la ejecución de hilos utilizando una estrategia de planificación modular.
+ *
+ * Simula una máquina de varias CPUs: cada CPU (CpuCore) tiene su propia cola de listos, una instancia
+ * de la estrategia, y su propio hilo en ejecución, protegidos por su cerrojo. Un hilo nuevo o despertado
+ * va a la CPU menos cargada (o se queda en la suya si no hay mucha diferencia). Una CPU que se queda sin
+ * hilos roba uno a la más cargada, y cada cierto número de ciclos cada CPU se equilibra tirando de la
+ * más cargada hasta repartir la diferencia. Robos y equilibrado sólo intentan el cerrojo ajeno
+ * (tryLock) teniendo el propio, así que nunca se espera por dos cerrojos y no hay interbloqueos.
+ *
+ * Los hilos con una carga de trabajo (Workload) ejecutan un paso de ella por ciclo. runCycle() avanza un
+ * ciclo con el cerrojo de la CPU; runQuantum() y runWorkloads() ejecutan el quantum entero fuera del
+ * cerrojo, en hilos portadores reales, y sólo desalojan al acabarlo.
  */
 public class Scheduler {
 
-    private SchedulingAlgorithm strategy;
-    private int quantum; // Para algoritmos apropiativos como Round Robin
-    private int cyclesRunInQuantum; // Ciclos ejecutados para el hilo actual en su quantum
+    /**
+     * Ciclos de cada CPU entre dos equilibrados de carga.
+     */
+    public static final int DEFAULT_BALANCE_INTERVAL = 8;
+
+    /**
+     * Peso de la última ráfaga de CPU en la media exponencial que predice la siguiente.
+     */
+    public static final double DEFAULT_BURST_ALPHA = 0.5;
+
+    private final CpuCore[] cores;
+    private final int quantum; // Para algoritmos apropiativos como Round Robin; las estrategias pueden ajustarlo por hilo
+    private final AtomicInteger nextPlacement = new AtomicInteger(); // Desempate al repartir hilos nuevos
+    private final AtomicInteger strategyGeneration = new AtomicInteger(); // Sube en cada setStrategy
+    private volatile int balanceInterval = DEFAULT_BALANCE_INTERVAL;
+    private volatile double burstAlpha = DEFAULT_BURST_ALPHA;
+    private volatile boolean verbose = true; // Traza por consola de cada ciclo; desactivar para simulaciones largas
+    private volatile String strategyName;    // Se lee sin cerrojos desde las trazas de cualquier CPU
 
-    private Thread currentThread;
+    public Scheduler(Supplier<? extends SchedulingAlgorithm> strategyFactory, int quantum) {
+        this(strategyFactory, quantum, 1);
+    }
 
-    public Scheduler(SchedulingAlgorithm initialStrategy, int quantum) {
-        this.strategy = initialStrategy;
+    /**
+     * @param strategyFactory Crea la cola de listos de cada CPU.
+     * @param cpus Número de CPUs simuladas.
+     */
+    public Scheduler(Supplier<? extends SchedulingAlgorithm> strategyFactory, int quantum, int cpus) {
+        if (cpus < 1) {
+            throw new IllegalArgumentException("El Scheduler necesita al menos una CPU: " + cpus);
+        }
         this.quantum = quantum;
-        this.cyclesRunInQuantum = 0;
-        this.currentThread = null;
-        System.out.println("Scheduler: Listo. Estrategia inicial: " + getStrategyName());
+        this.cores = new CpuCore[cpus];
+        for (int i = 0; i < cpus; i++) {
+            cores[i] = new CpuCore(i, strategyFactory.get());
+        }
+        this.strategyName = nameOf(cores[0].queue);
+        System.out.println("Scheduler: Listo. Estrategia inicial: " + getStrategyName() + ", " + cpus + " CPU(s).");
     }
 
-    public void setStrategy(SchedulingAlgorithm newStrategy) {
-        System.out.println("Scheduler: Cambiando estrategia de " + getStrategyName() + " a " + newStrategy.getClass().getSimpleName());
-        // Transferir hilos de la cola antigua a la nueva
-        Queue<Thread> oldQueue = this.strategy.clear();
-        this.strategy = newStrategy;
-        oldQueue.forEach(this.strategy::admitThread);
-        // Si un hilo estaba en medio de un quantum, se resetea la decisión
-        if (currentThread != null) {
-            this.strategy.admitThread(currentThread);
-            this.currentThread = null;
+    public void setStrategy(Supplier<? extends SchedulingAlgorithm> strategyFactory) {
+        String oldName = getStrategyName();
+        int generation = strategyGeneration.incrementAndGet();
+        for (CpuCore core : cores) {
+            core.lock.lock();
+            try {
+                // Transferir hilos de la cola antigua a la nueva
+                Queue<Thread> oldQueue = core.queue.clear();
+                core.queue = strategyFactory.get();
+                core.generation = generation;
+                // El estado que la estrategia anterior guardaba en los hilos no significa nada para la nueva.
+                // Los hilos bloqueados o en tránsito lo olvidan al admitirlos (CpuCore.adopt).
+                for (Thread thread : oldQueue) {
+                    core.adopt(thread);
+                    core.queue.admitThread(thread);
+                }
+                if (core.current != null) {
+                    core.adopt(core.current);
+                }
+                // Si un hilo estaba en medio de un quantum, se resetea la decisión (salvo que esté
+                // ejecutando su carga: volverá a la cola nueva al terminar el quantum)
+                if (core.current != null && !core.inQuantum) {
+                    core.current.setState(Thread.ThreadState.READY);
+                    core.queue.admitThread(core.current);
+                    core.current = null;
+                }
+                core.updateLoad();
+            } finally {
+                core.lock.unlock();
+            }
         }
+        strategyName = nameOf(cores[0].queue);
+        System.out.println("Scheduler: Cambiando estrategia de " + oldName + " a " + strategyName);
     }
-    
+
+    private static String nameOf(SchedulingAlgorithm strategy) {
+        return strategy.getClass().getSimpleName().replace("Strategy", "");
+    }
+
+    /**
+     * Activa o desactiva la traza por consola de cada ciclo, robo y migración.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    /**
+     * Cambia cada cuántos ciclos de una CPU se equilibra su carga con la más cargada (0 lo desactiva;
+     * los robos de las CPUs ociosas siguen activos).
+     */
+    public void setBalanceInterval(int cycles) {
+        this.balanceInterval = Math.max(0, cycles);
+    }
+
+    /**
+     * Cambia el peso de la última ráfaga al predecir la siguiente: 1 sólo mira la última, valores bajos
+     * suavizan más la historia.
+     */
+    public void setBurstAlpha(double alpha) {
+        if (alpha < 0 || alpha > 1) {
+            throw new IllegalArgumentException("El peso de la última ráfaga debe estar entre 0 y 1");
+        }
+        this.burstAlpha = alpha;
+    }
+
     /**
      * Admite todos los hilos iniciales de un proceso en la cola de listos.
      */
     public void admitProcessThreads(Process process) {
-        process.getThreads().forEach(strategy::admitThread);
+        process.getThreads().forEach(this::admitThread);
     }
 
+    /**
+     * Pone un hilo listo en la cola de la CPU menos cargada. Si el hilo ya se ejecutó en alguna CPU, se
+     * queda en ella mientras ninguna otra tenga al menos dos hilos menos, para no perder su caché.
+     */
+    public void admitThread(Thread thread) {
+        place(thread, false);
+    }
+
+    private void place(Thread thread, boolean wakeup) {
+        if (thread == null || thread.getState() != Thread.ThreadState.READY) {
+            return;
+        }
+        CpuCore core = pickCore(thread.getCpu());
+        core.lock.lock();
+        try {
+            core.enqueue(thread, wakeup);
+        } finally {
+            core.lock.unlock();
+        }
+    }
+
+    private CpuCore pickCore(int previousCpu) {
+        int start = previousCpu >= 0 ? previousCpu : Math.floorMod(nextPlacement.getAndIncrement(), cores.length);
+        CpuCore best = cores[start];
+        for (int i = 1; i < cores.length; i++) {
+            CpuCore core = cores[(start + i) % cores.length];
+            if (core.load < best.load) {
+                best = core;
+            }
+        }
+        if (previousCpu >= 0 && best.load >= cores[previousCpu].load - 1) {
+            return cores[previousCpu];
+        }
+        return best;
+    }
+
+    /**
+     * Ejecuta un ciclo en cada CPU, una detrás de otra.
+     */
     public void runCycle() {
-        // 1. Si no hay hilo en ejecución, obtener el siguiente de la estrategia.
-        if (currentThread == null) {
-            currentThread = strategy.getNextThread();
-            cyclesRunInQuantum = 0; // Resetear contador de quantum
+        for (int cpu = 0; cpu < cores.length; cpu++) {
+            runCycle(cpu);
         }
+    }
 
-        // Si no hay ningún hilo para ejecutar, no hacer nada.
-        if (currentThread == null) {
-            System.out.println("Scheduler: No hay hilos en la cola de listos.");
-            return;
+    /**
+     * Ejecuta un ciclo en una CPU. Se puede llamar a la vez desde varios hilos reales para CPUs distintas.
+     */
+    public void runCycle(int cpu) {
+        CpuCore core = cores[cpu];
+        core.lock.lock();
+        try {
+            core.cycles++;
+            // 1. Si no hay hilo en ejecución, obtener el siguiente de la estrategia, o robarlo.
+            dispatch(core);
+
+            if (core.current == null) {
+                // Si no hay ningún hilo para ejecutar, no hacer nada.
+                core.queue.onCycle(null);
+                if (verbose) {
+                    System.out.printf("Scheduler: CPU %d sin hilos en la cola de listos.\n", cpu);
+                }
+            } else {
+                execute(core);
+            }
+
+            maybeBalance(core, 1);
+            core.updateLoad();
+        } finally {
+            core.lock.unlock();
         }
+    }
+
+    /**
+     * Ejecuta en una CPU lo que le queda de quantum al hilo actual, o al siguiente, sin tener el cerrojo
+     * de la CPU mientras corre su carga: bloquear, despertar o terminar el hilo desde fuera, o robar de
+     * la cola de esta CPU, no espera a que acabe el quantum. Un hilo bloqueado o terminado desde fuera
+     * deja de ejecutar pasos en cuanto acaba el que esté en curso; el desalojo por prioridad sólo se
+     * comprueba al final del quantum. Cada CPU sólo debe tener un hilo real llamando a runCycle(cpu) o
+     * runQuantum(cpu) a la vez.
+     * @return Ciclos ejecutados, o 0 si la CPU no tenía nada que ejecutar (cuenta como un ciclo ocioso).
+     */
+    public int runQuantum(int cpu) {
+        CpuCore core = cores[cpu];
+        Thread thread;
+        int budget;
+        core.lock.lock();
+        try {
+            dispatch(core);
+            thread = core.current;
+            if (thread == null) {
+                core.cycles++;
+                core.queue.onCycle(null);
+                maybeBalance(core, 1);
+                core.updateLoad();
+                return 0;
+            }
+            thread.setState(Thread.ThreadState.RUNNING);
+            if (verbose) {
+                System.out.printf("Scheduler: CPU %d ejecutando quantum de Thread %d (PID %d) con estrategia %s.\n",
+                                  core.id, thread.getThreadId(), thread.getParentProcess().getPid(), getStrategyName());
+            }
+            budget = Math.max(1, core.currentQuantum - core.cyclesRunInQuantum);
+            core.inQuantum = true;
+            core.updateLoad();
+        } finally {
+            core.lock.unlock();
+        }
+
+        int ran = 0;
+        Workload.Step step = Workload.Step.CONTINUE;
+        while (ran < budget && step == Workload.Step.CONTINUE && thread.getState() == Thread.ThreadState.RUNNING) {
+            step = runStep(thread);
+            ran++;
+        }
+
+        core.lock.lock();
+        try {
+            core.inQuantum = false;
+            core.cycles += ran;
+            core.busyCycles += ran;
+            core.cyclesRunInQuantum += ran;
+            thread.addCpuCycles(ran);
+            core.queue.onCycles(thread, ran);
+            settle(core, thread, step);
+            maybeBalance(core, ran);
+            core.updateLoad();
+        } finally {
+            core.lock.unlock();
+        }
+        return ran;
+    }
+
+    /**
+     * Ejecuta las cargas de trabajo de los hilos con una tarea por CPU simulada en un pool de hilos
+     * portadores: cada tarea ejecuta quanta en su CPU (runQuantum) hasta que ninguna CPU tiene hilos listos
+     * ni en ejecución, o hasta llegar a maxCyclesPerCpu ciclos, ociosos incluidos. Los hilos bloqueados
+     * se quedan esperando a que alguien los despierte. Con menos portadores que CPUs también funciona:
+     * las CPUs sin portador se vacían por robo.
+     * @return Ciclos de trabajo ejecutados sumando todas las CPUs.
+     */
+    public long runWorkloads(ForkJoinPool carriers, long maxCyclesPerCpu) {
+        List<ForkJoinTask<Long>> tasks = new ArrayList<>();
+        for (int cpu = 0; cpu < cores.length; cpu++) {
+            int target = cpu;
+            tasks.add(carriers.submit(() -> driveCpu(target, maxCyclesPerCpu)));
+        }
+        long executed = 0;
+        for (ForkJoinTask<Long> task : tasks) {
+            executed += task.join();
+        }
+        return executed;
+    }
+
+    private long driveCpu(int cpu, long maxCycles) {
+        long executed = 0;
+        long cycles = 0;
+        while (cycles < maxCycles) {
+            int ran = runQuantum(cpu);
+            if (ran > 0) {
+                executed += ran;
+                cycles += ran;
+                continue;
+            }
+            cycles++;
+            if (isQuiescent()) {
+                break;
+            }
+            java.lang.Thread.onSpinWait();
+        }
+        return executed;
+    }
+
+    /**
+     * @return true si ninguna CPU tiene hilos listos ni en ejecución.
+     */
+    private boolean isQuiescent() {
+        for (CpuCore core : cores) {
+            if (core.load > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Con el cerrojo: si la CPU no tiene hilo en ejecución, toma el siguiente de su cola o lo roba.
+     */
+    private void dispatch(CpuCore core) {
+        if (core.current == null) {
+            core.current = core.queue.getNextThread();
+            if (core.current == null) {
+                core.current = steal(core);
+            }
+            core.cyclesRunInQuantum = 0; // Resetear contador de quantum
+            if (core.current != null) {
+                core.currentQuantum = core.queue.getQuantum(core.current, quantum);
+            }
+        }
+    }
+
+    /**
+     * Equilibra la CPU si en los últimos ciclos avanzados ha pasado por un múltiplo del intervalo.
+     */
+    private void maybeBalance(CpuCore core, int advanced) {
+        int interval = balanceInterval;
+        if (interval > 0 && cores.length > 1 && core.cycles / interval != (core.cycles - advanced) / interval) {
+            balance(core);
+        }
+    }
+
+    /**
+     * Ejecuta un paso de la carga del hilo; un hilo sin carga sólo consume el ciclo. Si la carga lanza
+     * una excepción, el hilo termina.
+     */
+    private Workload.Step runStep(Thread thread) {
+        Workload workload = thread.getWorkload();
+        if (workload == null) {
+            return Workload.Step.CONTINUE;
+        }
+        try {
+            return workload.step();
+        } catch (RuntimeException e) {
+            System.out.printf("Scheduler: La carga de Thread %d (PID %d) falló y el hilo termina: %s\n",
+                              thread.getThreadId(), thread.getParentProcess().getPid(), e);
+            return Workload.Step.EXIT;
+        }
+    }
+
+    /**
+     * Ejecuta varios ciclos en todas las CPUs repartiéndolas entre hilos reales del anfitrión: cada uno
+     * avanza siempre el mismo subconjunto de CPUs. Las CPUs sólo se coordinan a través de sus cerrojos, así
+     * que el rendimiento crece con los núcleos reales hasta el número de CPUs simuladas. Como en una
+     * máquina real, las CPUs no avanzan al mismo paso: unas pueden ir algunos ciclos por delante de otras.
+     * @param hostThreads Hilos reales que mueven la simulación (el que llama es uno de ellos).
+     */
+    public void runCycles(int cycles, int hostThreads) {
+        int workers = Math.max(1, Math.min(hostThreads, cores.length));
+        java.lang.Thread[] helpers = new java.lang.Thread[workers - 1];
+        for (int w = 1; w < workers; w++) {
+            int first = w;
+            helpers[w - 1] = new java.lang.Thread(() -> runCores(first, workers, cycles), "scheduler-cpu-" + w);
+            helpers[w - 1].start();
+        }
+        runCores(0, workers, cycles);
+        for (java.lang.Thread helper : helpers) {
+            boolean interrupted = false;
+            while (helper.isAlive()) {
+                try {
+                    helper.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                java.lang.Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void runCores(int first, int stride, int cycles) {
+        for (int i = 0; i < cycles; i++) {
+            for (int cpu = first; cpu < cores.length; cpu += stride) {
+                runCycle(cpu);
+            }
+        }
+    }
+
+    private void execute(CpuCore core) {
+        Thread thread = core.current;
+        core.busyCycles++;
 
         // 2. Ejecutar un ciclo del hilo.
-        currentThread.setState(Thread.ThreadState.RUNNING);
-        System.out.printf("Scheduler: Ejecutando ciclo en Thread %d (PID %d) con estrategia %s.\n", 
-                          currentThread.getThreadId(), currentThread.getParentProcess().getPid(), getStrategyName());
-
-        // Simulación de trabajo: Aquí es donde el hilo consumiría tiempo de CPU.
-        // En una fase futura, el "burstTime" se gestionaría aquí.
-        
-        // 3. Verificar si el hilo debe ser desalojado (preemption).
-        if (strategy.isPreemptive()) {
-            cyclesRunInQuantum++;
-            if (cyclesRunInQuantum >= quantum) {
-                System.out.printf("Scheduler: Quantum de %d ciclos finalizado para Thread %d.\n", quantum, currentThread.getThreadId());
-                currentThread.setState(Thread.ThreadState.READY);
-                strategy.returnThreadToQueue(currentThread);
-                currentThread = null; // Liberar la CPU para que el planificador elija de nuevo.
+        thread.setState(Thread.ThreadState.RUNNING);
+        if (verbose) {
+            System.out.printf("Scheduler: CPU %d ejecutando ciclo en Thread %d (PID %d) con estrategia %s.\n",
+                              core.id, thread.getThreadId(), thread.getParentProcess().getPid(), getStrategyName());
+        }
+
+        // Un ciclo de trabajo: un paso de la carga del hilo, si tiene.
+        Workload.Step step = runStep(thread);
+        thread.addCpuCycles(1);
+        core.queue.onCycle(thread);
+        core.cyclesRunInQuantum++;
+        settle(core, thread, step);
+    }
+
+    /**
+     * Con el cerrojo, después de ejecutar al hilo actual: decide si termina, se bloquea, vuelve a la cola
+     * o sigue en la CPU.
+     */
+    private void settle(CpuCore core, Thread thread, Workload.Step step) {
+        boolean wakeup = core.pendingWakeup;
+        core.pendingWakeup = false;
+        Thread.ThreadState state = thread.getState();
+        if (state == Thread.ThreadState.TERMINATED || step == Workload.Step.EXIT) {
+            thread.setState(Thread.ThreadState.TERMINATED);
+            core.queue.threadLeft(thread);
+            core.current = null;
+            if (verbose) {
+                System.out.printf("Scheduler: Thread %d terminado en CPU %d.\n", thread.getThreadId(), core.id);
+            }
+            return;
+        }
+        if (state == Thread.ThreadState.BLOCKED || step == Workload.Step.BLOCK) {
+            core.queue.threadLeft(thread);
+            core.current = null;
+            thread.completeBurst(burstAlpha);
+            if (wakeup) {
+                // Lo despertaron mientras ejecutaba el quantum en que se bloqueó: no llega a dormir.
+                thread.setState(Thread.ThreadState.READY);
+                core.enqueue(thread, true);
+            } else {
+                thread.setState(Thread.ThreadState.BLOCKED);
+            }
+            return;
+        }
+
+        // 3. Verificar si el hilo debe ser desalojado (preemption): por fin de quantum o porque la
+        //    estrategia tiene en cola un hilo que debe pasarle delante.
+        if (core.queue.isPreemptive()) {
+            boolean expired = core.cyclesRunInQuantum >= core.currentQuantum;
+            if (expired || core.queue.shouldPreempt(thread)) {
+                if (verbose && expired) {
+                    System.out.printf("Scheduler: Quantum de %d ciclos finalizado para Thread %d en CPU %d.\n", core.currentQuantum, thread.getThreadId(), core.id);
+                } else if (verbose) {
+                    System.out.printf("Scheduler: Thread %d desalojado en CPU %d por un hilo más prioritario.\n", thread.getThreadId(), core.id);
+                }
+                thread.setState(Thread.ThreadState.READY);
+                core.queue.returnThreadToQueue(thread);
+                core.current = null; // Liberar la CPU para que el planificador elija de nuevo.
             }
         }
         // Si no es apropiativo, el hilo continuará hasta que se bloquee o termine.
     }
 
+    /**
+     * Con el cerrojo de una CPU ociosa, le trae el siguiente hilo listo de la CPU más cargada.
+     * @return El hilo robado, o null si ninguna CPU tiene hilos esperando o la más cargada está ocupada.
+     */
+    private Thread steal(CpuCore thief) {
+        CpuCore victim = null;
+        for (CpuCore core : cores) {
+            if (core != thief && core.queued > 0 && (victim == null || core.queued > victim.queued)) {
+                victim = core;
+            }
+        }
+        if (victim == null || !victim.lock.tryLock()) {
+            return null;
+        }
+        try {
+            Thread thread = victim.queue.takeForMigration();
+            if (thread == null) {
+                return null;
+            }
+            migrate(thread, victim, thief);
+            thief.steals++;
+            victim.updateLoad();
+            if (verbose) {
+                System.out.printf("Scheduler: CPU %d ociosa roba Thread %d a la CPU %d.\n", thief.id, thread.getThreadId(), victim.id);
+            }
+            // Pasa por la cola de la CPU ociosa, que está vacía, para que su estrategia lo dé por suyo.
+            thief.adopt(thread);
+            thief.queue.admitThread(thread);
+            return thief.queue.getNextThread();
+        } finally {
+            victim.lock.unlock();
+        }
+    }
+
+    /**
+     * Con el cerrojo de una CPU, se lleva hilos listos de la más cargada hasta repartir la diferencia.
+     */
+    private void balance(CpuCore core) {
+        CpuCore busiest = busiest(core);
+        if (busiest == null) {
+            return;
+        }
+        core.updateLoad();
+        int excess = (busiest.load - core.load) / 2;
+        if (excess <= 0 || !busiest.lock.tryLock()) {
+            return;
+        }
+        try {
+            int moved = 0;
+            for (; moved < excess; moved++) {
+                Thread thread = busiest.queue.takeForMigration();
+                if (thread == null) {
+                    break;
+                }
+                migrate(thread, busiest, core);
+                core.adopt(thread);
+                core.queue.admitThread(thread);
+            }
+            busiest.updateLoad();
+            if (verbose && moved > 0) {
+                System.out.printf("Scheduler: Equilibrado: %d hilo(s) de la CPU %d a la CPU %d.\n", moved, busiest.id, core.id);
+            }
+        } finally {
+            busiest.lock.unlock();
+        }
+    }
+
+    /**
+     * Pasa un hilo ya sacado de la cola de origen a la CPU de destino. Requiere los dos cerrojos.
+     */
+    private static void migrate(Thread thread, CpuCore from, CpuCore to) {
+        thread.setCpu(to.id);
+        from.migrationsOut++;
+        to.migrationsIn++;
+    }
+
+    private CpuCore busiest(CpuCore exclude) {
+        CpuCore busiest = null;
+        for (CpuCore core : cores) {
+            if (core != exclude && (busiest == null || core.load > busiest.load)) {
+                busiest = core;
+            }
+        }
+        return busiest;
+    }
+
+    /**
+     * Bloquea el cerrojo de la CPU a la que está asignado el hilo. Si mientras tanto otra CPU se lo ha
+     * llevado, se reintenta con la nueva: el hilo sólo cambia de CPU con el cerrojo de la de origen.
+     * @return La CPU, con su cerrojo, o null si el hilo nunca se ha admitido.
+     */
+    private CpuCore lockCoreOf(Thread thread) {
+        while (true) {
+            int cpu = thread.getCpu();
+            if (cpu < 0) {
+                return null;
+            }
+            CpuCore core = cores[cpu];
+            core.lock.lock();
+            if (thread.getCpu() == cpu) {
+                return core;
+            }
+            core.lock.unlock();
+        }
+    }
+
     public void blockThread(Thread thread) {
         if (thread != null) {
-            thread.setState(Thread.ThreadState.BLOCKED);
-            strategy.removeThread(thread);
-            if (thread == currentThread) {
-                currentThread = null; // Si el hilo bloqueado era el actual, la CPU se libera.
-            }
+            leaveCpu(thread, Thread.ThreadState.BLOCKED);
         }
     }
 
     public void unblockThread(Thread thread) {
-        if (thread != null && thread.getState() == Thread.ThreadState.BLOCKED) {
+        if (thread == null) {
+            return;
+        }
+        CpuCore core = lockCoreOf(thread);
+        try {
+            if (core != null && core.inQuantum && core.current == thread) {
+                // Está ejecutando su quantum: si se bloquea en él (o ya lo han bloqueado), no llegará a dormir.
+                core.pendingWakeup = true;
+                return;
+            }
+            if (thread.getState() != Thread.ThreadState.BLOCKED) {
+                return;
+            }
             thread.setState(Thread.ThreadState.READY);
-            strategy.admitThread(thread);
+        } finally {
+            if (core != null) {
+                core.lock.unlock();
+            }
         }
+        place(thread, true);
     }
 
     public void terminateThread(Thread thread) {
         if (thread != null) {
-            thread.setState(Thread.ThreadState.TERMINATED);
-            strategy.removeThread(thread);
-             if (thread == currentThread) {
-                currentThread = null; // Liberar la CPU.
+            leaveCpu(thread, Thread.ThreadState.TERMINATED);
+        }
+    }
+
+    private void leaveCpu(Thread thread, Thread.ThreadState state) {
+        CpuCore core = lockCoreOf(thread);
+        if (core == null) {
+            thread.setState(state);
+            return;
+        }
+        try {
+            thread.setState(state);
+            if (thread == core.current) {
+                core.queue.threadLeft(thread);
+            } else {
+                core.queue.removeThread(thread);
             }
+            // Si está ejecutando su quantum, la CPU se libera, y la ráfaga se cierra, al acabar el paso en curso.
+            if (thread != core.current || !core.inQuantum) {
+                if (thread == core.current) {
+                    core.current = null; // Si el hilo era el actual, la CPU se libera.
+                }
+                if (state == Thread.ThreadState.BLOCKED) {
+                    thread.completeBurst(burstAlpha);
+                }
+            }
+            core.updateLoad();
+        } finally {
+            core.lock.unlock();
+        }
+    }
+
+    // --- Control de las CPUs desde DiscreteEventSimulator, que decide él cuántos ciclos avanza cada una ---
+
+    /**
+     * Si la CPU no tiene hilo en ejecución, le da el siguiente de su cola, o uno robado.
+     * @return El hilo en ejecución en la CPU, o null si sigue ociosa.
+     */
+    Thread dispatchOn(int cpu) {
+        CpuCore core = cores[cpu];
+        core.lock.lock();
+        try {
+            dispatch(core);
+            if (core.current != null) {
+                core.current.setState(Thread.ThreadState.RUNNING);
+            }
+            core.updateLoad();
+            return core.current;
+        } finally {
+            core.lock.unlock();
+        }
+    }
+
+    /**
+     * @return Ciclos de quantum que le quedan al hilo en ejecución, o Integer.MAX_VALUE si la estrategia
+     *         no es apropiativa.
+     */
+    int quantumLeft(int cpu) {
+        CpuCore core = cores[cpu];
+        core.lock.lock();
+        try {
+            if (!core.queue.isPreemptive()) {
+                return Integer.MAX_VALUE;
+            }
+            return Math.max(1, core.currentQuantum - core.cyclesRunInQuantum);
+        } finally {
+            core.lock.unlock();
+        }
+    }
+
+    /**
+     * Avanza la CPU varios ciclos de golpe: el hilo en ejecución, si lo hay, los consume todos sin que se
+     * compruebe el fin de quantum ni el desalojo. Cuesta lo mismo sean cuantos sean los ciclos. Una CPU
+     * ociosa y sin hilos en cola no se equilibra: si hubiera algo que llevarse, ya lo habría robado al
+     * quedarse sin trabajo.
+     */
+    void advance(int cpu, int cycles) {
+        CpuCore core = cores[cpu];
+        core.lock.lock();
+        try {
+            Thread thread = core.current;
+            core.cycles += cycles;
+            if (thread == null && core.queue.size() == 0) {
+                core.queue.onCycles(null, cycles);
+                return;
+            }
+            if (thread != null) {
+                core.busyCycles += cycles;
+                core.cyclesRunInQuantum = (int) Math.min(Integer.MAX_VALUE, (long) core.cyclesRunInQuantum + cycles);
+                thread.addCpuCycles(cycles);
+            }
+            core.queue.onCycles(thread, cycles);
+            maybeBalance(core, cycles);
+            core.updateLoad();
+        } finally {
+            core.lock.unlock();
+        }
+    }
+
+    /**
+     * Cierra el turno del hilo en ejecución como si su carga acabara de devolver step: termina, se
+     * bloquea, vuelve a la cola si se le acabó el quantum, o sigue.
+     */
+    void endTurn(int cpu, Workload.Step step) {
+        CpuCore core = cores[cpu];
+        core.lock.lock();
+        try {
+            if (core.current != null) {
+                settle(core, core.current, step);
+            }
+            core.updateLoad();
+        } finally {
+            core.lock.unlock();
+        }
+    }
+
+    /**
+     * Desaloja al hilo en ejecución si la estrategia tiene en cola uno que debe pasarle delante.
+     * @return true si lo ha desalojado.
+     */
+    boolean preemptIfNeeded(int cpu) {
+        CpuCore core = cores[cpu];
+        core.lock.lock();
+        try {
+            Thread thread = core.current;
+            if (thread == null || !core.queue.isPreemptive() || !core.queue.shouldPreempt(thread)) {
+                return false;
+            }
+            thread.setState(Thread.ThreadState.READY);
+            core.queue.returnThreadToQueue(thread);
+            core.current = null;
+            core.updateLoad();
+            return true;
+        } finally {
+            core.lock.unlock();
         }
     }
 
     // --- Métodos de Información ---
     public String getStrategyName() {
-        return strategy.getClass().getSimpleName().replace("Strategy", "");
+        return strategyName;
+    }
+
+    public int getCpuCount() {
+        return cores.length;
     }
 
+    /**
+     * @return Los hilos listos de todas las CPUs, CPU por CPU y cada una en el orden de su estrategia.
+     */
     public List<Thread> getReadyQueueSnapshot() {
-        return new java.util.ArrayList<>(strategy.getReadyQueueSnapshot());
+        List<Thread> snapshot = new ArrayList<>();
+        for (CpuCore core : cores) {
+            core.lock.lock();
+            try {
+                snapshot.addAll(core.queue.getReadyQueueSnapshot());
+            } finally {
+                core.lock.unlock();
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Recorre los hilos listos de todas las CPUs sin copiar las colas, con el cerrojo de cada CPU mientras
+     * se recorre la suya. La acción no debe llamar al Scheduler.
+     */
+    public void forEachReadyThread(Consumer<? super Thread> action) {
+        for (CpuCore core : cores) {
+            core.lock.lock();
+            try {
+                core.queue.readyIterator().forEachRemaining(action);
+            } finally {
+                core.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return Hilos listos sumando todas las CPUs.
+     */
+    public int getReadyThreadCount() {
+        int ready = 0;
+        for (CpuCore core : cores) {
+            core.lock.lock();
+            try {
+                ready += core.queue.size();
+            } finally {
+                core.lock.unlock();
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * @return Fracción de sus ciclos en los que la CPU ejecutó algún hilo (0 si aún no ha ejecutado ninguno).
+     */
+    public double getUtilization(int cpu) {
+        CpuCore core = cores[cpu];
+        core.lock.lock();
+        try {
+            return core.utilization();
+        } finally {
+            core.lock.unlock();
+        }
+    }
+
+    /**
+     * @return Hilos que han cambiado de CPU, por robo o por equilibrado, sumando todas las CPUs.
+     */
+    public long getMigrationCount() {
+        long migrations = 0;
+        for (CpuCore core : cores) {
+            core.lock.lock();
+            try {
+                migrations += core.migrationsIn;
+            } finally {
+                core.lock.unlock();
+            }
+        }
+        return migrations;
+    }
+
+    /**
+     * @return Una línea por CPU con su hilo actual, su cola, su utilización y sus migraciones.
+     */
+    public String getCpuStatus() {
+        StringBuilder sb = new StringBuilder();
+        for (CpuCore core : cores) {
+            core.lock.lock();
+            try {
+                sb.append(String.format("CPU %d: %s, %d en cola, utilización %.1f%% de %d ciclos, migraciones %d entrantes / %d salientes (%d robos)\n",
+                        core.id,
+                        core.current == null ? "ociosa" : "TID-" + core.current.getThreadId(),
+                        core.queue.size(), core.utilization() * 100, core.cycles,
+                        core.migrationsIn, core.migrationsOut, core.steals));
+            } finally {
+                core.lock.unlock();
+            }
+        }
+        return sb.toString();
     }
 }
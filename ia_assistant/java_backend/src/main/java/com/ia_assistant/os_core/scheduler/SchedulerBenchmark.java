@@ -0,0 +1,206 @@
+package com.ia_assistant.os_core.scheduler;
+
+import com.ia_assistant.os_core.Process;
+import com.ia_assistant.os_core.concurrency.Thread;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Mide cuánto cuesta simular con el DiscreteEventSimulator: reproduce la misma carga sintética con cada
+ * estrategia durante un horizonte de ciclos y saca el tiempo real, los sucesos procesados y los ciclos
+ * simulados por segundo. Como el simulador avanza las CPUs de golpe entre sucesos, el tiempo real depende
+ * de los sucesos y no del horizonte: con la carga por defecto, 10^10 ciclos se simulan en segundos.
+ *
+ * La carga mezcla hilos interactivos (tres de cada cuatro: ráfagas de CPU cortas, de hasta medio quantum)
+ * e hilos intensivos en CPU (ráfagas de uno a diez quanta), separadas por E/S repartidas para que cada hilo
+ * dure más o menos todo el horizonte. La semilla es fija, así que todas las estrategias ven la misma carga.
+ *
+ * MLFQ y CFS no usan el quantum del Scheduler sino el suyo, de unos pocos ciclos; con ellas los fines de
+ * turno, y con ellos los sucesos, crecen con los ciclos de CPU ocupada.
+ */
+public class SchedulerBenchmark {
+
+    public static final long DEFAULT_SEED = 42;
+
+    private final int cpus;
+    private final int quantum;
+    private final int threads;
+    private final int burstsPerThread;
+    private final long horizon;
+
+    /**
+     * @param cpus            CPUs del Scheduler.
+     * @param quantum         Quantum del Scheduler, en ciclos.
+     * @param threads         Hilos de la carga.
+     * @param burstsPerThread Ráfagas de CPU de cada hilo.
+     * @param horizon         Ciclos a simular.
+     */
+    public SchedulerBenchmark(int cpus, int quantum, int threads, int burstsPerThread, long horizon) {
+        if (cpus < 1 || quantum < 1 || threads < 1 || burstsPerThread < 1 || horizon < 1) {
+            throw new IllegalArgumentException("Todos los parámetros del banco de pruebas deben ser positivos");
+        }
+        this.cpus = cpus;
+        this.quantum = quantum;
+        this.threads = threads;
+        this.burstsPerThread = burstsPerThread;
+        this.horizon = horizon;
+    }
+
+    /**
+     * Simula la carga con una estrategia. Conviene desactivar antes la traza de los hilos
+     * (Thread.setTracing(false)), que imprime una línea por hilo creado.
+     * @throws IllegalArgumentException Si la estrategia no está registrada en SchedulingPolicies.
+     */
+    public Result run(String policy) {
+        Supplier<SchedulingAlgorithm> factory = SchedulingPolicies.factory(policy)
+                .orElseThrow(() -> new IllegalArgumentException("Estrategia de planificación desconocida: " + policy));
+        Scheduler scheduler = new Scheduler(factory, quantum, cpus);
+        DiscreteEventSimulator simulator = new DiscreteEventSimulator(scheduler);
+        submitWorkload(simulator);
+
+        long start = System.nanoTime();
+        simulator.run(horizon);
+        long elapsedNanos = System.nanoTime() - start;
+
+        double utilization = 0;
+        for (int cpu = 0; cpu < cpus; cpu++) {
+            utilization += scheduler.getUtilization(cpu);
+        }
+        return new Result(policy, elapsedNanos, simulator.getTime(), simulator.getProcessedEvents(),
+                          simulator.getCompletedJobs(), simulator.getMeanTurnaround(), utilization / cpus);
+    }
+
+    private void submitWorkload(DiscreteEventSimulator simulator) {
+        Random random = new Random(DEFAULT_SEED);
+        Process process = new Process(1, "benchmark", 0, 1);
+        // Llegadas en el primer décimo del horizonte y E/S media para que cada hilo acabe hacia el 85%.
+        long meanIo = Math.max(1, Math.min(Integer.MAX_VALUE / 2, horizon * 3 / 4 / burstsPerThread));
+        for (int i = 0; i < threads; i++) {
+            boolean interactive = i % 4 != 0;
+            int[] bursts = new int[burstsPerThread];
+            int[] ioTimes = new int[burstsPerThread - 1];
+            for (int b = 0; b < bursts.length; b++) {
+                bursts[b] = interactive ? 1 + random.nextInt(Math.max(1, quantum / 2))
+                                        : quantum + random.nextInt(9 * quantum + 1);
+            }
+            for (int b = 0; b < ioTimes.length; b++) {
+                ioTimes[b] = (int) (meanIo / 2 + (long) (random.nextDouble() * meanIo));
+            }
+            long arrival = (long) (random.nextDouble() * (horizon / 10));
+            simulator.submit(process, arrival, bursts, ioTimes);
+        }
+    }
+
+    /**
+     * Resultado de simular la carga con una estrategia.
+     */
+    public static final class Result {
+
+        private final String policy;
+        private final long elapsedNanos;
+        private final long simulatedCycles;
+        private final long events;
+        private final int completedJobs;
+        private final double meanTurnaround;
+        private final double utilization;
+
+        Result(String policy, long elapsedNanos, long simulatedCycles, long events, int completedJobs,
+               double meanTurnaround, double utilization) {
+            this.policy = policy;
+            this.elapsedNanos = elapsedNanos;
+            this.simulatedCycles = simulatedCycles;
+            this.events = events;
+            this.completedJobs = completedJobs;
+            this.meanTurnaround = meanTurnaround;
+            this.utilization = utilization;
+        }
+
+        public String getPolicy() {
+            return policy;
+        }
+
+        public double getElapsedSeconds() {
+            return elapsedNanos / 1e9;
+        }
+
+        public long getSimulatedCycles() {
+            return simulatedCycles;
+        }
+
+        public long getEvents() {
+            return events;
+        }
+
+        public int getCompletedJobs() {
+            return completedJobs;
+        }
+
+        public double getMeanTurnaround() {
+            return meanTurnaround;
+        }
+
+        /**
+         * @return La utilización media de las CPUs, entre 0 y 1.
+         */
+        public double getUtilization() {
+            return utilization;
+        }
+
+        /**
+         * @return Ciclos simulados por segundo de tiempo real.
+         */
+        public double getCyclesPerSecond() {
+            return elapsedNanos == 0 ? 0 : simulatedCycles / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * @return Sucesos procesados por segundo de tiempo real.
+         */
+        public double getEventsPerSecond() {
+            return elapsedNanos == 0 ? 0 : events / (elapsedNanos / 1e9);
+        }
+    }
+
+    /**
+     * Tabla con una fila por estrategia.
+     */
+    public static String format(List<Result> results) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%8s %10s %14s %12s %14s %12s %8s %10s %16s%n", "estrateg", "segundos",
+                                "ciclos", "sucesos", "M ciclos/s", "K sucesos/s", "acabados", "util (%)",
+                                "retorno medio"));
+        for (Result r : results) {
+            sb.append(String.format("%8s %10.2f %14d %12d %14.1f %12.1f %8d %10.1f %16.1f%n", r.getPolicy(),
+                                    r.getElapsedSeconds(), r.getSimulatedCycles(), r.getEvents(),
+                                    r.getCyclesPerSecond() / 1e6, r.getEventsPerSecond() / 1e3,
+                                    r.getCompletedJobs(), r.getUtilization() * 100, r.getMeanTurnaround()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Simula la carga desde la línea de comandos:
+     * SchedulerBenchmark [ciclos=10000000000] [estrategias=rr,sjf,srtf,prio] [cpus=4] [quantum=1000] [hilos=400] [ráfagas=2000]
+     */
+    public static void main(String[] args) {
+        if (args.length > 0 && (args[0].equals("-h") || args[0].equals("--help"))) {
+            System.out.println("Uso: SchedulerBenchmark [ciclos] [estrategias] [cpus] [quantum] [hilos] [ráfagas]");
+            System.out.println("Estrategias disponibles: " + String.join(", ", SchedulingPolicies.names()));
+            return;
+        }
+        long horizon = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000_000L;
+        List<String> policies = Arrays.asList((args.length > 1 ? args[1] : "rr,sjf,srtf,prio").split(","));
+        int cpus = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int quantum = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : 400;
+        int bursts = args.length > 5 ? Integer.parseInt(args[5]) : 2000;
+
+        Thread.setTracing(false);
+        SchedulerBenchmark benchmark = new SchedulerBenchmark(cpus, quantum, threads, bursts, horizon);
+        List<Result> results = policies.stream().map(benchmark::run).toList();
+        System.out.println();
+        System.out.print(format(results));
+    }
+}
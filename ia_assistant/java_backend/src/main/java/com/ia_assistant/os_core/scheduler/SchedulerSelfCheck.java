@@ -0,0 +1,112 @@
+package com.ia_assistant.os_core.scheduler;
+
+import com.ia_assistant.os_core.Process;
+import com.ia_assistant.os_core.concurrency.Thread;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Comprobaciones del comportamiento del Scheduler y de sus estrategias que se lanzan desde la línea de
+ * comandos. Cada comprobación monta su propio Scheduler, lo ejecuta y devuelve los fallos que encuentra;
+ * main() las pasa todas y termina con código 1 si alguna falla.
+ */
+public final class SchedulerSelfCheck {
+
+    private SchedulerSelfCheck() {
+    }
+
+    /**
+     * Con CFS en una CPU, N hilos del mismo nice deben llevarse cada uno 1/N de la CPU, con un margen de
+     * tolerance (0.02 es un 2% de la CPU).
+     */
+    public static List<String> checkFairShare(int threads, int cycles, double tolerance) {
+        List<String> failures = new ArrayList<>();
+        Scheduler scheduler = new Scheduler(CompletelyFairStrategy::new, 4, 1);
+        scheduler.setVerbose(false);
+        Process process = new Process(1, "cfs-check", 0, 1);
+        Thread[] created = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            created[i] = process.createThread(null);
+            scheduler.admitThread(created[i]);
+        }
+        scheduler.runCycles(cycles, 1);
+        for (Thread thread : created) {
+            double share = (double) thread.getCpuCycles() / cycles;
+            if (Math.abs(share - 1.0 / threads) > tolerance) {
+                failures.add(String.format("CFS con %d hilos de nice 0: Thread %d se llevó el %.1f%% de la CPU (esperado %.1f%%)",
+                                           threads, thread.getThreadId(), share * 100, 100.0 / threads));
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Un hilo bloqueado durante un cambio de estrategia no está en ninguna cola, pero al despertar debe
+     * entrar en la nueva como si no hubiera conocido la anterior: en MLFQ por el nivel 0, aunque se
+     * bloqueara en el último, y en los arrays de prioridades con su prioridad estática más la bonificación
+     * por dormir, aunque hubiera agotado muchos quanta.
+     */
+    public static List<String> checkSwitchWhileBlocked() {
+        List<String> failures = new ArrayList<>();
+        int[] quanta = MultilevelFeedbackQueueStrategy.DEFAULT_QUANTA;
+        int[] level = switchWhileBlocked(() -> new MultilevelFeedbackQueueStrategy(quanta, 0), Thread::getSchedulingLevel);
+        if (level[0] != quanta.length - 1 || level[1] != 0) {
+            failures.add(String.format("MLFQ: un hilo que se bloqueó en el nivel %d despertó tras el cambio en el nivel %d (esperado 0)",
+                                       level[0], level[1]));
+        }
+        int expected = 20 - 1; // Nice 0: prioridad estática 20, menos la bonificación por dormir
+        int[] priority = switchWhileBlocked(PriorityArrayStrategy::new, Thread::getDynamicPriority);
+        if (priority[0] <= expected + 1 || priority[1] != expected) {
+            failures.add(String.format("Prioridades: un hilo que se bloqueó con prioridad dinámica %d despertó tras el cambio con %d (esperado %d)",
+                                       priority[0], priority[1], expected));
+        }
+        return failures;
+    }
+
+    /**
+     * Ejecuta dos hilos de CPU de nice 0 hasta que agotan varios quanta, bloquea uno, cambia a una
+     * instancia nueva de la misma estrategia y lo despierta.
+     * @return El estado del hilo medido con state al bloquearse y al despertar.
+     */
+    private static int[] switchWhileBlocked(Supplier<SchedulingAlgorithm> strategy, ToIntFunction<Thread> state) {
+        Scheduler scheduler = new Scheduler(strategy, 4, 1);
+        scheduler.setVerbose(false);
+        Process process = new Process(1, "switch-check", 0, 1);
+        Thread busy = process.createThread(null);
+        Thread sleeper = process.createThread(null);
+        scheduler.admitThread(busy);
+        scheduler.admitThread(sleeper);
+        scheduler.runCycles(500, 1);
+        scheduler.blockThread(sleeper);
+        int before = state.applyAsInt(sleeper);
+        scheduler.setStrategy(strategy);
+        scheduler.unblockThread(sleeper);
+        return new int[] {before, state.applyAsInt(sleeper)};
+    }
+
+    /**
+     * Ejecuta todas las comprobaciones.
+     * @return Los fallos encontrados; vacío si todo va bien.
+     */
+    public static List<String> runAll() {
+        List<String> failures = new ArrayList<>();
+        for (int threads = 2; threads <= 8; threads++) {
+            failures.addAll(checkFairShare(threads, 200_000, 0.02));
+        }
+        failures.addAll(checkSwitchWhileBlocked());
+        return failures;
+    }
+
+    public static void main(String[] args) {
+        Thread.setTracing(false);
+        List<String> failures = runAll();
+        if (failures.isEmpty()) {
+            System.out.println("SchedulerSelfCheck: todas las comprobaciones son correctas.");
+            return;
+        }
+        failures.forEach(failure -> System.out.println("FALLO: " + failure));
+        System.exit(1);
+    }
+}
@@ -1,6 +1,7 @@
 package com.ia_assistant.os_core.scheduler;
 
 import com.ia_assistant.os_core.concurrency.Thread;
+import java.util.Iterator;
 import java.util.Queue;
 
 /**
@@ -14,12 +15,29 @@ public interface SchedulingAlgorithm {
      */
     void admitThread(Thread thread);
 
+    /**
+     * Añade a la cola un hilo que vuelve de un bloqueo. admitThread() recibe en cambio los hilos nuevos y
+     * los que llegan de otra CPU; las estrategias que premian a los hilos que duermen los distinguen así.
+     */
+    default void wakeThread(Thread thread) {
+        admitThread(thread);
+    }
+
     /**
      * Obtiene el siguiente hilo a ejecutar según la estrategia del algoritmo.
      * @return El siguiente hilo, o null si no hay ninguno.
      */
     Thread getNextThread();
 
+    /**
+     * Saca de la cola el siguiente hilo para que se lo lleve otra CPU, que lo admitirá en la suya con
+     * admitThread(). A diferencia de getNextThread(), el hilo no se va a ejecutar en esta CPU.
+     * @return El hilo, o null si no hay ninguno.
+     */
+    default Thread takeForMigration() {
+        return getNextThread();
+    }
+
     /**
      * Devuelve un hilo a la cola después de que su quantum haya expirado.
      * @param thread El hilo a devolver.
@@ -32,12 +50,31 @@ public interface SchedulingAlgorithm {
      */
     Queue<Thread> getReadyQueueSnapshot();
 
+    /**
+     * Recorre los hilos listos sin copiar la cola. El orden puede no ser el de ejecución, y la cola no
+     * se puede modificar mientras dura el recorrido.
+     */
+    default Iterator<Thread> readyIterator() {
+        return getReadyQueueSnapshot().iterator();
+    }
+
     /**
      * Elimina un hilo específico de la cola (por ejemplo, si se termina o bloquea).
      * @param thread El hilo a eliminar.
      */
     void removeThread(Thread thread);
 
+    /**
+     * Se llama cuando el hilo en ejecución deja la CPU sin volver a la cola, porque termina o se bloquea.
+     */
+    default void threadLeft(Thread thread) {
+    }
+
+    /**
+     * @return Número de hilos en la cola de listos (sin contar el que esté en ejecución).
+     */
+    int size();
+
     /**
      * Indica si el algoritmo es apropiativo (preemptive).
      */
@@ -47,4 +84,38 @@ public interface SchedulingAlgorithm {
      * Vacía la cola de listos y devuelve todos los hilos que contenía.
      */
     Queue<Thread> clear();
+
+    /**
+     * Quantum, en ciclos, que se concede a un hilo al darle la CPU. Las estrategias con varios niveles
+     * lo hacen depender del nivel del hilo.
+     * @param defaultQuantum El quantum configurado en el Scheduler.
+     */
+    default int getQuantum(Thread thread, int defaultQuantum) {
+        return defaultQuantum;
+    }
+
+    /**
+     * Se llama en cada ciclo de la CPU dueña de esta cola, después de ejecutar el ciclo.
+     * @param running El hilo que acaba de ejecutar el ciclo, o null si la CPU estuvo ociosa.
+     */
+    default void onCycle(Thread running) {
+        onCycles(running, 1);
+    }
+
+    /**
+     * Se llama cuando la CPU dueña de esta cola avanza varios ciclos de golpe con el mismo hilo. Debe
+     * dejar la cola igual que cycles llamadas a onCycle, pero en tiempo constante: las estrategias que
+     * llevan la cuenta del tiempo la implementan en lugar de onCycle.
+     * @param running El hilo que acaba de ejecutar los ciclos, o null si la CPU estuvo ociosa.
+     */
+    default void onCycles(Thread running, int cycles) {
+    }
+
+    /**
+     * Indica si un hilo de la cola debe desalojar al que está en ejecución antes de que acabe su quantum
+     * (por ejemplo, porque tiene más prioridad). Sólo se consulta en estrategias apropiativas.
+     */
+    default boolean shouldPreempt(Thread running) {
+        return false;
+    }
 }
@@ -0,0 +1,52 @@
+package com.ia_assistant.os_core.scheduler;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Registro de las estrategias de planificación que se pueden elegir por nombre corto ("rr", "sjf"...).
+ * Guarda fábricas y no instancias porque el Scheduler necesita una cola distinta para cada CPU, así que
+ * una estrategia nueva sólo hay que registrarla aquí para que ProcessManager la ofrezca.
+ */
+public final class SchedulingPolicies {
+
+    private static final Map<String, Supplier<SchedulingAlgorithm>> POLICIES = new LinkedHashMap<>();
+
+    static {
+        register("rr", RoundRobinStrategy::new);
+        register("sjf", ShortestJobFirstStrategy::new);
+        register("srtf", ShortestRemainingTimeStrategy::new);
+        register("mlfq", MultilevelFeedbackQueueStrategy::new);
+        register("cfs", CompletelyFairStrategy::new);
+        register("prio", PriorityArrayStrategy::new);
+    }
+
+    private SchedulingPolicies() {
+    }
+
+    /**
+     * Registra (o sustituye) una estrategia. El nombre no distingue mayúsculas.
+     */
+    public static synchronized void register(String name, Supplier<SchedulingAlgorithm> factory) {
+        POLICIES.put(name.toLowerCase(Locale.ROOT), factory);
+    }
+
+    /**
+     * @return La fábrica de la estrategia, o vacío si el nombre no está registrado.
+     */
+    public static synchronized Optional<Supplier<SchedulingAlgorithm>> factory(String name) {
+        return Optional.ofNullable(POLICIES.get(name.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * @return Los nombres registrados, en orden de registro.
+     */
+    public static synchronized List<String> names() {
+        return new ArrayList<>(POLICIES.keySet());
+    }
+}
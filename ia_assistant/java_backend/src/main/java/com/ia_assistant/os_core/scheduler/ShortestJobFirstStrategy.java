@@ -1,23 +1,26 @@
 package com.ia_assistant.os_core.scheduler;
 
 import com.ia_assistant.os_core.concurrency.Thread;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedList;
-import java.util.PriorityQueue;
 import java.util.Queue;
 
 /**
  * Implementación de Shortest Job First a nivel de Hilos.
- * Ordena los hilos basándose en el tiempo de ráfaga de su proceso padre.
+ * Ordena los hilos por la duración prevista de su próxima ráfaga de CPU (a igualdad, por TID), que el
+ * Scheduler aprende de las ráfagas que mide con una media exponencial (Thread.getPredictedBurst()).
+ * La cola es un ThreadHeap indexado, así que bloquear o terminar un hilo que espera es O(log n).
  */
 public class ShortestJobFirstStrategy implements SchedulingAlgorithm {
 
-    private final PriorityQueue<Thread> readyQueue;
-    private static final Comparator<Thread> SJF_COMPARATOR = 
-        Comparator.comparingInt(t -> t.getParentProcess().getBurstTime());
+    private final ThreadHeap readyQueue;
+    private static final Comparator<Thread> SJF_COMPARATOR =
+        Comparator.comparingDouble(Thread::getPredictedBurst).thenComparingInt(Thread::getThreadId);
 
     public ShortestJobFirstStrategy() {
-        this.readyQueue = new PriorityQueue<>(SJF_COMPARATOR);
+        this.readyQueue = new ThreadHeap(SJF_COMPARATOR);
     }
 
     @Override
@@ -40,14 +43,16 @@ public class ShortestJobFirstStrategy implements SchedulingAlgorithm {
 
     @Override
     public Queue<Thread> getReadyQueueSnapshot() {
-        // Creamos una copia para no alterar la cola original
-        PriorityQueue<Thread> snapshotQueue = new PriorityQueue<>(readyQueue);
-        // Lo pasamos a LinkedList para que el orden de iteración sea predecible (el de la cola prioritaria)
-        Queue<Thread> orderedSnapshot = new LinkedList<>();
-        while(!snapshotQueue.isEmpty()) {
-            orderedSnapshot.add(snapshotQueue.poll());
-        }
-        return orderedSnapshot;
+        // Copia ordenada, para que el orden de iteración sea predecible (el de la cola prioritaria)
+        return new LinkedList<>(Arrays.asList(readyQueue.toSortedArray()));
+    }
+
+    /**
+     * Recorre la cola sin copiarla, en el orden interno del montículo y no en el de ejecución.
+     */
+    @Override
+    public Iterator<Thread> readyIterator() {
+        return readyQueue.iterator();
     }
 
     @Override
@@ -55,6 +60,11 @@ public class ShortestJobFirstStrategy implements SchedulingAlgorithm {
         readyQueue.remove(thread);
     }
 
+    @Override
+    public int size() {
+        return readyQueue.size();
+    }
+
     @Override
     public boolean isPreemptive() {
         return false;
@@ -62,7 +72,8 @@ public class ShortestJobFirstStrategy implements SchedulingAlgorithm {
 
     @Override
     public Queue<Thread> clear() {
-        Queue<Thread> oldQueue = new LinkedList<>(this.readyQueue);
+        Queue<Thread> oldQueue = new LinkedList<>();
+        readyQueue.forEach(oldQueue::add);
         this.readyQueue.clear();
         return oldQueue;
     }
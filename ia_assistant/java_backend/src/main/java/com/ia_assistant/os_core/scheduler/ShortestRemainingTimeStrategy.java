@@ -0,0 +1,109 @@
+package com.ia_assistant.os_core.scheduler;
+
+import com.ia_assistant.os_core.concurrency.Thread;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Queue;
+
+/**
+ * Implementación apropiativa de Shortest Remaining Time First a nivel de Hilos.
+ *
+ * Se ejecuta siempre el hilo al que se estima que le queda menos de su ráfaga de CPU actual: la duración
+ * prevista (Thread.getPredictedBurst(), la media exponencial de sus ráfagas anteriores) menos lo que ya
+ * lleva ejecutado. Un hilo que llega con menos tiempo restante desaloja al que se está ejecutando. Si un
+ * hilo supera su predicción, se supone que su ráfaga durará el doble, y así sucesivamente, para que un
+ * hilo mal predicho no pase a ser el más corto para siempre y deje sin CPU a los demás.
+ *
+ * La cola es un ThreadHeap indexado como el de ShortestJobFirstStrategy: el tiempo restante de un hilo
+ * sólo cambia mientras se ejecuta, así que no cambia mientras está en la cola. El quantum es el tiempo
+ * restante estimado, con el del Scheduler como máximo, para revisar la decisión al menos con esa
+ * frecuencia también cuando el quantum se ejecuta de una vez (Scheduler.runQuantum()).
+ */
+public class ShortestRemainingTimeStrategy implements SchedulingAlgorithm {
+
+    private static final Comparator<Thread> SRTF_COMPARATOR =
+        Comparator.comparingDouble(ShortestRemainingTimeStrategy::remainingBurst).thenComparingInt(Thread::getThreadId);
+
+    private final ThreadHeap readyQueue = new ThreadHeap(SRTF_COMPARATOR);
+
+    /**
+     * @return Ciclos que se estima que le quedan al hilo para acabar su ráfaga de CPU actual.
+     */
+    static double remainingBurst(Thread thread) {
+        double estimate = Math.max(1, thread.getPredictedBurst());
+        int elapsed = thread.getBurstCycles();
+        while (estimate <= elapsed) {
+            estimate *= 2;
+        }
+        return estimate - elapsed;
+    }
+
+    @Override
+    public void admitThread(Thread thread) {
+        if (thread.getState() == Thread.ThreadState.READY) {
+            readyQueue.add(thread);
+        }
+    }
+
+    @Override
+    public Thread getNextThread() {
+        return readyQueue.poll();
+    }
+
+    @Override
+    public void returnThreadToQueue(Thread thread) {
+        // Desalojado a mitad de ráfaga: vuelve con el tiempo que le quede.
+        if (thread.getState() == Thread.ThreadState.READY) {
+            readyQueue.add(thread);
+        }
+    }
+
+    @Override
+    public int getQuantum(Thread thread, int defaultQuantum) {
+        return (int) Math.max(1, Math.min(defaultQuantum, Math.ceil(remainingBurst(thread))));
+    }
+
+    @Override
+    public boolean shouldPreempt(Thread running) {
+        Thread first = readyQueue.peek();
+        return first != null && remainingBurst(first) < remainingBurst(running);
+    }
+
+    @Override
+    public Queue<Thread> getReadyQueueSnapshot() {
+        return new LinkedList<>(Arrays.asList(readyQueue.toSortedArray()));
+    }
+
+    /**
+     * Recorre la cola sin copiarla, en el orden interno del montículo y no en el de ejecución.
+     */
+    @Override
+    public Iterator<Thread> readyIterator() {
+        return readyQueue.iterator();
+    }
+
+    @Override
+    public void removeThread(Thread thread) {
+        readyQueue.remove(thread);
+    }
+
+    @Override
+    public int size() {
+        return readyQueue.size();
+    }
+
+    @Override
+    public boolean isPreemptive() {
+        return true;
+    }
+
+    @Override
+    public Queue<Thread> clear() {
+        Queue<Thread> oldQueue = new LinkedList<>();
+        readyQueue.forEach(oldQueue::add);
+        readyQueue.clear();
+        return oldQueue;
+    }
+}
@@ -0,0 +1,145 @@
+package com.ia_assistant.os_core.scheduler;
+
+import com.ia_assistant.os_core.concurrency.Thread;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Cola FIFO de hilos indexada: cada hilo guarda su posición en el array (Thread.getQueueSlot()), así que
+ * quitar uno cualquiera es O(1). Quitar deja un hueco (null) que poll() y el iterador saltan; cuando el
+ * array se llena, se compacta si al menos la mitad son huecos y, si no, se duplica, de modo que encolar
+ * es O(1) amortizado. A diferencia de LinkedList, no reserva un nodo por hilo encolado.
+ */
+final class ThreadFifo implements Iterable<Thread> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Thread[] slots = new Thread[INITIAL_CAPACITY];
+    private int head;  // Primera posición que puede estar ocupada
+    private int tail;  // Siguiente posición libre al final
+    private int count; // Hilos encolados (las posiciones de head a tail menos los huecos)
+
+    /**
+     * @return false si el hilo ya estaba en esta cola.
+     */
+    boolean add(Thread thread) {
+        if (contains(thread)) {
+            return false;
+        }
+        if (tail == slots.length) {
+            makeRoom();
+        }
+        slots[tail] = thread;
+        thread.setQueueSlot(tail++);
+        count++;
+        return true;
+    }
+
+    boolean contains(Thread thread) {
+        int slot = thread.getQueueSlot();
+        return slot >= head && slot < tail && slots[slot] == thread;
+    }
+
+    /**
+     * @return El hilo más antiguo, o null si la cola está vacía.
+     */
+    Thread poll() {
+        while (head < tail) {
+            Thread thread = slots[head];
+            slots[head++] = null;
+            if (thread != null) {
+                thread.setQueueSlot(-1);
+                if (--count == 0) {
+                    head = tail = 0;
+                }
+                return thread;
+            }
+        }
+        head = tail = 0;
+        return null;
+    }
+
+    boolean remove(Thread thread) {
+        if (!contains(thread)) {
+            return false;
+        }
+        slots[thread.getQueueSlot()] = null;
+        thread.setQueueSlot(-1);
+        if (--count == 0) {
+            head = tail = 0;
+        }
+        return true;
+    }
+
+    int size() {
+        return count;
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    void clear() {
+        for (int i = head; i < tail; i++) {
+            if (slots[i] != null) {
+                slots[i].setQueueSlot(-1);
+                slots[i] = null;
+            }
+        }
+        head = tail = count = 0;
+    }
+
+    /**
+     * Junta los hilos al principio del array, o en uno el doble de grande si más de la mitad está ocupado.
+     */
+    private void makeRoom() {
+        Thread[] target = count * 2 <= slots.length ? slots : new Thread[slots.length * 2];
+        int n = 0;
+        for (int i = head; i < tail; i++) {
+            Thread thread = slots[i];
+            if (thread != null) {
+                target[n] = thread;
+                thread.setQueueSlot(n++);
+            }
+        }
+        if (target == slots) {
+            Arrays.fill(slots, n, tail, null);
+        }
+        slots = target;
+        head = 0;
+        tail = n;
+    }
+
+    /**
+     * Recorre la cola en orden sin copiarla. No se puede modificar la cola durante el recorrido.
+     */
+    @Override
+    public Iterator<Thread> iterator() {
+        return new Iterator<>() {
+            private int next = skipHoles(head);
+
+            @Override
+            public boolean hasNext() {
+                return next < tail;
+            }
+
+            @Override
+            public Thread next() {
+                if (next >= tail) {
+                    throw new NoSuchElementException();
+                }
+                Thread thread = slots[next];
+                next = skipHoles(next + 1);
+                return thread;
+            }
+        };
+    }
+
+    private int skipHoles(int index) {
+        while (index < tail && slots[index] == null) {
+            index++;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,168 @@
+package com.ia_assistant.os_core.scheduler;
+
+import com.ia_assistant.os_core.concurrency.Thread;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Montículo binario indexado de hilos: cada hilo guarda su posición en el montículo
+ * (Thread.getQueueSlot()), así que quitar uno cualquiera es O(log n) en vez del recorrido O(n) de
+ * PriorityQueue.remove(). El orden no puede cambiar mientras un hilo está dentro.
+ */
+final class ThreadHeap implements Iterable<Thread> {
+
+    private final Comparator<Thread> order;
+    private Thread[] heap = new Thread[16];
+    private int size;
+
+    ThreadHeap(Comparator<Thread> order) {
+        this.order = order;
+    }
+
+    /**
+     * @return false si el hilo ya estaba en este montículo.
+     */
+    boolean add(Thread thread) {
+        if (contains(thread)) {
+            return false;
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        heap[size] = thread;
+        thread.setQueueSlot(size);
+        siftUp(size++);
+        return true;
+    }
+
+    boolean contains(Thread thread) {
+        int slot = thread.getQueueSlot();
+        return slot >= 0 && slot < size && heap[slot] == thread;
+    }
+
+    /**
+     * @return El primer hilo según el orden, sin quitarlo, o null si está vacío.
+     */
+    Thread peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    /**
+     * @return El primer hilo según el orden, o null si está vacío.
+     */
+    Thread poll() {
+        if (size == 0) {
+            return null;
+        }
+        Thread first = heap[0];
+        removeAt(0);
+        return first;
+    }
+
+    boolean remove(Thread thread) {
+        if (!contains(thread)) {
+            return false;
+        }
+        removeAt(thread.getQueueSlot());
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            heap[i].setQueueSlot(-1);
+            heap[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * @return Una copia de los hilos ordenada, O(n log n).
+     */
+    Thread[] toSortedArray() {
+        Thread[] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted, order);
+        return sorted;
+    }
+
+    private void removeAt(int index) {
+        heap[index].setQueueSlot(-1);
+        Thread last = heap[--size];
+        heap[size] = null;
+        if (index < size) {
+            heap[index] = last;
+            last.setQueueSlot(index);
+            siftUp(index);
+            siftDown(last.getQueueSlot());
+        }
+    }
+
+    private void siftUp(int index) {
+        Thread thread = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (order.compare(thread, heap[parent]) >= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heap[index].setQueueSlot(index);
+            index = parent;
+        }
+        heap[index] = thread;
+        thread.setQueueSlot(index);
+    }
+
+    private void siftDown(int index) {
+        Thread thread = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && order.compare(heap[child + 1], heap[child]) < 0) {
+                child++;
+            }
+            if (order.compare(heap[child], thread) >= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            heap[index].setQueueSlot(index);
+            index = child;
+        }
+        heap[index] = thread;
+        thread.setQueueSlot(index);
+    }
+
+    /**
+     * Recorre los hilos en el orden del array del montículo (no ordenados) sin copiarlos. No se puede
+     * modificar el montículo durante el recorrido.
+     */
+    @Override
+    public Iterator<Thread> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Thread next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return heap[next++];
+            }
+        };
+    }
+}